@@ -1,5 +1,6 @@
 package com.serhiidiukarev.holiday;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.gson.annotations.SerializedName;
 
 import javax.persistence.*;
@@ -15,10 +16,11 @@ import java.util.Objects;
 public class Holiday {
     @SerializedName("id")
     @Id
+    // the pooled optimizer takes 50 identifiers per round trip, the sequence is incremented by 50
     @SequenceGenerator(
             name = "holiday_sequence",
             sequenceName = "holiday_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             generator = "holiday_sequence",
@@ -36,6 +38,16 @@ public class Holiday {
     @Enumerated(EnumType.STRING)
     @Column(name = "category")
     private HolidayCategory holidayCategory;
+    /**
+     * {@code true} when the name is not stored but derived from the date,
+     * see {@link #getHolidayName()}. Neither persisted nor serialized.
+     */
+    private transient boolean generatedName;
+    /**
+     * Cached {@link #hashCode()}, {@code 0} until computed. Reset by
+     * the setters of the fields taking part in {@link #equals(Object)}.
+     */
+    private transient int hash;
 
 
     /**
@@ -88,13 +100,15 @@ public class Holiday {
         if (!(o instanceof Holiday)) return false;
         Holiday holiday = (Holiday) o;
         return Objects.equals(holidayDate, holiday.holidayDate)
-                && Objects.equals(holidayName, holiday.holidayName)
-                && holidayCategory == holiday.holidayCategory;
+                && holidayCategory == holiday.holidayCategory
+                && (isGeneratedName() && holiday.isGeneratedName()
+                || Objects.equals(getHolidayName(), holiday.getHolidayName()));
     }
 
 
     /**
-     * Hash code
+     * Hash code, computed once and cached until the date,
+     * the name or the category is changed
      *
      * @return a hash code value for this object.
      * @see java.lang.Object#equals(java.lang.Object)
@@ -102,8 +116,15 @@ public class Holiday {
      */
     @Override
     public int hashCode() {
-
-        return Objects.hash(holidayDate, holidayName, holidayCategory);
+        int h = hash;
+        if (h == 0) {
+            h = 31 * 31 * 31
+                    + 31 * 31 * Objects.hashCode(holidayDate)
+                    + 31 * Objects.hashCode(getHolidayName())
+                    + Objects.hashCode(holidayCategory);
+            hash = h;
+        }
+        return h;
     }
 
 
@@ -128,15 +149,32 @@ public class Holiday {
 
 
     /**
-     * Gets the holiday name
+     * Gets the holiday name. A generated name is computed from the date
+     * on every call instead of being stored.
      *
      * @return the holiday name
+     * @see HolidayBuilder#generatedName()
      */
     public String getHolidayName() {
+        if (generatedName && holidayName == null && holidayDate != null) {
+            return holidayDate.toString();
+        }
         return this.holidayName;
     }
 
 
+    /**
+     * Checks whether the name is derived from the date. Not a property of
+     * the answers of the REST API, which carry the derived name
+     *
+     * @return {@code true} if the name is generated
+     */
+    @JsonIgnore
+    public boolean isGeneratedName() {
+        return generatedName && holidayName == null;
+    }
+
+
     /**
      * It is a constructor.
      */
@@ -162,6 +200,7 @@ public class Holiday {
      */
     public void setHolidayDate(LocalDate holidayDate) {
         this.holidayDate = holidayDate;
+        this.hash = 0;
     }
 
 
@@ -172,6 +211,8 @@ public class Holiday {
      */
     public void setHolidayName(String holidayName) {
         this.holidayName = holidayName;
+        this.generatedName = false;
+        this.hash = 0;
     }
 
 
@@ -182,6 +223,19 @@ public class Holiday {
      */
     public void setHolidayCategory(HolidayCategory holidayCategory) {
         this.holidayCategory = holidayCategory;
+        this.hash = 0;
+    }
+
+    /**
+     * Stores a generated name before the entity is written to the database,
+     * so the {@code name} column can still be queried.
+     */
+    @PrePersist
+    @PreUpdate
+    void materializeGeneratedName() {
+        if (isGeneratedName()) {
+            setHolidayName(getHolidayName());
+        }
     }
 
     /**
@@ -201,6 +255,7 @@ public class Holiday {
         private LocalDate holidayDate;
         private String holidayName;
         private HolidayCategory holidayCategory;
+        private boolean generatedName;
 
         HolidayBuilder() {
         }
@@ -234,6 +289,17 @@ public class Holiday {
          */
         public HolidayBuilder holidayName(String holidayName) {
             this.holidayName = holidayName;
+            this.generatedName = false;
+            return this;
+        }
+
+
+        /**
+         * Uses the date as the display name without storing it
+         */
+        public HolidayBuilder generatedName() {
+            this.holidayName = null;
+            this.generatedName = true;
             return this;
         }
 
@@ -253,7 +319,9 @@ public class Holiday {
          * It is a constructor.
          */
         public Holiday build() {
-            return new Holiday(this.holidayId, this.holidayDate, this.holidayName, this.holidayCategory);
+            Holiday holiday = new Holiday(this.holidayId, this.holidayDate, this.holidayName, this.holidayCategory);
+            holiday.generatedName = this.generatedName;
+            return holiday;
         }
 
 
@@ -264,7 +332,8 @@ public class Holiday {
          */
         public String toString() {
             return "Holiday.HolidayBuilder(holidayId=" + this.holidayId + ", holidayDate=" + this.holidayDate + ", " +
-                    "holidayName=" + this.holidayName + ", holidayCategory=" + this.holidayCategory + ")";
+                    "holidayName=" + this.holidayName + ", holidayCategory=" + this.holidayCategory + ", " +
+                    "generatedName=" + this.generatedName + ")";
         }
     }
 }
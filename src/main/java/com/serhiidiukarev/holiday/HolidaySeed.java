@@ -0,0 +1,67 @@
+package com.serhiidiukarev.holiday;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * The checksum of a seed of holidays loaded into the database, so a seed
+ * is loaded again only when its content changes
+ */
+@Entity
+@Table(name = "holiday_seed")
+public class HolidaySeed {
+    @Id
+    @Column(name = "source")
+    private String source;
+    @Column(name = "checksum", nullable = false)
+    private String checksum;
+    @Column(name = "holidays")
+    private long holidays;
+    @Column(name = "seeded_at")
+    private Instant seededAt;
+
+    public HolidaySeed() {
+    }
+
+    /**
+     * @param source   the name of the seed, e.g. the location of its file
+     * @param checksum the SHA-256 of the content of the seed, in hex
+     * @param holidays the number of holidays added by the seed
+     * @param seededAt the time of the loading
+     */
+    public HolidaySeed(String source, String checksum, long holidays, Instant seededAt) {
+        this.source = source;
+        this.checksum = checksum;
+        this.holidays = holidays;
+        this.seededAt = seededAt;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public long getHolidays() {
+        return holidays;
+    }
+
+    public Instant getSeededAt() {
+        return seededAt;
+    }
+
+    @Override
+    public String toString() {
+        return "HolidaySeed{" +
+                "source='" + source + '\'' +
+                ", checksum='" + checksum + '\'' +
+                ", holidays=" + holidays +
+                ", seededAt=" + seededAt +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.serhiidiukarev.holiday;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The version of the holidays in the database, incremented by every write
+ * in the transaction of the write, so all the nodes sharing the database
+ * see the same version of the same holidays
+ */
+@Entity
+@Table(name = "holiday_version")
+public class HolidayVersion {
+    /**
+     * The identifier of the only row, the version of the calendar
+     */
+    public static final int CALENDAR = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public HolidayVersion() {
+    }
+
+    /**
+     * @param id      the identifier of the row
+     * @param version the version
+     */
+    public HolidayVersion(Integer id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayVersion{" +
+                "id=" + id +
+                ", version=" + version +
+                '}';
+    }
+}
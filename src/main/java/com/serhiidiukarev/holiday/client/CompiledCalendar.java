@@ -0,0 +1,128 @@
+package com.serhiidiukarev.holiday.client;
+
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An immutable snapshot of the holidays of a calendar version, compiled for
+ * workday counts without iterating the days: the weekdays of a range are counted
+ * arithmetically and the holidays falling on weekdays are counted by two binary
+ * searches in a sorted array of their epoch days. Counts agree with
+ * {@link com.serhiidiukarev.holiday.service.HolidayService#countWorkingDaysBetween}:
+ * both dates are included, Saturdays, Sundays and holidays are not working days.
+ */
+public final class CompiledCalendar {
+    /**
+     * A calendar without holidays, of version {@code 0}
+     */
+    public static final CompiledCalendar EMPTY = compile(0, Collections.emptyList());
+
+    /**
+     * 1969-12-29, the Monday before the epoch day {@code 0}
+     */
+    private static final long MONDAY_EPOCH_DAY = -3;
+
+    private final long version;
+    private final Map<LocalDate, Set<Holiday>> holidays;
+    private final long[] weekdayHolidays;
+
+    private CompiledCalendar(long version, Map<LocalDate, Set<Holiday>> holidays, long[] weekdayHolidays) {
+        this.version = version;
+        this.holidays = holidays;
+        this.weekdayHolidays = weekdayHolidays;
+    }
+
+    /**
+     * @param version  the version of the holidays
+     * @param holidays the holidays, each with a date
+     * @return the compiled calendar
+     * @throws IllegalArgumentException if a holiday or its date is {@code null}
+     */
+    public static CompiledCalendar compile(long version, Collection<Holiday> holidays) {
+        Map<LocalDate, Set<Holiday>> byDate = new TreeMap<>();
+        for (Holiday holiday : holidays) {
+            if (holiday == null || holiday.getHolidayDate() == null) {
+                throw new IllegalArgumentException("Invalid holiday: " + holiday);
+            }
+            byDate.computeIfAbsent(holiday.getHolidayDate(), date -> new LinkedHashSet<>()).add(holiday);
+        }
+        byDate.replaceAll((date, set) -> Collections.unmodifiableSet(set));
+
+        long[] weekdayHolidays = byDate.keySet().stream()
+                .filter(date -> !isWeekend(date))
+                .mapToLong(LocalDate::toEpochDay)
+                .toArray();
+        return new CompiledCalendar(version, Collections.unmodifiableMap(byDate), weekdayHolidays);
+    }
+
+    /**
+     * Calculate the number of workdays between two given dates
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days (inclusive)
+     * @throws IllegalArgumentException if any date is {@code null} or the start date is after the end date
+     */
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Invalid method argument(s): (startDate=" + startDate
+                    + ", endDate=" + endDate + ")");
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        long weekdays = weekdaysBefore(end + 1) - weekdaysBefore(start);
+        long holidays = indexAfter(end) - indexAfter(start - 1);
+        return (int) (weekdays - holidays);
+    }
+
+    /**
+     * @param date a date
+     * @return {@code true} if the date has holidays
+     */
+    public boolean isHoliday(LocalDate date) {
+        return holidays.containsKey(date);
+    }
+
+    /**
+     * @return the holidays of every date, ordered by date, unmodifiable
+     */
+    public Map<LocalDate, Set<Holiday>> getHolidays() {
+        return holidays;
+    }
+
+    /**
+     * @return the version of the holidays
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of weekdays from the Monday before the epoch up to the day, exclusive
+     */
+    private static long weekdaysBefore(long epochDay) {
+        long days = epochDay - MONDAY_EPOCH_DAY;
+        return 5 * Math.floorDiv(days, 7) + Math.min(Math.floorMod(days, 7), 5);
+    }
+
+    /**
+     * @return the index of the first weekday holiday after the day
+     */
+    private long indexAfter(long epochDay) {
+        int index = Arrays.binarySearch(weekdayHolidays, epochDay);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,259 @@
+package com.serhiidiukarev.holiday.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.serhiidiukarev.holiday.Holiday;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Client of the holidays REST API keeping the calendar in memory, so workday
+ * counts are local calls on a {@link CompiledCalendar} instead of requests.
+ *
+ * The calendar is loaded by {@link #start()} and refreshed in the background
+ * every refresh interval by a conditional {@code GET api/v1/holiday?shape=FLAT}
+ * with the ETag of the loaded calendar version: an unchanged calendar is answered
+ * with {@code 304 Not Modified} and no body, a changed one is downloaded compressed
+ * and compiled into a new snapshot, which replaces the old one at once. A failed
+ * refresh keeps the loaded calendar and is retried at the next interval.
+ *
+ * The read methods mirror the ones of {@link com.serhiidiukarev.holiday.service.HolidayService};
+ * {@link #getCalendar()} returns a snapshot for several reads of the same version.
+ * The client needs only Gson and the Log4j API on the class path.
+ *
+ * Thread-safe.
+ */
+public class HolidayClient implements AutoCloseable {
+    /**
+     * Client logger
+     */
+    Logger logger = LogManager.getLogger(HolidayClient.class);
+
+    private static final Pattern VERSION_ETAG = Pattern.compile("(?:W/)?\"([0-9a-fA-F]{1,16})\"");
+
+    private final HttpClient httpClient;
+    private final URI holidaysUri;
+    private final Duration refreshInterval;
+    private volatile CompiledCalendar calendar = CompiledCalendar.EMPTY;
+    private String eTag;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param baseUri         the root of the server, e.g. {@code http://localhost:8080/}
+     * @param refreshInterval the time between the version checks
+     */
+    public HolidayClient(URI baseUri, Duration refreshInterval) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build(), baseUri, refreshInterval);
+    }
+
+    /**
+     * @param httpClient      client sending the requests
+     * @param baseUri         the root of the server, e.g. {@code http://localhost:8080/}
+     * @param refreshInterval the time between the version checks
+     * @throws IllegalArgumentException if the refresh interval is not positive
+     */
+    public HolidayClient(HttpClient httpClient, URI baseUri, Duration refreshInterval) {
+        if (refreshInterval == null || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("Invalid refresh interval: " + refreshInterval);
+        }
+        this.httpClient = httpClient;
+        this.holidaysUri = baseUri.resolve("api/v1/holiday?shape=FLAT");
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Loads the calendar and starts to refresh it in the background
+     *
+     * @throws RuntimeException if the calendar can not be loaded
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "holiday-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh holidays from " + holidaysUri + ", keeping version "
+                        + calendar.getVersion(), e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks the version of the calendar and loads it if it changed
+     *
+     * @return {@code true} if a new version was loaded
+     * @throws RuntimeException if {@link IOException} is happened during the request,
+     *                          or the server answered with an error
+     */
+    public synchronized boolean refresh() {
+        HttpRequest.Builder request = HttpRequest.newBuilder(holidaysUri)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (eTag != null) {
+            request.header("If-None-Match", eTag);
+        }
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 304) {
+                    return false;
+                }
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Unexpected status " + response.statusCode() + " of " + holidaysUri);
+                }
+                String responseETag = response.headers().firstValue("ETag").orElse(null);
+                boolean gzip = response.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+                List<Holiday> holidays = parse(new InputStreamReader(gzip ? new GZIPInputStream(body) : body,
+                        StandardCharsets.UTF_8));
+                calendar = CompiledCalendar.compile(versionOf(responseETag), holidays);
+                eTag = responseETag;
+            }
+            logger.info("Loaded " + calendar.getHolidays().size() + " holiday dates of version " + calendar.getVersion());
+            return true;
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the loaded calendar, not changed by later refreshes
+     */
+    public CompiledCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Calculate the number of workdays between two given dates in the loaded calendar
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days (inclusive)
+     * @throws IllegalArgumentException if any date is {@code null} or the start date is after the end date
+     */
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        return calendar.countWorkingDaysBetween(startDate, endDate);
+    }
+
+    /**
+     * @return the loaded holidays of every date
+     */
+    public Map<LocalDate, Set<Holiday>> getHolidays() {
+        return calendar.getHolidays();
+    }
+
+    /**
+     * @return the version of the loaded holidays on the server, {@code 0} before the first load
+     */
+    public long getVersion() {
+        return calendar.getVersion();
+    }
+
+    /**
+     * Stops the background refresh
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return the version in the ETag of the server, {@code 0} if it has none
+     */
+    private static long versionOf(String eTag) {
+        if (eTag == null) {
+            return 0;
+        }
+        Matcher matcher = VERSION_ETAG.matcher(eTag);
+        return matcher.matches() ? Long.parseUnsignedLong(matcher.group(1), 16) : 0;
+    }
+
+    /**
+     * Reads the flat array of holidays answered by the server, a holiday
+     * without a name or named by its date gets the generated name
+     */
+    static List<Holiday> parse(Reader reader) throws IOException {
+        List<Holiday> holidays = new ArrayList<>();
+        try (JsonReader in = new JsonReader(reader)) {
+            in.beginArray();
+            while (in.hasNext()) {
+                Holiday.HolidayBuilder builder = Holiday.builder();
+                LocalDate holidayDate = null;
+                String holidayName = null;
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "holidayId":
+                            builder.holidayId(in.nextLong());
+                            break;
+                        case "holidayDate":
+                            holidayDate = LocalDate.parse(in.nextString());
+                            break;
+                        case "holidayName":
+                            holidayName = in.nextString();
+                            break;
+                        case "holidayCategory":
+                            builder.holidayCategory(Holiday.HolidayCategory.valueOf(in.nextString()));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                builder.holidayDate(holidayDate);
+                if (holidayName == null || holidayDate != null && holidayName.equals(holidayDate.toString())) {
+                    builder.generatedName();
+                } else {
+                    builder.holidayName(holidayName);
+                }
+                holidays.add(builder.build());
+            }
+            in.endArray();
+        }
+        return holidays;
+    }
+}
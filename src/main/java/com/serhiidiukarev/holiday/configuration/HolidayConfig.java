@@ -1,38 +1,56 @@
 package com.serhiidiukarev.holiday.configuration;
 
-import com.serhiidiukarev.holiday.Holiday;
-import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.service.HolidaySeeder;
+import com.serhiidiukarev.holiday.service.HolidayService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class HolidayConfig {
 
+    /**
+     * Bean names of the services which can be shared by the concurrent callers of the controller,
+     * the in-memory {@code DefaultHolidayService} and {@code CompactHolidayService} are not thread-safe
+     */
+    static final Set<String> CONTROLLER_SERVICES = Set.of("DBHolidayService", "TieredHolidayService", "DurableHolidayService");
+
     @Autowired
     private HolidaysManager holidaysManager;
 
+    /**
+     * The service used by the controller, chosen by its bean name
+     * in {@code holiday.service}
+     *
+     * @param context        application context
+     * @param holidayService bean name of the service, one of {@link #CONTROLLER_SERVICES}
+     * @return the selected service
+     * @throws IllegalArgumentException if the service is not one of {@link #CONTROLLER_SERVICES}
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    HolidayService<LocalDate, String> holidayService(ApplicationContext context,
+                                                     @Value("${holiday.service:DBHolidayService}") String holidayService) {
+        if (!CONTROLLER_SERVICES.contains(holidayService)) {
+            throw new IllegalArgumentException("holiday.service must be one of " + CONTROLLER_SERVICES + ": " + holidayService);
+        }
+        return context.getBean(holidayService, HolidayService.class);
+    }
+
+    /**
+     * Seeds the database with the changed seeds on startup, see {@link HolidaySeeder}
+     *
+     * @param holidaySeeder the seeder
+     * @return the runner
+     */
     @Bean
-    CommandLineRunner commandLineRunner(HolidayRepository holidayRepository) {
-        return args -> {
-            ArrayList<Holiday> holidays = new ArrayList<>();
-            Map<String, List<String>> holidaysMapping = holidaysManager.getHolidaysMapping();
-            holidaysMapping.forEach((id, item) -> {
-                Holiday holiday = Holiday
-                        .builder()
-                        .holidayName(item.get(0))
-                        .holidayCategory(Holiday.HolidayCategory.valueOf(item.get(1)))
-                        .holidayDate(LocalDate.parse(item.get(2)))
-                        .build();
-                holidays.add(holiday);
-            });
-            holidayRepository.saveAll(holidays);
-        };
+    CommandLineRunner commandLineRunner(HolidaySeeder holidaySeeder) {
+        return args -> holidaySeeder.seed(holidaysManager.getHolidaysMapping());
     }
 }
@@ -0,0 +1,157 @@
+package com.serhiidiukarev.holiday.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.controller.HolidayShape;
+import com.serhiidiukarev.holiday.service.HolidayService;
+import com.serhiidiukarev.holiday.service.WorkdayCountCache;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the {@code holidayService} once the application is started, before it
+ * accepts traffic: Spring Boot flips the readiness state to
+ * {@code ACCEPTING_TRAFFIC} right after the listeners of {@link ApplicationReadyEvent},
+ * so the readiness of the application waits for the warm-up, which runs after
+ * the seeding of {@link HolidayConfig}.
+ *
+ * The warm-up loads the calendar, runs {@code holiday.warmup.workday-queries}
+ * workday counts of random ranges around today in it, fills the {@link WorkdayCountCache}
+ * with the months of this and the next year through the service and serializes the calendar
+ * {@code holiday.warmup.serializations} times in every {@link HolidayShape} with
+ * Jackson and with the {@link HolidayCodec}, so the first requests find the calendar
+ * loaded, the adapters created and the counting loops compiled. It stops after
+ * {@code holiday.warmup.max-duration} milliseconds, and a failure of the warm-up is
+ * logged and does not stop the application.
+ */
+@Component
+@ConditionalOnProperty(prefix = "holiday.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class HolidayWarmUp {
+    /**
+     * Warm-up logger
+     */
+    Logger logger = LogManager.getLogger(HolidayWarmUp.class);
+
+    private final HolidayService<LocalDate, String> holidayService;
+    private final WorkdayCountCache workdayCountCache;
+    private final ObjectMapper objectMapper;
+    private final int workdayQueries;
+    private final int serializations;
+    private final long maxDuration;
+
+    /**
+     * @param holidayService    service warmed up
+     * @param workdayCountCache cache of the workday counts
+     * @param objectMapper      mapper of the answers of the controller
+     * @param workdayQueries    the number of the workday counts
+     * @param serializations    the number of the serializations of the calendar in every shape
+     * @param maxDuration       milliseconds after which the warm-up is stopped
+     */
+    @Autowired
+    public HolidayWarmUp(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                         WorkdayCountCache workdayCountCache,
+                         ObjectMapper objectMapper,
+                         @Value("${holiday.warmup.workday-queries:20000}") int workdayQueries,
+                         @Value("${holiday.warmup.serializations:20}") int serializations,
+                         @Value("${holiday.warmup.max-duration:60000}") long maxDuration) {
+        if (workdayQueries < 0 || serializations < 0 || maxDuration <= 0) {
+            throw new IllegalArgumentException("Invalid warm-up settings: (workdayQueries=" + workdayQueries
+                    + ", serializations=" + serializations + ", maxDuration=" + maxDuration + ")");
+        }
+        this.holidayService = holidayService;
+        this.workdayCountCache = workdayCountCache;
+        this.objectMapper = objectMapper;
+        this.workdayQueries = workdayQueries;
+        this.serializations = serializations;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Runs the warm-up on the thread starting the application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDuration);
+        try {
+            Map<LocalDate, Set<Holiday>> holidays = holidayService.getHolidays();
+            int queries = countWorkingDays(holidays, deadline);
+            int months = fillWorkdayCountCache(deadline);
+            int serialized = serialize(holidays, deadline);
+            logger.info("Warmed up in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: "
+                    + holidays.size() + " holiday dates, " + queries + " workday counts, "
+                    + months + " cached months, " + serialized + " serializations"
+                    + (System.nanoTime() - deadline > 0 ? ", stopped after " + maxDuration + " ms" : ""));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Warm-up failed, accepting traffic anyway", e);
+        }
+    }
+
+    /**
+     * Counts the workdays in the loaded calendar, as the services do after reading
+     * it, so a service reading the calendar per count is not called for every query
+     *
+     * @return the number of workday counts run
+     */
+    private int countWorkingDays(Map<LocalDate, Set<Holiday>> holidays, long deadline) {
+        // ranges of up to a year, starting within two years around today
+        LocalDate from = LocalDate.now().minusYears(2);
+        Random random = new Random(0);
+        int queries = 0;
+        long workdays = 0;
+        while (queries < workdayQueries && System.nanoTime() - deadline < 0) {
+            LocalDate startDate = from.plusDays(random.nextInt(4 * 365));
+            workdays += holidayService.countWorkingDaysBetween(startDate, startDate.plusDays(random.nextInt(366)), holidays);
+            queries++;
+        }
+        logger.debug("Counted " + workdays + " workdays");
+        return queries;
+    }
+
+    /**
+     * @return the number of months cached
+     */
+    private int fillWorkdayCountCache(long deadline) {
+        LocalDate month = LocalDate.now().withDayOfYear(1);
+        int months = 0;
+        while (months < 24 && System.nanoTime() - deadline < 0) {
+            workdayCountCache.countWorkingDaysBetween(month, month.plusMonths(1).minusDays(1));
+            month = month.plusMonths(1);
+            months++;
+        }
+        return months;
+    }
+
+    /**
+     * @return the number of serializations run
+     */
+    private int serialize(Map<LocalDate, Set<Holiday>> holidays, long deadline) throws IOException {
+        int serialized = 0;
+        for (int i = 0; i < serializations && System.nanoTime() - deadline < 0; i++) {
+            for (HolidayShape shape : HolidayShape.values()) {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), shape.apply(holidays, null));
+                serialized++;
+            }
+            HolidayCodec.writeMap(holidays, Writer.nullWriter(), false);
+            serialized++;
+        }
+        return serialized;
+    }
+}
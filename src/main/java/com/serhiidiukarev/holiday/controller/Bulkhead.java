@@ -0,0 +1,38 @@
+package com.serhiidiukarev.holiday.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the concurrent requests of a handler method, see {@link BulkheadInterceptor}.
+ * Methods naming the same bulkhead share its limits. The limits are the defaults of
+ * the {@code holiday.bulkhead.<name>.max-concurrent}, {@code .max-waiting} and
+ * {@code .max-wait} properties.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Bulkhead {
+    /**
+     * @return name of the bulkhead
+     */
+    String value();
+
+    /**
+     * @return the number of requests handled at a time
+     */
+    int maxConcurrent() default 4;
+
+    /**
+     * @return the number of requests waiting for a handled one to finish
+     */
+    int maxWaiting() default 0;
+
+    /**
+     * @return milliseconds a request waits before it is rejected
+     */
+    long maxWait() default 0;
+}
@@ -0,0 +1,121 @@
+package com.serhiidiukarev.holiday.controller;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The permits of a {@link Bulkhead}. At most {@code maxConcurrent} requests
+ * hold a permit, at most {@code maxWaiting} more wait up to {@code maxWait}
+ * milliseconds for one, and the others are rejected at once, so a burst of
+ * expensive requests neither piles up on the request threads nor takes all the
+ * connections of the database from the cheap ones.
+ *
+ * The counters are read by {@code GET api/v1/holiday/bulkheads}.
+ */
+public class BulkheadCompartment {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWait;
+    private final Semaphore permits;
+    private final Semaphore waitingSlots;
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name          name of the bulkhead
+     * @param maxConcurrent the number of requests handled at a time
+     * @param maxWaiting    the number of requests waiting for a permit
+     * @param maxWait       milliseconds a request waits for a permit
+     * @throws IllegalArgumentException if a limit is not positive, or a wait is negative
+     */
+    public BulkheadCompartment(String name, int maxConcurrent, int maxWaiting, long maxWait) {
+        if (maxConcurrent <= 0 || maxWaiting < 0 || maxWait < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead " + name + ": (maxConcurrent=" + maxConcurrent
+                    + ", maxWaiting=" + maxWaiting + ", maxWait=" + maxWait + ")");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitingSlots = new Semaphore(maxWaiting);
+    }
+
+    /**
+     * Takes a permit, waiting for one if the waiting requests are not too many
+     *
+     * @return {@code true} if the permit is taken, to be returned by {@link #exit()}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        if (maxWait > 0 && waitingSlots.tryAcquire()) {
+            try {
+                if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                    admitted.incrementAndGet();
+                    return true;
+                }
+            } finally {
+                waitingSlots.release();
+            }
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns a permit taken by {@link #tryEnter()}
+     */
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * @return the number of requests holding a permit
+     */
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of requests waiting for a permit
+     */
+    public int getWaiting() {
+        return maxWaiting - waitingSlots.availablePermits();
+    }
+
+    /**
+     * @return the number of requests which took a permit
+     */
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    /**
+     * @return the number of rejected requests
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
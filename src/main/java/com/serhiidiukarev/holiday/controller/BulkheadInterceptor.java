@@ -0,0 +1,95 @@
+package com.serhiidiukarev.holiday.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admits the requests of the handler methods annotated with {@link Bulkhead}
+ * through the {@link BulkheadCompartment} of the bulkhead, created on its first
+ * request with the limits of its {@code holiday.bulkhead.<name>.*} properties or
+ * else of the annotation. A request not admitted is answered with
+ * {@code 429 Too Many Requests} and a {@code Retry-After} header before its
+ * handler is called, and the permit of an admitted request is returned once it
+ * is completed. An asynchronous request keeps its permit until its result is
+ * written, so the bulkhead also limits the operations of the
+ * {@link com.serhiidiukarev.holiday.service.AsyncHolidayService} it started.
+ */
+@Component
+public class BulkheadInterceptor implements HandlerInterceptor {
+    /**
+     * Bulkhead logger
+     */
+    Logger logger = LogManager.getLogger(BulkheadInterceptor.class);
+
+    private static final String PERMIT = BulkheadInterceptor.class.getName() + ".PERMIT";
+
+    private final Environment environment;
+    private final Map<String, BulkheadCompartment> compartments = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkheadInterceptor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        if (request.getAttribute(PERMIT) != null) {
+            // the dispatch of the result of an admitted asynchronous request
+            return true;
+        }
+        Bulkhead bulkhead = ((HandlerMethod) handler).getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+        BulkheadCompartment compartment = compartments.computeIfAbsent(bulkhead.value(), name -> compartment(bulkhead));
+        if (!compartment.tryEnter()) {
+            logger.warn("Bulkhead " + compartment.getName() + " rejected " + request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(PERMIT, compartment);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object compartment = request.getAttribute(PERMIT);
+        if (compartment != null) {
+            request.removeAttribute(PERMIT);
+            ((BulkheadCompartment) compartment).exit();
+        }
+    }
+
+    /**
+     * @return the bulkheads which had requests, in no particular order
+     */
+    public List<BulkheadCompartment> getCompartments() {
+        return new ArrayList<>(compartments.values());
+    }
+
+    private BulkheadCompartment compartment(Bulkhead bulkhead) {
+        String prefix = "holiday.bulkhead." + bulkhead.value() + ".";
+        return new BulkheadCompartment(bulkhead.value(),
+                environment.getProperty(prefix + "max-concurrent", Integer.class, bulkhead.maxConcurrent()),
+                environment.getProperty(prefix + "max-waiting", Integer.class, bulkhead.maxWaiting()),
+                environment.getProperty(prefix + "max-wait", Long.class, bulkhead.maxWait()));
+    }
+}
@@ -0,0 +1,333 @@
+package com.serhiidiukarev.holiday.controller;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.HolidayChanges;
+import com.serhiidiukarev.holiday.service.HolidayService;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongFunction;
+
+/**
+ * Pushes the changes of the {@code holidayService} to the subscribers of
+ * {@code GET api/v1/holiday/changes} as server-sent events:
+ * <pre>
+ * id: 1615900000000012
+ * event: update
+ * data: {"holidayId":3,"holidayDate":"2021-01-01",...}
+ *
+ * id: 1615900000000013
+ * event: delete
+ * data: {"holidayId":5}
+ * </pre>
+ * The id of an event is the version of its change, so a reconnecting client
+ * resumes with its {@code Last-Event-ID}. A client too far behind, e.g. after a
+ * restart of the service, gets a {@code reset} event, all the holidays as
+ * {@code update} events without ids and a closing {@code version} event with the id.
+ * A new subscriber without {@code Last-Event-ID} gets only a {@code version} event
+ * and the changes after it, one with {@code Last-Event-ID: 0} gets all the holidays first.
+ *
+ * One thread waits for the changes of the service and queues them for all the
+ * subscribers, the changes after a version are read once for all the subscribers
+ * of that version. Without changes, a comment is queued every
+ * {@code holiday.changes.heartbeat} milliseconds, so closed connections are noticed.
+ *
+ * Every subscriber has its own queue of at most {@code holiday.changes.max-pending}
+ * deliveries, sent by its own task on a pool of sending threads, so a slow client
+ * blocks only the thread sending to it. A subscriber with a full queue fell behind
+ * and is dropped, the client reconnects with its {@code Last-Event-ID}.
+ */
+@Component
+public class HolidayChangeStream {
+    /**
+     * Change stream logger
+     */
+    Logger logger = LogManager.getLogger(HolidayChangeStream.class);
+
+    private final HolidayService<LocalDate, String> holidayService;
+    private final int maxSubscribers;
+    private final long heartbeat;
+    private final long timeout;
+    private final int maxPending;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    /**
+     * Threads sending the queued deliveries, at most one per subscriber at a time
+     */
+    private final ExecutorService sender = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "holiday-changes-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Thread thread;
+
+    /**
+     * @param holidayService service of the streamed holidays
+     * @param maxSubscribers the number of open streams
+     * @param heartbeat      milliseconds without changes before a comment is sent
+     * @param timeout        milliseconds before a stream is closed, {@code 0} to keep it open
+     * @param maxPending     the number of deliveries queued for a stream before it is dropped
+     */
+    @Autowired
+    public HolidayChangeStream(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                               @Value("${holiday.changes.max-subscribers:1000}") int maxSubscribers,
+                               @Value("${holiday.changes.heartbeat:15000}") long heartbeat,
+                               @Value("${holiday.changes.timeout:0}") long timeout,
+                               @Value("${holiday.changes.max-pending:64}") int maxPending) {
+        if (maxSubscribers < 0 || heartbeat <= 0 || timeout < 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Invalid change stream settings: (maxSubscribers=" + maxSubscribers
+                    + ", heartbeat=" + heartbeat + ", timeout=" + timeout + ", maxPending=" + maxPending + ")");
+        }
+        this.holidayService = holidayService;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Starts to send the changes, once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        thread = new Thread(this::broadcast, "holiday-changes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Opens a stream of the changes
+     *
+     * @param lastEventId the id of the last event received by the client, {@code null} for a new client
+     * @return the stream, with the changes after the id already queued
+     * @throws IllegalStateException if too many streams are open
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter, lastEventId == null ? holidayService.getVersion() : lastEventId);
+        // a broadcast waits for the version event of the stream, it delivers to the stream once it is added
+        synchronized (subscriber) {
+            synchronized (subscribers) {
+                if (subscribers.size() >= maxSubscribers) {
+                    throw new IllegalStateException("Too many change streams are open");
+                }
+                subscribers.add(subscriber);
+            }
+            if (lastEventId == null) {
+                subscriber.announce();
+            }
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // the changes missed by a broadcast running while the stream was added
+        subscriber.deliver(holidayService::getChangesSince);
+        return emitter;
+    }
+
+    /**
+     * @return the number of open streams
+     */
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        subscribers.forEach(Subscriber::drop);
+        subscribers.clear();
+        sender.shutdown();
+    }
+
+    private void broadcast() {
+        long version = holidayService.getVersion();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long next = holidayService.awaitChange(version, heartbeat);
+                if (next <= version) {
+                    subscribers.forEach(Subscriber::heartbeat);
+                    continue;
+                }
+                Map<Long, HolidayChanges> changes = new HashMap<>();
+                for (Subscriber subscriber : subscribers) {
+                    try {
+                        subscriber.deliver(since -> changes.computeIfAbsent(since, holidayService::getChangesSince));
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to read the changes after version " + subscriber.version, e);
+                    }
+                }
+                version = next;
+            }
+        } catch (InterruptedException e) {
+            logger.info("Stopped streaming holiday changes");
+        }
+    }
+
+    /**
+     * An open stream, the version of the last change queued for it
+     * and the deliveries not sent yet
+     */
+    private class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final Queue<List<SseEmitter.SseEventBuilder>> pending = new ArrayDeque<>();
+        private long version;
+        private boolean closed;
+        /**
+         * Whether a task of the sender is sending the pending deliveries
+         */
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter, long version) {
+            this.emitter = emitter;
+            this.version = version;
+        }
+
+        private synchronized void announce() {
+            enqueue(List.of(SseEmitter.event().id(Long.toString(version)).name("version").data(version)));
+        }
+
+        /**
+         * Queues the changes after the version of the stream, one subscriber at a time,
+         * so the changes are neither repeated nor reordered
+         */
+        private synchronized void deliver(LongFunction<HolidayChanges> changesSince) {
+            if (closed) {
+                return;
+            }
+            HolidayChanges changes = changesSince.apply(version);
+            HolidayChangeLog.Delta delta = changes.getDelta();
+            if (!delta.isFull() && !delta.isReset() && delta.getChanges().isEmpty()) {
+                return;
+            }
+            List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+            if (delta.isReset() || delta.isFull()) {
+                events.add(SseEmitter.event().name("reset").data(delta.getVersion()));
+            }
+            if (delta.isFull()) {
+                List<Holiday> all = new ArrayList<>(changes.getHolidays().values());
+                all.sort(Comparator.comparing(Holiday::getHolidayId));
+                for (Holiday holiday : all) {
+                    events.add(SseEmitter.event().name("update").data(holiday, MediaType.APPLICATION_JSON));
+                }
+                events.add(SseEmitter.event().id(Long.toString(delta.getVersion())).name("version").data(delta.getVersion()));
+            } else {
+                for (HolidayChangeLog.Change change : delta.getChanges()) {
+                    // a holiday deleted after the delta was taken is sent as deleted
+                    Holiday holiday = change.isDeleted() ? null : changes.getHolidays().get(change.getHolidayId());
+                    SseEmitter.SseEventBuilder event = SseEmitter.event().id(Long.toString(change.getVersion()));
+                    if (holiday == null) {
+                        event.name("delete").data(Map.of("holidayId", change.getHolidayId()), MediaType.APPLICATION_JSON);
+                    } else {
+                        event.name("update").data(holiday, MediaType.APPLICATION_JSON);
+                    }
+                    events.add(event);
+                }
+            }
+            enqueue(events);
+            version = delta.getVersion();
+        }
+
+        private synchronized void heartbeat() {
+            enqueue(List.of(SseEmitter.event().comment("")));
+        }
+
+        /**
+         * Queues a delivery and starts a task sending it, unless one is running,
+         * drops the subscriber if its queue is full
+         */
+        private void enqueue(List<SseEmitter.SseEventBuilder> events) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() >= maxPending) {
+                logger.warn("Dropped a change stream " + pending.size() + " deliveries behind at version " + version);
+                drop();
+                return;
+            }
+            pending.add(events);
+            if (!sending) {
+                try {
+                    sender.execute(this);
+                    sending = true;
+                } catch (RejectedExecutionException e) {
+                    // the stream is stopped
+                    drop();
+                }
+            }
+        }
+
+        /**
+         * Closes the stream without waiting for a send in progress, the emitter
+         * is completed by the running task, or here if none is running
+         */
+        private synchronized void drop() {
+            closed = true;
+            pending.clear();
+            subscribers.remove(this);
+            if (!sending) {
+                emitter.complete();
+            }
+        }
+
+        /**
+         * Sends the pending deliveries until the queue is empty
+         */
+        @Override
+        public void run() {
+            while (true) {
+                List<SseEmitter.SseEventBuilder> events;
+                synchronized (this) {
+                    events = closed ? null : pending.poll();
+                    if (events == null) {
+                        sending = false;
+                        if (closed) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                }
+                for (SseEmitter.SseEventBuilder event : events) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // the client went away
+                        synchronized (this) {
+                            closed = true;
+                            sending = false;
+                            pending.clear();
+                        }
+                        subscribers.remove(this);
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
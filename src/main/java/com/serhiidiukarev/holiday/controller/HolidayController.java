@@ -1,48 +1,281 @@
 package com.serhiidiukarev.holiday.controller;
 
 import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.AsyncHolidayService;
+import com.serhiidiukarev.holiday.service.HolidayImportJob;
+import com.serhiidiukarev.holiday.service.HolidayImportJobService;
 import com.serhiidiukarev.holiday.service.HolidayService;
+import com.serhiidiukarev.holiday.service.WorkdayCountCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.time.LocalDate;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping(path = "api/v1/holiday")
 public class HolidayController {
     private final HolidayService<LocalDate, String> holidaysService;
+    private final AsyncHolidayService<LocalDate, String> asyncHolidaysService;
+    private final HolidayImportJobService importJobService;
+    private final WorkdayCountCache workdayCountCache;
+    private final long workdaysMaxAge;
+    private final BulkheadInterceptor bulkheadInterceptor;
+    private final HolidayChangeStream changeStream;
+    private final ApplicationAvailability availability;
 
     @Autowired
-    public HolidayController(@Qualifier("DBHolidayService") HolidayService<LocalDate, String> holidaysService) {
+    public HolidayController(@Qualifier("holidayService") HolidayService<LocalDate, String> holidaysService,
+                             AsyncHolidayService<LocalDate, String> asyncHolidaysService,
+                             HolidayImportJobService importJobService,
+                             WorkdayCountCache workdayCountCache,
+                             @Value("${holiday.workdays.max-age:60}") long workdaysMaxAge,
+                             BulkheadInterceptor bulkheadInterceptor,
+                             HolidayChangeStream changeStream,
+                             ApplicationAvailability availability) {
         this.holidaysService = holidaysService;
+        this.asyncHolidaysService = asyncHolidaysService;
+        this.importJobService = importJobService;
+        this.workdayCountCache = workdayCountCache;
+        this.workdaysMaxAge = workdaysMaxAge;
+        this.bulkheadInterceptor = bulkheadInterceptor;
+        this.changeStream = changeStream;
+        this.availability = availability;
     }
 
+    /**
+     * Answers with all the holidays and an ETag of the calendar version, or with
+     * {@code 304 Not Modified} and no body if {@code If-None-Match} matches the version,
+     * checked before the holidays are read. The holidays are read on a thread of the
+     * {@link AsyncHolidayService}, the request thread is released meanwhile.
+     *
+     * @param shape   shape of the answer, {@link HolidayShape#NESTED} by default
+     * @param fields  names of the answered fields of every holiday, all the fields by default
+     * @param request the request with the conditional headers
+     * @return the holidays
+     */
     @GetMapping
-    public Map<LocalDate, Set<Holiday>> getHolidays() {
-        return holidaysService.getHolidays();
+    @Bulkhead(value = "calendar", maxConcurrent = 4, maxWaiting = 16, maxWait = 100)
+    public CompletableFuture<ResponseEntity<Object>> getHolidays(
+            @RequestParam(defaultValue = "NESTED") HolidayShape shape,
+            @RequestParam(required = false) List<String> fields,
+            WebRequest request
+    ) {
+        String eTag = calendarETag();
+        if (request.checkNotModified(eTag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .build());
+        }
+        return asyncHolidaysService.getHolidays().thenApply(calendar -> {
+            Object holidays;
+            try {
+                holidays = shape.apply(calendar, fields);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(holidays);
+        });
+    }
+
+    /**
+     * Answers with the number of working days between two dates, both included.
+     * The answer may be reused by clients for {@code holiday.workdays.max-age} seconds
+     * and revalidated by its ETag of the calendar version afterwards.
+     *
+     * @param start   the first date
+     * @param end     the last date
+     * @param request the request with the conditional headers
+     * @return the number of working days
+     */
+    @GetMapping(path = "workdays")
+    @Bulkhead(value = "workdays", maxConcurrent = 8, maxWaiting = 32, maxWait = 100)
+    public ResponseEntity<Integer> countWorkingDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            WebRequest request
+    ) {
+        CacheControl cacheControl = CacheControl.maxAge(workdaysMaxAge, TimeUnit.SECONDS).mustRevalidate();
+        String eTag = calendarETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        int workdays;
+        try {
+            workdays = workdayCountCache.countWorkingDaysBetween(start, end);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(workdays);
+    }
+
+    /**
+     * Opens a stream of server-sent events of the changes of the holidays,
+     * see {@link HolidayChangeStream}, answers with {@code 429 Too Many Requests}
+     * if too many streams are open
+     *
+     * @param lastEventId the id of the last event received before a reconnection
+     * @return the stream
+     */
+    @GetMapping(path = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return changeStream.subscribe(lastEventId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e);
+        }
     }
 
     @PostMapping
-    public boolean addHoliday(@RequestBody Holiday holiday) {
-        return holidaysService.addHoliday(holiday);
+    public CompletableFuture<Boolean> addHoliday(@RequestBody Holiday holiday) {
+        return asyncHolidaysService.addHoliday(holiday);
+    }
+
+    /**
+     * Adds the holidays of a JSON array, or of NDJSON lines, streamed from the body
+     * in batches. Holidays already contained are counted as duplicates.
+     *
+     * @param body the body of the request
+     * @return the summary of the import, with {@code 400 Bad Request} if the body could
+     * not be parsed, the batches read before stay added
+     */
+    @PostMapping(path = "bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(value = "bulk", maxConcurrent = 2)
+    public ResponseEntity<HolidayImportJob> addHolidays(InputStream body) {
+        return addHolidays(HolidayImportJob.Format.JSON, body);
+    }
+
+    @PostMapping(path = "bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Bulkhead(value = "bulk", maxConcurrent = 2)
+    public ResponseEntity<HolidayImportJob> addHolidaysFromNdjson(InputStream body) {
+        return addHolidays(HolidayImportJob.Format.NDJSON, body);
     }
 
     @PutMapping(path = "{holidayId}")
-    public Holiday updateHoliday(
+    public CompletableFuture<Holiday> updateHoliday(
             @PathVariable("holidayId") Long holidayId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate holidayDate,
             @RequestParam(required = false) String holidayName,
             @RequestParam(required = false) Holiday.HolidayCategory holidayCategory
     ) {
-        return holidaysService.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory);
+        return asyncHolidaysService.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory);
     }
 
     @DeleteMapping(path = "{holidayId}")
-    public boolean deleteHoliday(@PathVariable("holidayId") Long holidayId) {
-        return holidaysService.deleteHoliday(holidayId);
+    public CompletableFuture<Boolean> deleteHoliday(@PathVariable("holidayId") Long holidayId) {
+        return asyncHolidaysService.deleteHoliday(holidayId);
+    }
+
+    /**
+     * Queues an import of an uploaded file, answers with {@code 429 Too Many Requests}
+     * if too many imports are queued already
+     *
+     * @param file   the uploaded file
+     * @param format format of the file, chosen by the name of the file if not given
+     * @return the queued job, to be polled at its location
+     */
+    @PostMapping(path = "imports", consumes = "multipart/form-data")
+    public ResponseEntity<HolidayImportJob> importHolidays(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) HolidayImportJob.Format format
+    ) {
+        HolidayImportJob job;
+        try {
+            job = importJobService.submit(file.getOriginalFilename(), format, file::transferTo);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/holiday/imports/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping(path = "imports")
+    public List<HolidayImportJob> getImportJobs() {
+        return importJobService.getJobs();
+    }
+
+    @GetMapping(path = "imports/{jobId}")
+    public HolidayImportJob getImportJob(@PathVariable("jobId") Long jobId) {
+        HolidayImportJob job = importJobService.getJob(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "import job " + jobId + " does not exist");
+        }
+        return job;
+    }
+
+    /**
+     * @return the limits and the current and total requests of every bulkhead which had requests
+     */
+    @GetMapping(path = "bulkheads")
+    public List<BulkheadCompartment> getBulkheads() {
+        return bulkheadInterceptor.getCompartments();
+    }
+
+    /**
+     * Answers with the readiness state of the application, with {@code 503 Service Unavailable}
+     * until it accepts traffic, e.g. during the warm-up after a deploy, for the checks of load balancers
+     *
+     * @return the readiness state
+     */
+    @GetMapping(path = "readiness")
+    public ResponseEntity<ReadinessState> getReadiness() {
+        ReadinessState state = availability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(state);
+    }
+
+    /**
+     * Answers the imports and the holiday operations rejected by their full queues
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> importRejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(e.getMessage());
+    }
+
+    private ResponseEntity<HolidayImportJob> addHolidays(HolidayImportJob.Format format, InputStream body) {
+        HolidayImportJob job = importJobService.importNow("bulk request", format, body);
+        HttpStatus status = job.getStatus() == HolidayImportJob.Status.SUCCEEDED ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    /**
+     * @return a weak ETag of the calendar version, which changes with every change of
+     * the holidays, the representations of a version differ only in their encoding
+     * and in the shape chosen by the query
+     */
+    private String calendarETag() {
+        return "W/\"" + Long.toHexString(holidaysService.getVersion()) + "\"";
     }
 }
@@ -0,0 +1,92 @@
+package com.serhiidiukarev.holiday.controller;
+
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Shapes of the holidays answered by {@link HolidayController#getHolidays}.
+ * A sparse fieldset, given by the names of the fields as they are answered,
+ * replaces every holiday with a map of only these fields.
+ */
+public enum HolidayShape {
+    /**
+     * The holidays of every date, keyed by the date
+     */
+    NESTED,
+    /**
+     * One array of all the holidays ordered by date
+     */
+    FLAT,
+    /**
+     * One array of the dates having holidays, the fields are ignored
+     */
+    DATES;
+
+    private static final Map<String, Function<Holiday, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("holidayId", Holiday::getHolidayId);
+        FIELDS.put("holidayDate", Holiday::getHolidayDate);
+        FIELDS.put("holidayName", Holiday::getHolidayName);
+        FIELDS.put("holidayCategory", Holiday::getHolidayCategory);
+    }
+
+    /**
+     * @param holidays the holidays of every date, ordered by date
+     * @param fields   names of the answered fields, all the fields if {@code null} or empty
+     * @return the holidays in this shape
+     * @throws IllegalArgumentException if a field is not known
+     */
+    public Object apply(Map<LocalDate, Set<Holiday>> holidays, Collection<String> fields) {
+        Function<Holiday, Object> projection = projection(fields);
+        switch (this) {
+            case FLAT:
+                List<Object> flat = new ArrayList<>();
+                holidays.values().forEach(set -> set.forEach(holiday -> flat.add(projection.apply(holiday))));
+                return flat;
+            case DATES:
+                List<LocalDate> dates = new ArrayList<>();
+                holidays.forEach((date, set) -> {
+                    if (!set.isEmpty()) {
+                        dates.add(date);
+                    }
+                });
+                return dates;
+            default:
+                if (fields == null || fields.isEmpty()) {
+                    return holidays;
+                }
+                Map<LocalDate, List<Object>> nested = new LinkedHashMap<>();
+                holidays.forEach((date, set) -> {
+                    List<Object> projected = new ArrayList<>(set.size());
+                    set.forEach(holiday -> projected.add(projection.apply(holiday)));
+                    nested.put(date, projected);
+                });
+                return nested;
+        }
+    }
+
+    private static Function<Holiday, Object> projection(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return holiday -> holiday;
+        }
+        for (String field : fields) {
+            if (!FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown field " + field + ", known fields are " + FIELDS.keySet());
+            }
+        }
+        return holiday -> {
+            Map<String, Object> projected = new LinkedHashMap<>();
+            fields.forEach(field -> projected.put(field, FIELDS.get(field).apply(holiday)));
+            return projected;
+        };
+    }
+}
@@ -0,0 +1,360 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.NamePool;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Binary calendar file, a compact alternative to JSON for loading and saving
+ * all the holidays of a service. A file of version {@code 1} consists of
+ * <ul>
+ *     <li>the magic {@code HCAL} and a version byte</li>
+ *     <li>a string table: the number of distinct names, then every name as
+ *     its length and UTF-8 bytes</li>
+ *     <li>the number of holidays, then the holidays sorted by date, each as
+ *     the difference to the previous epoch day, a byte with the category
+ *     ({@code ordinal + 1}, {@code 0} for none) and a flag of a present
+ *     identifier in its high bit, a reference to the string table
+ *     ({@code 0} for no name, {@code 1} for a name generated from the date,
+ *     {@code index + 2} otherwise) and, if present, the difference
+ *     to the previous identifier</li>
+ * </ul>
+ * Numbers are unsigned varints, differences are zigzag-encoded, so a
+ * holiday takes a few bytes. Files are written through a {@link FileChannel}
+ * and read from a memory mapping.
+ */
+public final class HolidayCalendarFile {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final int MAGIC = 0x4843414c;
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HAS_ID = 0x80;
+    private static final int NO_NAME = 0;
+    private static final int GENERATED_NAME = 1;
+    private static final int TABLE_NAME = 2;
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    private final ByteBuffer buffer;
+    private final String[] names;
+    private final int size;
+    private final int entriesPosition;
+
+    /**
+     * Receives the holidays of a file without creating {@link Holiday} instances
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param hasId     {@code true} if the holiday has an identifier
+         * @param id        the identifier, {@code 0} if absent
+         * @param epochDay  the epoch day of the date
+         * @param category  the category or {@code null}
+         * @param nameIndex index of the name in {@link #names()}, {@link NamePool#NULL_REF}
+         *                  for no name or {@link NamePool#DATE_REF} for a generated name
+         */
+        void holiday(boolean hasId, long id, long epochDay, Holiday.HolidayCategory category, int nameIndex);
+    }
+
+    private HolidayCalendarFile(ByteBuffer buffer, String[] names, int size) {
+        this.buffer = buffer;
+        this.names = names;
+        this.size = size;
+        this.entriesPosition = buffer.position();
+    }
+
+    /**
+     * Maps a calendar file and reads its string table
+     *
+     * @param file path to a calendar file
+     * @return the opened file
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if the file is not a calendar file of a known version
+     */
+    public static HolidayCalendarFile open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Calendar file is too large: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.remaining() < Integer.BYTES + 1 || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a holiday calendar file: " + file);
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported holiday calendar version " + version + ": " + file);
+            }
+            String[] names = new String[readInt(buffer)];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[readInt(buffer)];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new HolidayCalendarFile(buffer, names, readInt(buffer));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated holiday calendar file: " + file, e);
+        }
+    }
+
+    /**
+     * @return the string table of the file
+     */
+    public String[] names() {
+        return names.clone();
+    }
+
+    /**
+     * @return the number of holidays in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes all the holidays in the order of their dates
+     *
+     * @param visitor receiver of the holidays
+     * @throws IllegalArgumentException if the file is truncated or corrupted
+     */
+    public void forEach(Visitor visitor) {
+        ByteBuffer entries = buffer.duplicate().position(entriesPosition);
+        long epochDay = 0;
+        long id = 0;
+        try {
+            for (int i = 0; i < size; i++) {
+                epochDay += unzigzag(readLong(entries));
+                int flags = entries.get() & 0xff;
+                int category = flags & ~HAS_ID;
+                if (category > CATEGORIES.length) {
+                    throw new IllegalArgumentException("Invalid category in holiday calendar: " + category);
+                }
+                int name = readInt(entries);
+                int nameIndex = name == NO_NAME ? NamePool.NULL_REF
+                        : name == GENERATED_NAME ? NamePool.DATE_REF
+                        : name - TABLE_NAME;
+                if (nameIndex >= names.length) {
+                    throw new IllegalArgumentException("Invalid name in holiday calendar: " + name);
+                }
+                boolean hasId = (flags & HAS_ID) != 0;
+                if (hasId) {
+                    id += unzigzag(readLong(entries));
+                }
+                visitor.holiday(hasId, hasId ? id : 0, epochDay,
+                        category == 0 ? null : CATEGORIES[category - 1], nameIndex);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated holiday calendar file", e);
+        }
+    }
+
+    /**
+     * Decodes all the holidays into {@link Holiday} instances handed over in batches
+     *
+     * @param batchSize the maximal number of holidays in a batch
+     * @param batches   receiver of the batches of holidays, each batch is a new list
+     * @param listener  receiver of the progress, in holidays and bytes of the file
+     * @return the number of read holidays
+     */
+    public long importTo(int batchSize, Consumer<List<Holiday>> batches, ImportProgressListener listener) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        Importer importer = new Importer(batchSize, batches, listener);
+        forEach(importer);
+        importer.flush();
+        return importer.holidays;
+    }
+
+    /**
+     * Writes the holidays to a file, replacing its content
+     *
+     * @param file     path to a calendar file
+     * @param holidays the holidays to write, all of them with dates
+     * @return the number of written holidays
+     * @throws IOException if the file can not be written
+     */
+    public static long write(Path file, Iterable<Holiday> holidays) throws IOException {
+        List<Holiday> sorted = new ArrayList<>();
+        holidays.forEach(sorted::add);
+        sorted.sort(Comparator.comparing(Holiday::getHolidayDate));
+
+        Map<String, Integer> table = new LinkedHashMap<>();
+        for (Holiday holiday : sorted) {
+            if (!holiday.isGeneratedName() && holiday.getHolidayName() != null) {
+                table.putIfAbsent(holiday.getHolidayName(), table.size());
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.ensureRemaining(Integer.BYTES + 1);
+            out.buffer.putInt(MAGIC).put(VERSION);
+            out.putInt(table.size());
+            for (String name : table.keySet()) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.putInt(bytes.length);
+                out.put(bytes);
+            }
+            out.putInt(sorted.size());
+            long epochDay = 0;
+            long id = 0;
+            for (Holiday holiday : sorted) {
+                long day = holiday.getHolidayDate().toEpochDay();
+                out.putLong(zigzag(day - epochDay));
+                epochDay = day;
+
+                Holiday.HolidayCategory category = holiday.getHolidayCategory();
+                Long holidayId = holiday.getHolidayId();
+                int flags = (category == null ? 0 : category.ordinal() + 1) | (holidayId == null ? 0 : HAS_ID);
+                out.ensureRemaining(1);
+                out.buffer.put((byte) flags);
+
+                String name = holiday.getHolidayName();
+                out.putInt(holiday.isGeneratedName() ? GENERATED_NAME
+                        : name == null ? NO_NAME
+                        : table.get(name) + TABLE_NAME);
+                if (holidayId != null) {
+                    out.putLong(zigzag(holidayId - id));
+                    id = holidayId;
+                }
+            }
+            out.flush();
+        }
+        return sorted.size();
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readInt(ByteBuffer buffer) {
+        long value = readLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length in holiday calendar: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long readLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint in holiday calendar");
+    }
+
+    /**
+     * Collects decoded holidays into batches
+     */
+    private class Importer implements Visitor {
+        private final int batchSize;
+        private final Consumer<List<Holiday>> batches;
+        private final ImportProgressListener listener;
+        private List<Holiday> holidayList = new ArrayList<>();
+        private long holidays;
+
+        private Importer(int batchSize, Consumer<List<Holiday>> batches, ImportProgressListener listener) {
+            this.batchSize = batchSize;
+            this.batches = batches;
+            this.listener = listener;
+        }
+
+        @Override
+        public void holiday(boolean hasId, long id, long epochDay, Holiday.HolidayCategory category, int nameIndex) {
+            Holiday.HolidayBuilder builder = Holiday.builder()
+                    .holidayId(hasId ? id : null)
+                    .holidayDate(LocalDate.ofEpochDay(epochDay))
+                    .holidayCategory(category);
+            if (nameIndex == NamePool.DATE_REF) {
+                builder.generatedName();
+            } else if (nameIndex != NamePool.NULL_REF) {
+                builder.holidayName(names[nameIndex]);
+            }
+            holidayList.add(builder.build());
+            if (holidayList.size() == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (holidayList.isEmpty()) {
+                return;
+            }
+            holidays += holidayList.size();
+            batches.accept(holidayList);
+            holidayList = new ArrayList<>();
+            long totalBytes = buffer.capacity();
+            listener.progress(holidays, totalBytes * holidays / size, totalBytes);
+        }
+    }
+
+    /**
+     * Buffered varint output to a channel
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putInt(int value) throws IOException {
+            putLong(value & 0xffffffffL);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensureRemaining(10);
+            while ((value & ~0x7fL) != 0) {
+                buffer.put((byte) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensureRemaining(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.NamePool;
+import com.serhiidiukarev.holiday.utils.EpochDays;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Memory-mapped reader of holidays in CSV with the {@code id,category,name,date}
+ * layout and an optional header line. The mapped bytes are parsed in place:
+ * identifiers and dates are decoded from their digits, dates straight to epoch
+ * days, and categories are matched against the bytes of their names, so the only
+ * {@link String}s created are the names of the holidays.
+ *
+ * Names containing commas, quotes or line breaks are enclosed in double quotes,
+ * with quotes doubled. Empty fields are read as {@code null}, unknown categories
+ * too, as by {@link com.serhiidiukarev.holiday.utils.HolidayAdapter}.
+ * Files larger than the mapping window are mapped window by window.
+ */
+public class HolidayCsvReader {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+    private static final int FIELDS = 4;
+
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+    private static final byte[][] CATEGORY_NAMES = new byte[CATEGORIES.length][];
+
+    static {
+        for (Holiday.HolidayCategory category : CATEGORIES) {
+            CATEGORY_NAMES[category.ordinal()] = category.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final int batchSize;
+    private final long windowSize;
+
+    public HolidayCsvReader() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize the maximal number of holidays in a batch
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    public HolidayCsvReader(int batchSize) {
+        this(batchSize, DEFAULT_WINDOW_SIZE);
+    }
+
+    HolidayCsvReader(int batchSize, long windowSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads all the holidays of a CSV file
+     *
+     * @param file     path to a file in CSV format
+     * @param batches  receiver of the batches of holidays, each batch is a new list
+     * @param listener receiver of the progress
+     * @return the number of read holidays
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public long importFile(Path file, Consumer<List<Holiday>> batches, ImportProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Parser parser = new Parser();
+            long size = channel.size();
+            long position = 0;
+            long holidays = 0;
+            List<Holiday> batch = new ArrayList<>();
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                boolean last = position + length == size;
+                parser.buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int start = 0;
+                while (start < length) {
+                    parser.line++;
+                    int next = parser.scanLine(start, length, last);
+                    if (next < 0) {
+                        if (start == 0) {
+                            throw parser.malformed("longer than " + windowSize + " bytes");
+                        }
+                        parser.line--;
+                        break;
+                    }
+                    Holiday holiday = parser.holiday();
+                    start = next;
+                    if (holiday == null) {
+                        continue;
+                    }
+                    batch.add(holiday);
+                    if (batch.size() == batchSize) {
+                        holidays += batch.size();
+                        batches.accept(batch);
+                        batch = new ArrayList<>();
+                        parser.names.clear();
+                        listener.progress(holidays, position + start, size);
+                    }
+                }
+                position += start;
+            }
+            if (!batch.isEmpty()) {
+                holidays += batch.size();
+                batches.accept(batch);
+                listener.progress(holidays, size, size);
+            }
+            return holidays;
+        }
+    }
+
+    /**
+     * Field boundaries of the current line of a mapped window
+     */
+    private static class Parser {
+        private final int[] fieldStart = new int[FIELDS];
+        private final int[] fieldEnd = new int[FIELDS];
+        private final boolean[] quoted = new boolean[FIELDS];
+        private final NamePool names = new NamePool();
+        private byte[] scratch = new byte[64];
+        private MappedByteBuffer buffer;
+        private int fields;
+        /**
+         * Number of the current line, starting from {@code 1}
+         */
+        private long line;
+
+        /**
+         * Finds the fields of the line starting at {@code start}
+         *
+         * @return the start of the next line, or {@code -1} if the line
+         * continues after {@code limit} in a following window
+         */
+        private int scanLine(int start, int limit, boolean last) {
+            int field = 0;
+            fieldStart[0] = start;
+            quoted[0] = false;
+            int i = start;
+            while (true) {
+                if (i == limit) {
+                    if (!last) {
+                        return -1;
+                    }
+                    fieldEnd[field] = i;
+                    fields = field + 1;
+                    return i;
+                }
+                byte b = buffer.get(i);
+                if (b == '"' && i == fieldStart[field]) {
+                    i = closingQuote(i + 1, limit, last);
+                    if (i < 0) {
+                        return -1;
+                    }
+                    quoted[field] = true;
+                    i++;
+                } else if (b == ',') {
+                    fieldEnd[field] = i;
+                    if (++field == FIELDS) {
+                        throw malformed("more than " + FIELDS + " fields");
+                    }
+                    fieldStart[field] = i + 1;
+                    quoted[field] = false;
+                    i++;
+                } else if (b == '\n') {
+                    fieldEnd[field] = i > fieldStart[field] && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                    fields = field + 1;
+                    return i + 1;
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        private int closingQuote(int i, int limit, boolean last) {
+            while (true) {
+                if (i == limit) {
+                    if (!last) {
+                        return -1;
+                    }
+                    throw malformed("unterminated quote");
+                }
+                if (buffer.get(i) == '"') {
+                    if (i + 1 == limit && !last) {
+                        return -1;
+                    }
+                    if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                        i += 2;
+                        continue;
+                    }
+                    return i;
+                }
+                i++;
+            }
+        }
+
+        /**
+         * @return the holiday of the scanned line, or {@code null}
+         * for a blank line or the header
+         */
+        private Holiday holiday() {
+            if (fields == 1 && fieldEnd[0] == fieldStart[0]) {
+                return null;
+            }
+            if (fields != FIELDS) {
+                throw malformed("expected " + FIELDS + " fields but found " + fields);
+            }
+            if (line == 1 && isHeader()) {
+                return null;
+            }
+            return Holiday.builder()
+                    .holidayId(id())
+                    .holidayCategory(category())
+                    .holidayName(name())
+                    .holidayDate(date())
+                    .build();
+        }
+
+        private boolean isHeader() {
+            int start = fieldStart[0];
+            return fieldEnd[0] - start == 2 && buffer.get(start) == 'i' && buffer.get(start + 1) == 'd';
+        }
+
+        private Long id() {
+            int start = fieldStart[0];
+            int end = fieldEnd[0];
+            if (start == end) {
+                return null;
+            }
+            boolean negative = buffer.get(start) == '-';
+            int i = negative ? start + 1 : start;
+            if (i == end || end - i > 19) {
+                throw malformed("invalid id");
+            }
+            long id = 0;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw malformed("invalid id");
+                }
+                id = id * 10 + digit;
+            }
+            if (id < 0) {
+                throw malformed("invalid id");
+            }
+            return negative ? -id : id;
+        }
+
+        private Holiday.HolidayCategory category() {
+            int start = fieldStart[1];
+            int length = fieldEnd[1] - start;
+            for (int c = 0; c < CATEGORY_NAMES.length; c++) {
+                byte[] name = CATEGORY_NAMES[c];
+                if (name.length == length && matches(name, start)) {
+                    return CATEGORIES[c];
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(byte[] name, int start) {
+            for (int i = 0; i < name.length; i++) {
+                if (buffer.get(start + i) != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String name() {
+            int start = fieldStart[2];
+            int end = fieldEnd[2];
+            if (start == end) {
+                return null;
+            }
+            int length = 0;
+            if (quoted[2]) {
+                for (int i = start + 1; i < end - 1; i++) {
+                    byte b = buffer.get(i);
+                    ensureScratch(length + 1);
+                    scratch[length++] = b;
+                    if (b == '"') {
+                        i++;
+                    }
+                }
+            } else {
+                length = end - start;
+                ensureScratch(length);
+                buffer.get(start, scratch, 0, length);
+            }
+            return names.intern(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        }
+
+        private LocalDate date() {
+            int start = fieldStart[3];
+            int end = fieldEnd[3];
+            if (start == end) {
+                return null;
+            }
+            if (end - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+                int year = digits(start, 4);
+                int month = digits(start + 5, 2);
+                int day = digits(start + 8, 2);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    try {
+                        return LocalDate.ofEpochDay(EpochDays.of(year, month, day));
+                    } catch (IllegalArgumentException e) {
+                        throw malformed(e.getMessage());
+                    }
+                }
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            try {
+                return LocalDate.parse(new String(bytes, StandardCharsets.US_ASCII), LocalDateAdapter.formatter);
+            } catch (RuntimeException e) {
+                throw malformed("invalid date");
+            }
+        }
+
+        /**
+         * @return the decimal value of the digits, or {@code -1} if a byte is not a digit
+         */
+        private int digits(int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private void ensureScratch(int length) {
+            if (scratch.length < length) {
+                byte[] larger = new byte[Math.max(scratch.length * 2, length)];
+                System.arraycopy(scratch, 0, larger, 0, scratch.length);
+                scratch = larger;
+            }
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed CSV line " + line + ": " + reason);
+        }
+    }
+}
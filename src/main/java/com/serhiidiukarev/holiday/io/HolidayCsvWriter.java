@@ -0,0 +1,176 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Writer of holidays in CSV with the {@code id,category,name,date} layout read by
+ * {@link HolidayCsvReader}, without a header line. Lines are encoded into a buffer
+ * written to a {@link FileChannel}; identifiers and dates are written digit by digit.
+ *
+ * Not thread-safe, a writer is meant for a single export.
+ */
+public class HolidayCsvWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[][] CATEGORY_NAMES = new byte[Holiday.HolidayCategory.values().length][];
+
+    static {
+        for (Holiday.HolidayCategory category : Holiday.HolidayCategory.values()) {
+            CATEGORY_NAMES[category.ordinal()] = category.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private FileChannel channel;
+
+    /**
+     * Writes the holidays to a file, replacing its content
+     *
+     * @param file     path to a file in CSV format
+     * @param holidays the holidays to write
+     * @return the number of written holidays
+     * @throws IOException if the file can not be written
+     */
+    public long write(Path file, Iterable<Holiday> holidays) throws IOException {
+        buffer.clear();
+        long written = 0;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel = fileChannel;
+            for (Holiday holiday : holidays) {
+                writeLine(holiday);
+                written++;
+            }
+            flush();
+        } finally {
+            channel = null;
+        }
+        return written;
+    }
+
+    private void writeLine(Holiday holiday) throws IOException {
+        Long id = holiday.getHolidayId();
+        if (id != null) {
+            putLong(id);
+        }
+        put((byte) ',');
+        Holiday.HolidayCategory category = holiday.getHolidayCategory();
+        if (category != null) {
+            put(CATEGORY_NAMES[category.ordinal()]);
+        }
+        put((byte) ',');
+        String name = holiday.getHolidayName();
+        if (name != null) {
+            putName(name.getBytes(StandardCharsets.UTF_8));
+        }
+        put((byte) ',');
+        LocalDate date = holiday.getHolidayDate();
+        if (date != null) {
+            putDate(date);
+        }
+        put((byte) '\n');
+    }
+
+    private void putName(byte[] name) throws IOException {
+        boolean quote = false;
+        for (byte b : name) {
+            if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            put(name);
+            return;
+        }
+        put((byte) '"');
+        for (byte b : name) {
+            if (b == '"') {
+                put((byte) '"');
+            }
+            put(b);
+        }
+        put((byte) '"');
+    }
+
+    private void putDate(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            put(LocalDateAdapter.formatter.format(date).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        ensureRemaining(10);
+        putDigits(year, 4);
+        buffer.put((byte) '-');
+        putDigits(date.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void putDigits(int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, 0, count);
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            put(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        ensureRemaining(digits.length - start);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    private void put(byte b) throws IOException {
+        ensureRemaining(1);
+        buffer.put(b);
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+            return;
+        }
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,84 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of the changes of a {@link HolidayChangeLog.Delta} as compact Json:
+ * <pre>
+ * {"since": 10, "version": 12, "reset": false, "changes": [
+ *   {"version": 11, "id": 3, "holiday": {"id": 3, "date": "2021-01-01", ...}},
+ *   {"version": 12, "id": 5, "deleted": true}]}
+ * </pre>
+ * With {@code "reset": true} the holidays known at the since version are to be
+ * dropped before the changes are applied. A full delta lists all the holidays.
+ * The file is replaced atomically and compressed if named {@code *.gz}, see {@link HolidayFiles}.
+ */
+public final class HolidayDeltaWriter {
+
+    private HolidayDeltaWriter() {
+    }
+
+    /**
+     * Writes the changes to a file, replacing its content
+     *
+     * @param file     path to a file in JSON format
+     * @param delta    the changes
+     * @param holidays the current holidays by identifier, at least the updated ones of the delta,
+     *                 all of them for a full delta
+     * @return the number of written changes
+     * @throws IOException if the file can not be written
+     */
+    public static long write(Path file, HolidayChangeLog.Delta delta, Map<Long, Holiday> holidays) throws IOException {
+        TypeAdapter<Holiday> holidayAdapter = HolidayCodec.gson(false).getAdapter(Holiday.class);
+        HolidayFiles.writeText(file, writer -> {
+            JsonWriter out = new JsonWriter(writer);
+            out.beginObject();
+            out.name("since").value(delta.getSinceVersion());
+            out.name("version").value(delta.getVersion());
+            out.name("reset").value(delta.isReset());
+            out.name("changes").beginArray();
+            if (delta.isFull()) {
+                List<Holiday> all = new ArrayList<>(holidays.values());
+                all.sort(Comparator.comparing(Holiday::getHolidayId));
+                for (Holiday holiday : all) {
+                    writeChange(out, holidayAdapter, delta.getVersion(), holiday.getHolidayId(), holiday);
+                }
+            } else {
+                for (HolidayChangeLog.Change change : delta.getChanges()) {
+                    // a holiday deleted after the delta was taken is written as deleted
+                    Holiday holiday = change.isDeleted() ? null : holidays.get(change.getHolidayId());
+                    writeChange(out, holidayAdapter, change.getVersion(), change.getHolidayId(), holiday);
+                }
+            }
+            out.endArray();
+            out.endObject();
+            out.flush();
+        });
+        return delta.isFull() ? holidays.size() : delta.getChanges().size();
+    }
+
+    private static void writeChange(JsonWriter out, TypeAdapter<Holiday> holidayAdapter,
+                                    long version, long holidayId, Holiday holiday) throws IOException {
+        out.beginObject();
+        out.name("version").value(version);
+        out.name("id").value(holidayId);
+        if (holiday == null) {
+            out.name("deleted").value(true);
+        } else {
+            out.name("holiday");
+            holidayAdapter.write(out, holiday);
+        }
+        out.endObject();
+    }
+}
@@ -0,0 +1,162 @@
+package com.serhiidiukarev.holiday.io;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File helpers shared by the imports and exports.
+ *
+ * Exports replace their destination atomically: the content is written to a
+ * temporary file in the same directory, forced to the disk and moved over the
+ * destination, so readers see either the old or the new file and a crash leaves
+ * at most a stray {@code .tmp} file. Text exports to a file named {@code *.gz}
+ * are compressed with GZIP, and text imports detect GZIP by its magic bytes,
+ * whatever the name of the file.
+ */
+public final class HolidayFiles {
+    public static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    /**
+     * Writes the content of a file to the given path
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Path file) throws IOException;
+    }
+
+    /**
+     * Writes the text of a file to the given writer
+     */
+    @FunctionalInterface
+    public interface Text {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private HolidayFiles() {
+    }
+
+    /**
+     * Replaces a file with new content
+     *
+     * @param file    the destination
+     * @param content writer of the content to a temporary file
+     * @throws IOException if the content can not be written, the destination is left as it was
+     */
+    public static void write(Path file, Content content) throws IOException {
+        Path temporary = createTemporary(file);
+        try {
+            content.writeTo(temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            move(temporary, file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces a file with new UTF-8 text, compressed with GZIP
+     * if the name of the file ends with {@value #GZIP_SUFFIX}
+     *
+     * @param file the destination
+     * @param text writer of the text
+     * @throws IOException if the text can not be written, the destination is left as it was
+     */
+    public static void writeText(Path file, Text text) throws IOException {
+        write(file, temporary -> {
+            OutputStream out = Files.newOutputStream(temporary);
+            out = isCompressed(file) ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                text.writeTo(writer);
+            }
+        });
+    }
+
+    /**
+     * @param file the destination of an export
+     * @return {@code true} if a text export to the file is compressed
+     */
+    public static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    /**
+     * @param channel an open file
+     * @return {@code true} if the file starts with the GZIP magic bytes
+     * @throws IOException if the file can not be read
+     */
+    public static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                return false;
+            }
+        }
+        return (magic.getShort(0) & 0xffff) == GZIP_MAGIC;
+    }
+
+    /**
+     * Opens a reader of the UTF-8 text of a file, decompressed if the file is
+     * compressed with GZIP. The position of the channel counts the bytes of the
+     * file read so far, compressed or not.
+     *
+     * @param channel an open file at its start
+     * @return a buffered reader of the text
+     * @throws IOException if the file can not be read
+     */
+    public static Reader newReader(FileChannel channel) throws IOException {
+        if (isGzip(channel)) {
+            return new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+        return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an empty file next to the destination; unlike
+     * {@link Files#createTempFile} it gets the default permissions
+     */
+    private static Path createTemporary(Path file) throws IOException {
+        while (true) {
+            Path temporary = file.resolveSibling("." + file.getFileName() + "."
+                    + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temporary);
+            } catch (FileAlreadyExistsException e) {
+                // taken by a concurrent export, try another name
+            }
+        }
+    }
+
+    private static void move(Path temporary, Path file) throws IOException {
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
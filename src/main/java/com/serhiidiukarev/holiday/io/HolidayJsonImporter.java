@@ -0,0 +1,405 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of holidays in JSON. The file is read element by element
+ * with a {@link JsonReader} over a buffered {@link FileChannel}, decompressed if it
+ * is compressed with GZIP (see {@link HolidayFiles}), and the holidays
+ * are handed over in batches of a fixed size, so the heap used by an import
+ * does not depend on the size of the file.
+ *
+ * Both the array written by {@link com.serhiidiukarev.holiday.service.DBHolidayService}
+ * and the map of dates to arrays written by
+ * {@link com.serhiidiukarev.holiday.service.DefaultHolidayService} are accepted.
+ *
+ * Large files can also be read in parallel by {@link #importFileParallel}, which
+ * splits the memory-mapped file into chunks of whole elements and parses them
+ * on a {@link ForkJoinPool}.
+ */
+public class HolidayJsonImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final Comparator<Holiday> BY_DATE = Comparator.comparing(Holiday::getHolidayDate,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int batchSize;
+    private final int chunkSize;
+
+    public HolidayJsonImporter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize the maximal number of holidays in a batch
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    public HolidayJsonImporter(int batchSize) {
+        this(batchSize, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param batchSize the maximal number of holidays in a batch
+     * @param chunkSize the minimal number of bytes in a chunk of a parallel import
+     * @throws IllegalArgumentException if the batch or the chunk size is not positive
+     */
+    HolidayJsonImporter(int batchSize, int chunkSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads all the holidays of a JSON file
+     *
+     * @param file     path to a file in JSON format
+     * @param batches  receiver of the batches of holidays, each batch is a new list
+     * @param listener receiver of the progress
+     * @return the number of read holidays
+     * @throws IOException if the file can not be read or is not valid JSON
+     */
+    public long importFile(Path file, Consumer<List<Holiday>> batches, ImportProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             JsonReader reader = new JsonReader(HolidayFiles.newReader(channel))) {
+            Batch batch = new Batch(channel, batches, listener);
+            readDocument(reader, batch);
+            batch.flush();
+            return batch.holidays;
+        }
+    }
+
+    /**
+     * Reads all the holidays of a JSON text, such as the body of a request
+     *
+     * @param in      reader of a text in JSON format, closed when it is read
+     * @param batches receiver of the batches of holidays, each batch is a new list
+     * @return the number of read holidays
+     * @throws IOException if the text can not be read or is not valid JSON
+     */
+    public long importFrom(Reader in, Consumer<List<Holiday>> batches) throws IOException {
+        try (JsonReader reader = new JsonReader(in)) {
+            Batch batch = new Batch(null, batches, null);
+            readDocument(reader, batch);
+            batch.flush();
+            return batch.holidays;
+        }
+    }
+
+    /**
+     * Reads all the holidays of a JSON file in parallel. The file is mapped to memory
+     * and split into chunks of whole array elements (or whole dates of a map) of about
+     * the chunk size, found by a scan of the JSON structure. The chunks are parsed and
+     * sorted by date on the pool and merged pairwise while the tasks join, so the
+     * holidays are returned as one list sorted by date, and holidays of the same date
+     * keep the order of the file.
+     *
+     * Files larger than a memory mapping and compressed files are read sequentially
+     * and then sorted.
+     *
+     * @param file     path to a file in JSON format
+     * @param pool     pool parsing the chunks
+     * @param listener receiver of the progress after every chunk, called by one thread at a time
+     * @return all the holidays of the file sorted by date
+     * @throws IOException if the file can not be read or is not valid JSON
+     */
+    public List<Holiday> importFileParallel(Path file, ForkJoinPool pool, ImportProgressListener listener) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE || HolidayFiles.isGzip(channel)) {
+                List<Holiday> holidays = new ArrayList<>();
+                importFile(file, holidays::addAll, listener);
+                holidays.sort(BY_DATE);
+                return holidays;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Chunks chunks = split(buffer);
+        try {
+            return pool.invoke(new ChunkTask(chunks, 0, chunks.ends.size(), new Progress(buffer.capacity(), listener)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Finds the chunks of a document by a scan of its strings and brackets
+     */
+    private Chunks split(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        int position = 0;
+        while (position < limit && isSkipped(buffer.get(position))) {
+            position++;
+        }
+        if (position == limit || (buffer.get(position) != '[' && buffer.get(position) != '{')) {
+            throw new IOException("Expected a JSON array or object at byte " + position);
+        }
+        Chunks chunks = new Chunks(buffer, buffer.get(position));
+        int start = position + 1;
+        int depth = 0;
+        boolean string = false;
+        for (int i = start; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (string) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    string = false;
+                }
+            } else if (b == '"') {
+                string = true;
+            } else if (b == '[' || b == '{') {
+                depth++;
+            } else if (b == ']' || b == '}') {
+                if (depth == 0) {
+                    chunks.add(start, i);
+                    return chunks;
+                }
+                depth--;
+            } else if (b == ',' && depth == 0 && i - start >= chunkSize) {
+                chunks.add(start, i);
+                start = i + 1;
+            }
+        }
+        throw new IOException("Unterminated JSON " + (chunks.object ? "object" : "array"));
+    }
+
+    private static boolean isSkipped(byte b) {
+        // whitespace and the bytes of a UTF-8 byte order mark
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == (byte) 0xef || b == (byte) 0xbb || b == (byte) 0xbf;
+    }
+
+    private void readDocument(JsonReader reader, Sink sink) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                LocalDate date = LocalDateAdapter.parse(reader.nextName());
+                readArray(reader, sink, date);
+            }
+            reader.endObject();
+        } else {
+            readArray(reader, sink, null);
+        }
+    }
+
+    private void readArray(JsonReader reader, Sink sink, LocalDate date) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Holiday holiday = sink.adapter().read(reader);
+            if (holiday == null) {
+                continue;
+            }
+            if (holiday.getHolidayDate() == null) {
+                holiday.setHolidayDate(date);
+            }
+            sink.add(holiday);
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Receiver of the holidays of a document
+     */
+    private interface Sink {
+        HolidayAdapter adapter();
+
+        void add(Holiday holiday) throws IOException;
+    }
+
+    /**
+     * Chunks of a mapped document, each one a range of whole elements
+     * of the outer array or object
+     */
+    private static class Chunks {
+        private final ByteBuffer buffer;
+        private final boolean object;
+        private final List<Integer> starts = new ArrayList<>();
+        private final List<Integer> ends = new ArrayList<>();
+
+        private Chunks(ByteBuffer buffer, byte opening) {
+            this.buffer = buffer;
+            this.object = opening == '{';
+        }
+
+        private void add(int start, int end) {
+            starts.add(start);
+            ends.add(end);
+        }
+
+        /**
+         * @return the chunk as a document of its own, enclosed in the brackets of the file
+         */
+        private char[] document(int index) throws IOException {
+            ByteBuffer bytes = buffer.duplicate().position(starts.get(index)).limit(ends.get(index));
+            CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+            char[] document = new char[chars.remaining() + 2];
+            document[0] = object ? '{' : '[';
+            chars.get(document, 1, chars.remaining());
+            document[document.length - 1] = object ? '}' : ']';
+            return document;
+        }
+    }
+
+    /**
+     * Progress of a parallel import, reported after every chunk
+     */
+    private static class Progress {
+        private final long totalBytes;
+        private final ImportProgressListener listener;
+        private final AtomicLong holidays = new AtomicLong();
+        private final AtomicLong bytesRead = new AtomicLong();
+
+        private Progress(long totalBytes, ImportProgressListener listener) {
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        private void chunk(int holidayCount, int bytes) {
+            long holidaysSoFar = holidays.addAndGet(holidayCount);
+            long bytesSoFar = bytesRead.addAndGet(bytes);
+            synchronized (this) {
+                listener.progress(holidaysSoFar, bytesSoFar, totalBytes);
+            }
+        }
+    }
+
+    /**
+     * Parses a range of chunks into a list sorted by date, splitting the range
+     * in halves and merging the sorted halves
+     */
+    private class ChunkTask extends RecursiveTask<List<Holiday>> {
+        private final Chunks chunks;
+        private final int from;
+        private final int to;
+        private final Progress progress;
+
+        private ChunkTask(Chunks chunks, int from, int to, Progress progress) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        protected List<Holiday> compute() {
+            if (to - from == 1) {
+                return parse(from);
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, middle, progress);
+            left.fork();
+            List<Holiday> right = new ChunkTask(chunks, middle, to, progress).compute();
+            return merge(left.join(), right);
+        }
+
+        private List<Holiday> parse(int index) {
+            List<Holiday> holidays = new ArrayList<>();
+            HolidayAdapter adapter = new HolidayAdapter();
+            try (JsonReader reader = new JsonReader(new CharArrayReader(chunks.document(index)))) {
+                readDocument(reader, new Sink() {
+                    @Override
+                    public HolidayAdapter adapter() {
+                        return adapter;
+                    }
+
+                    @Override
+                    public void add(Holiday holiday) {
+                        holidays.add(holiday);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            holidays.sort(BY_DATE);
+            progress.chunk(holidays.size(), chunks.ends.get(index) - chunks.starts.get(index) + 1);
+            return holidays;
+        }
+
+        private List<Holiday> merge(List<Holiday> left, List<Holiday> right) {
+            List<Holiday> merged = new ArrayList<>(left.size() + right.size());
+            int i = 0;
+            int j = 0;
+            while (i < left.size() && j < right.size()) {
+                merged.add(BY_DATE.compare(right.get(j), left.get(i)) < 0 ? right.get(j++) : left.get(i++));
+            }
+            merged.addAll(left.subList(i, left.size()));
+            merged.addAll(right.subList(j, right.size()));
+            return merged;
+        }
+    }
+
+    /**
+     * Holidays read since the last handed over batch,
+     * the progress is reported only for a file
+     */
+    private class Batch implements Sink {
+        private final FileChannel channel;
+        private final Consumer<List<Holiday>> batches;
+        private final ImportProgressListener listener;
+        /**
+         * Replaced with every batch, so its pool of names does not outgrow a batch
+         */
+        private HolidayAdapter adapter = new HolidayAdapter();
+        private List<Holiday> holidayList = new ArrayList<>();
+        private long holidays;
+
+        private Batch(FileChannel channel, Consumer<List<Holiday>> batches, ImportProgressListener listener) {
+            this.channel = channel;
+            this.batches = batches;
+            this.listener = listener;
+        }
+
+        @Override
+        public HolidayAdapter adapter() {
+            return adapter;
+        }
+
+        @Override
+        public void add(Holiday holiday) throws IOException {
+            holidayList.add(holiday);
+            if (holidayList.size() == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (holidayList.isEmpty()) {
+                return;
+            }
+            holidays += holidayList.size();
+            batches.accept(holidayList);
+            holidayList = new ArrayList<>();
+            adapter = new HolidayAdapter();
+            if (channel != null) {
+                listener.progress(holidays, channel.position(), channel.size());
+            }
+        }
+    }
+}
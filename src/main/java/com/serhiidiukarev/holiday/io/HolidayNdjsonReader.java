@@ -0,0 +1,195 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.google.gson.JsonParseException;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reader of holidays in JSON Lines (NDJSON), one holiday object per line
+ * as written by {@link HolidayNdjsonWriter}. A read starts at a byte offset
+ * and returns the offset after the last complete line, so a file which is
+ * appended to can be read incrementally: every read continues where the
+ * previous one stopped, and a line still being written is left for the next read.
+ *
+ * Blank lines are skipped and line breaks may be {@code \r\n}. A malformed line
+ * stops the read with a {@link MalformedLineException} once the holidays of the
+ * lines before it are handed over.
+ */
+public class HolidayNdjsonReader {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int batchSize;
+
+    public HolidayNdjsonReader() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize the maximal number of holidays in a batch
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    public HolidayNdjsonReader(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads the complete lines of a file from an offset on
+     *
+     * @param file     path to a file in NDJSON format
+     * @param offset   the offset of the first line to read, {@code 0} or an offset returned by a previous read
+     * @param batches  receiver of the batches of holidays, each batch is a new list
+     * @param listener receiver of the progress, in holidays and offsets of the file
+     * @return the offset after the last complete line, where the next read starts
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if the offset is beyond the end of the file
+     * @throws MalformedLineException   if a line is malformed
+     */
+    public long importFrom(Path file, long offset, Consumer<List<Holiday>> batches,
+                           ImportProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset < 0 || offset > size) {
+                throw new IllegalArgumentException("Invalid offset " + offset + " of " + size + " bytes: " + file);
+            }
+            Lines lines = new Lines(size, batches, listener);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = offset;
+            lines.lineStart = offset;
+            while (position < size) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, size - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    lines.put(buffer.get(i), position + i);
+                }
+                position += read;
+            }
+            lines.flush();
+            return lines.lineStart;
+        }
+    }
+
+    /**
+     * Reads all the lines of a stream, such as the body of a request,
+     * the last line may end without a line break
+     *
+     * @param in       a stream in NDJSON format, not closed
+     * @param batches  receiver of the batches of holidays, each batch is a new list
+     * @param listener receiver of the progress, in holidays and bytes read, the total size is {@code -1}
+     * @return the number of read holidays
+     * @throws IOException              if the stream can not be read
+     * @throws MalformedLineException if a line is malformed
+     */
+    public long importFrom(InputStream in, Consumer<List<Holiday>> batches,
+                           ImportProgressListener listener) throws IOException {
+        Lines lines = new Lines(-1, batches, listener);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                lines.put(buffer[i], position + i);
+            }
+            position += read;
+        }
+        if (lines.length > 0) {
+            lines.parse(position);
+            lines.lineStart = position;
+        }
+        lines.flush();
+        return lines.holidays;
+    }
+
+    /**
+     * Bytes of the current line and holidays read since the last handed over batch
+     */
+    private class Lines {
+        private final long size;
+        private final Consumer<List<Holiday>> batches;
+        private final ImportProgressListener listener;
+        /**
+         * Replaced with every batch, so its pool of names does not outgrow a batch
+         */
+        private HolidayAdapter adapter = new HolidayAdapter();
+        private List<Holiday> holidayList = new ArrayList<>();
+        private byte[] line = new byte[256];
+        private int length;
+        private long lineStart;
+        private long holidays;
+
+        private Lines(long size, Consumer<List<Holiday>> batches, ImportProgressListener listener) {
+            this.size = size;
+            this.batches = batches;
+            this.listener = listener;
+        }
+
+        private void put(byte b, long position) {
+            if (b != '\n') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+                return;
+            }
+            parse(position + 1);
+            length = 0;
+            lineStart = position + 1;
+            if (holidayList.size() == batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * @param nextLineStart the offset after the line break of the line
+         */
+        private void parse(long nextLineStart) {
+            int end = length;
+            if (end > 0 && line[end - 1] == '\r') {
+                end--;
+            }
+            String json = new String(line, 0, end, StandardCharsets.UTF_8);
+            if (json.isBlank()) {
+                return;
+            }
+            try {
+                Holiday holiday = adapter.fromJson(json);
+                if (holiday != null) {
+                    holidayList.add(holiday);
+                }
+            } catch (IOException | JsonParseException | IllegalStateException | DateTimeException e) {
+                flush();
+                throw new MalformedLineException(lineStart, nextLineStart, json, e);
+            }
+        }
+
+        private void flush() {
+            if (holidayList.isEmpty()) {
+                return;
+            }
+            holidays += holidayList.size();
+            batches.accept(holidayList);
+            holidayList = new ArrayList<>();
+            adapter = new HolidayAdapter();
+            listener.progress(holidays, lineStart, size);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer of holidays in JSON Lines (NDJSON), appending one holiday object per line
+ * to the end of a file, so an export of new holidays never rewrites the holidays
+ * already in the file. A line left incomplete by an interrupted append is cut off
+ * before the next append, so readers of {@link HolidayNdjsonReader} never see it.
+ *
+ * A file is meant to have a single writer at a time.
+ */
+public class HolidayNdjsonWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HolidayAdapter adapter = new HolidayAdapter();
+
+    /**
+     * Appends the holidays to a file, creating it if needed
+     *
+     * @param file     path to a file in NDJSON format
+     * @param holidays the holidays to append
+     * @return the size of the file after the append
+     * @throws IOException if the file can not be written
+     */
+    public long append(Path file, Iterable<Holiday> holidays) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.truncate(lastLineEnd(channel));
+            channel.position(channel.size());
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+            for (Holiday holiday : holidays) {
+                adapter.toJson(writer, holiday);
+                writer.write('\n');
+            }
+            writer.flush();
+            return channel.size();
+        }
+    }
+
+    /**
+     * @return the offset after the last line break of the file, {@code 0} if there is none
+     */
+    private static long lastLineEnd(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.serhiidiukarev.holiday.io;
+
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Receives the progress of an import after every batch
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+    /**
+     * @param holidays   the number of holidays read so far
+     * @param bytesRead  the number of bytes read from the file so far
+     * @param totalBytes the size of the file
+     */
+    void progress(long holidays, long bytesRead, long totalBytes);
+
+    /**
+     * @param logger the logger
+     * @return a listener writing the progress to the logger at debug level
+     */
+    static ImportProgressListener logging(Logger logger) {
+        return (holidays, bytesRead, totalBytes) -> logger.debug(
+                "Imported " + holidays + " holidays, " + bytesRead + " of " + totalBytes + " bytes");
+    }
+}
@@ -0,0 +1,37 @@
+package com.serhiidiukarev.holiday.io;
+
+/**
+ * A line of a JSON Lines (NDJSON) file which is not a holiday object. The holidays of
+ * the lines before it are handed over before it is thrown, so a reader following
+ * a file may skip the line by continuing the read at {@link #getNextLineStart()}.
+ */
+public class MalformedLineException extends IllegalArgumentException {
+    private final long lineStart;
+    private final long nextLineStart;
+
+    /**
+     * @param lineStart     the offset of the malformed line
+     * @param nextLineStart the offset after the line break of the malformed line
+     * @param line          the malformed line
+     * @param cause         the failure of the parsing of the line
+     */
+    public MalformedLineException(long lineStart, long nextLineStart, String line, Throwable cause) {
+        super("Malformed NDJSON line at byte " + lineStart + ": " + line, cause);
+        this.lineStart = lineStart;
+        this.nextLineStart = nextLineStart;
+    }
+
+    /**
+     * @return the offset of the malformed line
+     */
+    public long getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     * @return the offset after the line break of the malformed line, where a read skipping it continues
+     */
+    public long getNextLineStart() {
+        return nextLineStart;
+    }
+}
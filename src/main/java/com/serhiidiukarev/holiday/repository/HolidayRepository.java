@@ -1,11 +1,13 @@
 package com.serhiidiukarev.holiday.repository;
 
 import com.serhiidiukarev.holiday.Holiday;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +18,8 @@ public interface HolidayRepository extends JpaRepository<Holiday, Long> {
             "AND holiday.holidayName = ?2 " +
             "AND holiday.holidayCategory = ?3") // todo reimplement to criteria
     Optional<Holiday> findHoliday(LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory);
+
+    List<Holiday> findByHolidayIdGreaterThanOrderByHolidayId(Long holidayId, Pageable pageable);
+
+    List<Holiday> findByHolidayDateBetween(LocalDate startDate, LocalDate endDate);
 }
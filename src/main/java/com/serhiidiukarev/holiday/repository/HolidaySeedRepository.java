@@ -0,0 +1,9 @@
+package com.serhiidiukarev.holiday.repository;
+
+import com.serhiidiukarev.holiday.HolidaySeed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HolidaySeedRepository extends JpaRepository<HolidaySeed, String> {
+}
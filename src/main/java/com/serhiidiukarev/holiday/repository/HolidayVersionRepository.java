@@ -0,0 +1,28 @@
+package com.serhiidiukarev.holiday.repository;
+
+import com.serhiidiukarev.holiday.HolidayVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface HolidayVersionRepository extends JpaRepository<HolidayVersion, Integer> {
+
+    /**
+     * Increments the version of the calendar, the row stays locked until the end of the transaction,
+     * so the writes of all the nodes get their versions in the order of their commits
+     *
+     * @param changes the number of changes of the write
+     * @return the number of updated rows, {@code 0} if the row is not created
+     */
+    @Modifying
+    @Query("UPDATE HolidayVersion version SET version.version = version.version + ?1 " +
+            "WHERE version.id = " + HolidayVersion.CALENDAR)
+    int increment(long changes);
+
+    @Query("SELECT version.version FROM HolidayVersion version WHERE version.id = " + HolidayVersion.CALENDAR)
+    Optional<Long> findCalendarVersion();
+}
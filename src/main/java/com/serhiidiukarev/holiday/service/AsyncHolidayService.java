@@ -0,0 +1,81 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The non-blocking counterpart of {@link HolidayService}: every operation is run
+ * on threads of the implementation and returns a {@link CompletableFuture}
+ * completed with its result, or exceptionally with the exception thrown by the
+ * {@link HolidayService}, so callers such as request threads are not held
+ * while the holidays are read from a database or files.
+ *
+ * An operation which can not be accepted, e.g. because too many operations are
+ * waiting, returns a future completed with
+ * {@link java.util.concurrent.RejectedExecutionException}.
+ *
+ * @param <T> the type of dates in this service
+ * @param <S> the type of paths to files
+ */
+public interface AsyncHolidayService<T, S> {
+
+    /**
+     * @see HolidayService#countWorkingDaysBetween(Object, Object)
+     */
+    CompletableFuture<Integer> countWorkingDaysBetween(final T startDate, final T endDate);
+
+    /**
+     * @see HolidayService#addHoliday(Object)
+     */
+    CompletableFuture<Boolean> addHoliday(final T date);
+
+    /**
+     * @see HolidayService#addHoliday(Holiday)
+     */
+    CompletableFuture<Boolean> addHoliday(final Holiday holiday);
+
+    /**
+     * @see HolidayService#addHolidaysBetween(Object, Object)
+     */
+    CompletableFuture<Void> addHolidaysBetween(final T startDate, final T endDate);
+
+    /**
+     * @see HolidayService#addHolidaysFromJSON(Object)
+     */
+    CompletableFuture<Void> addHolidaysFromJSON(S jsonDestination);
+
+    /**
+     * @see HolidayService#writeHolidaysToJSON(Object)
+     */
+    CompletableFuture<Void> writeHolidaysToJSON(S jsonDestination);
+
+    /**
+     * @see HolidayService#addHolidaysFromCSV(Object)
+     */
+    CompletableFuture<Void> addHolidaysFromCSV(S csvDestination);
+
+    /**
+     * @see HolidayService#writeHolidaysToCSV(Object)
+     */
+    CompletableFuture<Void> writeHolidaysToCSV(S csvDestination);
+
+    /**
+     * @see HolidayService#getHolidays()
+     */
+    CompletableFuture<Map<LocalDate, Set<Holiday>>> getHolidays();
+
+    /**
+     * @see HolidayService#deleteHoliday(Long)
+     */
+    CompletableFuture<Boolean> deleteHoliday(Long holidayId);
+
+    /**
+     * @see HolidayService#updateHoliday(Long, LocalDate, String, Holiday.HolidayCategory)
+     */
+    CompletableFuture<Holiday> updateHoliday(Long holidayId, LocalDate holidayDate, String holidayName,
+                                             Holiday.HolidayCategory holidayCategory);
+}
@@ -0,0 +1,429 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvReader;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.io.HolidayDeltaWriter;
+import com.serhiidiukarev.holiday.io.HolidayFiles;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonReader;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonWriter;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
+import com.serhiidiukarev.holiday.storage.CompactHolidayStorage;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+import com.serhiidiukarev.holiday.storage.NamePool;
+import com.serhiidiukarev.holiday.utils.EpochDays;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+import com.serhiidiukarev.holiday.validation.ValidationHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Primitive-array implementation of the {@link  HolidayService} interface.
+ * Holidays are kept in a {@link CompactHolidayStorage} as epoch days, category
+ * ordinals and references to a pool of names instead of a
+ * {@code TreeMap<LocalDate, Set<Holiday>>}, which takes a fraction of the heap
+ * of {@link DefaultHolidayService} for large calendars.
+ *
+ * {@link Holiday} instances returned by this service are produced on demand,
+ * so changes made to them are not written back. Like {@link DefaultHolidayService}
+ * this class keeps an id {@code counter} which is incremented after
+ * if successful extend of collection. This class is not thread-safe.
+ *
+ * @see HolidayService
+ * @see CompactHolidayStorage
+ */
+@Service("CompactHolidayService")
+public class CompactHolidayService implements HolidayService<LocalDate, String> {
+
+    /**
+     * Default logger
+     */
+    Logger logger = LogManager.getLogger(CompactHolidayService.class);
+    /**
+     * Sorted primitive storage of the holidays
+     */
+    private final CompactHolidayStorage storage = new CompactHolidayStorage();
+
+    /**
+     * Versions of the changes of the holidays, for the export of changes
+     */
+    private final HolidayChangeLog changeLog = new HolidayChangeLog();
+
+    /**
+     * Default counter which represent an index for each successfully added element
+     */
+    private long counter = 0;
+
+    /**
+     * Calculate the number of workdays between two given dates (inclusive).
+     * Weekdays are counted arithmetically and only the holidays inside
+     * the range are visited.
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days (inclusive)
+     */
+    @Override
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        ValidationHelper.validateDates(startDate, endDate);
+
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+
+        return (int) (EpochDays.countWeekdays(startDay, endDay) - storage.countWeekdayHolidays(startDay, endDay));
+    }
+
+    /**
+     * Ensures that the storage contains a holiday for the specified date
+     * (optional operation).  Returns {@code true} if the storage changed as a
+     * result of the call.
+     *
+     * @param date date of a new holiday
+     * @return {@code true} if the storage changed as a result of the call
+     * (as specified by {@link HolidayService#addHoliday(Object)})
+     */
+    @Override
+    public boolean addHoliday(LocalDate date) {
+        Holiday holiday = buildHoliday(date);
+
+        return addHoliday(holiday);
+    }
+
+    /**
+     * Ensures that the storage contains the specified element
+     * (optional operation).  Returns {@code true} if the storage changed as a
+     * result of the call.  (Returns {@code false} if the storage already
+     * contains an equal element.)<p>
+     *
+     * @param holiday a new holiday
+     * @return {@code true} if the storage changed as a result of the call
+     * (as specified by {@link HolidayService#addHoliday(Object)})
+     */
+    @Override
+    public boolean addHoliday(Holiday holiday) {
+        ValidationHelper.validateHoliday(holiday);
+        ValidationHelper.validateDate(holiday.getHolidayDate());
+
+        if (!storage.add(counter, holiday)) {
+            return false;
+        }
+        changeLog.recordUpdate(counter);
+        holiday.setHolidayId(counter++);
+
+        return true;
+    }
+
+    /**
+     * Adds range of dates as new holidays
+     * to the storage (inclusive)
+     *
+     * @param startDate start date of a new holiday
+     * @param endDate   end date of a new holiday
+     */
+    @Override
+    public void addHolidaysBetween(LocalDate startDate, LocalDate endDate) {
+        ValidationHelper.validateDates(startDate, endDate);
+
+        Stream.iterate(startDate, d -> d.plusDays(1))
+                .limit(ChronoUnit.DAYS.between(startDate, endDate) + 1)
+                .forEach(this::addHoliday);
+    }
+
+    /**
+     * Parse JSON file and add list of dates as new holidays
+     * to the storage (inclusive). The file is streamed in batches
+     * by {@link HolidayJsonImporter}, so it is never held in memory
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromJSON(String jsonDestination) {
+        try {
+            new HolidayJsonImporter().importFile(Paths.get(jsonDestination),
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in a JSON format
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToJSON(String jsonDestination) {
+        try {
+            HolidayFiles.writeText(Paths.get(jsonDestination),
+                    writer -> HolidayCodec.writeMap(storage.asMap(), writer, true));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parse CSV file and add its lines as new holidays
+     * to the storage. The file is memory-mapped and parsed
+     * in batches by {@link HolidayCsvReader}
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCSV(String csvDestination) {
+        try {
+            new HolidayCsvReader().importFile(Paths.get(csvDestination),
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in a CSV format
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCSV(String csvDestination) {
+        try {
+            HolidayFiles.write(Paths.get(csvDestination),
+                    file -> new HolidayCsvWriter().write(file, () -> storage.asMap().values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read binary calendar file and add its holidays to the storage.
+     * Holidays are decoded straight into the storage, without
+     * creating {@link Holiday} instances
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCalendarFile(String calendarDestination) {
+        try {
+            HolidayCalendarFile calendar = HolidayCalendarFile.open(Paths.get(calendarDestination));
+            String[] names = calendar.names();
+            calendar.forEach((hasId, id, epochDay, category, nameIndex) -> {
+                int day = Math.toIntExact(epochDay);
+                boolean added = nameIndex == NamePool.DATE_REF
+                        ? storage.addGeneratedName(counter, day, category)
+                        : storage.add(counter, day, category, nameIndex == NamePool.NULL_REF ? null : names[nameIndex]);
+                if (added) {
+                    changeLog.recordUpdate(counter++);
+                }
+            });
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in the binary calendar format
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCalendarFile(String calendarDestination) {
+        try {
+            HolidayFiles.write(Paths.get(calendarDestination),
+                    file -> HolidayCalendarFile.write(file, () -> storage.asMap().values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the complete lines of a NDJSON file from a byte offset on and add
+     * their holidays to the storage, holidays already added are skipped
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param offset            offset of the first line to read
+     * @return the offset after the last read line
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public long addHolidaysFromNDJSON(String ndjsonDestination, long offset) {
+        try {
+            return new HolidayNdjsonReader().importFrom(Paths.get(ndjsonDestination), offset,
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Append the holidays with identifiers greater than the given one
+     * to a file in NDJSON format
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param afterHolidayId    the greatest identifier already exported, {@code -1} to export all
+     * @return the greatest exported identifier, {@code afterHolidayId} if nothing was appended
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long appendHolidaysToNDJSON(String ndjsonDestination, long afterHolidayId) {
+        List<Holiday> newHolidays = storage.asMap().values().stream().flatMap(Set::stream)
+                .filter(holiday -> holiday.getHolidayId() > afterHolidayId)
+                .sorted(Comparator.comparing(Holiday::getHolidayId))
+                .collect(Collectors.toList());
+        try {
+            new HolidayNdjsonWriter().append(Paths.get(ndjsonDestination), newHolidays);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return newHolidays.isEmpty() ? afterHolidayId : newHolidays.get(newHolidays.size() - 1).getHolidayId();
+    }
+
+    @Override
+    public long getVersion() {
+        return changeLog.getVersion();
+    }
+
+    /**
+     * Write the changes of the storage after a version to file in JSON format,
+     * only the changed holidays are created from the storage
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @param sinceVersion    the version returned by the previous export, {@code 0} for all the holidays
+     * @return the version of the written changes
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long writeHolidayChangesToJSON(String jsonDestination, long sinceVersion) {
+        HolidayChanges changes = getChangesSince(sinceVersion);
+        try {
+            HolidayDeltaWriter.write(Paths.get(jsonDestination), changes.getDelta(), changes.getHolidays());
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return changes.getDelta().getVersion();
+    }
+
+    @Override
+    public HolidayChanges getChangesSince(long sinceVersion) {
+        HolidayChangeLog.Delta delta = changeLog.changesSince(sinceVersion);
+        Set<Long> updatedIds = delta.getUpdatedIds();
+        Map<Long, Holiday> changed = new HashMap<>();
+        for (int i = 0; i < storage.size(); i++) {
+            if (delta.isFull() || updatedIds.contains(storage.idAt(i))) {
+                changed.put(storage.idAt(i), storage.holidayAt(i));
+            }
+        }
+        return new HolidayChanges(delta, changed);
+    }
+
+    @Override
+    public long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        return changeLog.awaitChange(sinceVersion, timeoutMillis);
+    }
+
+    /**
+     * Return a read-only view with all current {@link Holiday}
+     *
+     * @return map with sets of current holidays
+     * (where key is a date and values is a set of holidays)
+     */
+    @Override
+    public Map<LocalDate, Set<Holiday>> getHolidays() {
+        return storage.asMap();
+    }
+
+    /**
+     * Removes all the elements from the storage (optional operation).
+     * The storage will be empty after this method returns.
+     */
+    @Override
+    public void clear() {
+        storage.clear();
+        counter = 0;
+        changeLog.recordClear();
+    }
+
+    @Override
+    public boolean deleteHoliday(Long holidayId) {
+        if (holidayId == null || !storage.removeById(holidayId)) {
+            return false;
+        }
+        changeLog.recordDelete(holidayId);
+        return true;
+    }
+
+    /**
+     * Updates the given fields of a stored holiday, {@code null} arguments are ignored
+     *
+     * @return the updated holiday or {@code null} if there is no holiday with such id
+     */
+    @Override
+    public Holiday updateHoliday(Long holidayId, LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory) {
+        int index = holidayId == null ? -1 : storage.indexOfId(holidayId);
+        if (index < 0) {
+            return null;
+        }
+        Holiday original = storage.holidayAt(index);
+        Holiday holiday = storage.holidayAt(index);
+        if (holidayDate != null) {
+            holiday.setHolidayDate(holidayDate);
+        }
+        if (holidayName != null) {
+            holiday.setHolidayName(holidayName);
+        }
+        if (holidayCategory != null) {
+            holiday.setHolidayCategory(holidayCategory);
+        }
+
+        storage.removeAt(index);
+        boolean updated = false;
+        try {
+            updated = storage.add(holidayId, holiday);
+        } finally {
+            if (!updated) {
+                storage.add(holidayId, original);
+            }
+        }
+        if (!updated) {
+            throw new IllegalArgumentException("already added");
+        }
+        changeLog.recordUpdate(holidayId);
+        return holiday;
+    }
+}
@@ -1,24 +1,42 @@
 package com.serhiidiukarev.holiday.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.HolidayVersion;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvReader;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.io.HolidayDeltaWriter;
+import com.serhiidiukarev.holiday.io.HolidayFiles;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonReader;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonWriter;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
 import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.repository.HolidayVersionRepository;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
 import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
 import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
 import com.serhiidiukarev.holiday.validation.ValidationHelper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import javax.annotation.PostConstruct;
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,6 +50,12 @@ import java.util.stream.Stream;
  * by {@link HolidayTreeSetComparator} and has his own implementation to serializer
  * and deserializer {@link LocalDate} for Json by {@link LocalDateAdapter}.
  *
+ * The version of the holidays is the {@link HolidayVersion} row of the database,
+ * incremented by the number of changes in the transaction of every write, so all
+ * the services sharing the database answer the same version for the same holidays.
+ * The row is created once on startup, the writes only update it. A write made to the
+ * database directly has to increment the row as well.
+ *
  * @see HolidayService
  */
 @Service("DBHolidayService")
@@ -40,11 +64,58 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
      * DB logger
      */
     Logger logger = LogManager.getLogger(DBHolidayService.class);
+
+    /**
+     * The interval of the checks of the version in the database while waiting for a change,
+     * the changes of the other services are seen within it
+     */
+    static final long VERSION_POLL_MILLIS = 1000;
+
+    /**
+     * The number of holidays read from the database for one append of an NDJSON export
+     */
+    static final int EXPORT_PAGE_SIZE = HolidayNdjsonReader.DEFAULT_BATCH_SIZE;
+
     private final HolidayRepository holidayRepository;
+    private final HolidayVersionRepository versionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Versions of the changes made through this service, for the export of changes.
+     * Kept in memory and following the version of the database, so a restarted service,
+     * or a service behind the changes of the other services, exports all the holidays once
+     */
+    private final HolidayChangeLog changeLog = new HolidayChangeLog(0);
 
+    /**
+     * @param holidayRepository  repository of the holidays
+     * @param versionRepository  repository of the version of the holidays
+     * @param transactionManager manager of the transaction of every write
+     */
     @Autowired
-    public DBHolidayService(HolidayRepository holidayRepository) {
+    public DBHolidayService(HolidayRepository holidayRepository,
+                            HolidayVersionRepository versionRepository,
+                            PlatformTransactionManager transactionManager) {
         this.holidayRepository = holidayRepository;
+        this.versionRepository = versionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the {@link HolidayVersion} row incremented by the writes, unless it exists
+     * or another node created it meanwhile
+     */
+    @PostConstruct
+    public void createVersion() {
+        if (versionRepository.findCalendarVersion().isPresent()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    versionRepository.saveAndFlush(new HolidayVersion(HolidayVersion.CALENDAR, 0)));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Version of the holidays created by another node", e);
+        }
     }
 
     /**
@@ -86,8 +157,39 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
     @Override
     public boolean addHoliday(Holiday holiday) {
         ValidationHelper.isHolidayAlreadyExisted(holiday);
-        holidayRepository.save(holiday);
-        return true;
+        return write(changes -> {
+            changes.update(holidayRepository.save(holiday).getHolidayId());
+            return true;
+        });
+    }
+
+    /**
+     * Mark a batch of holidays as new holidays. Every holiday is validated
+     * on its own and the accepted ones are saved together with new identifiers.
+     * Holidays already saved, or repeated within the batch, are skipped without
+     * a rejection
+     *
+     * @param holidays new holiday items
+     * @param rejected receiver of the index of every rejected holiday in the list and the reason
+     * @return the number of saved holidays
+     */
+    @Override
+    public int addHolidays(List<Holiday> holidays, BiConsumer<Integer, IllegalArgumentException> rejected) {
+        List<Holiday> valid = new ArrayList<>(holidays.size());
+        for (int i = 0; i < holidays.size(); i++) {
+            Holiday holiday = holidays.get(i);
+            try {
+                ValidationHelper.validateHoliday(holiday);
+                ValidationHelper.validateDate(holiday.getHolidayDate());
+            } catch (IllegalArgumentException e) {
+                rejected.accept(i, e);
+                continue;
+            }
+            valid.add(holiday);
+        }
+        List<Holiday> accepted = missing(valid);
+        saveAll(accepted);
+        return accepted.size();
     }
 
     /**
@@ -106,30 +208,26 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
                 .collect(Collectors.toList());
 
         holidays.forEach(ValidationHelper::isHolidayAlreadyExisted);
-        holidayRepository.saveAll(holidays);
+        saveAll(holidays);
     }
 
     /**
-     * Parse JSON file and mark list of dates as new holidays
+     * Parse JSON file and mark list of dates as new holidays.
+     * The file is streamed by {@link HolidayJsonImporter} and every batch
+     * is added on its own (see {@link #addBatch(List)}), so batches saved before
+     * a failure stay in the database
      *
      * @param jsonDestination path to a file in JSON format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
      */
     @Override
     public void addHolidaysFromJSON(String jsonDestination) {
-        File file = new File(jsonDestination);
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .create();
         try {
-            FileReader fileReader = new FileReader(file);
-            Type holidayListType = new TypeToken<ArrayList<Holiday>>() {
-            }.getType();
-            List<Holiday> holidayList = gson.fromJson(fileReader, holidayListType);
-
-            holidayList.forEach(ValidationHelper::isHolidayAlreadyExisted);
-            holidayRepository.saveAll(holidayList);
-        } catch (FileNotFoundException e) {
+            new HolidayJsonImporter().importFile(Paths.get(jsonDestination),
+                    this::addBatch,
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
             logger.error(e);
             throw new RuntimeException(e);
         }
@@ -142,21 +240,148 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
      */
     @Override
     public void writeHolidaysToJSON(String jsonDestination) {
-        File file = new File(jsonDestination);
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .create();
-        try (FileWriter fileWriter = new FileWriter(file)) {
-            List<Holiday> holidays = holidayRepository.findAll();
-            String holidaysJson = gson.toJson(holidays);
-            fileWriter.write(holidaysJson);
+        List<Holiday> holidays = holidayRepository.findAll();
+        try {
+            HolidayFiles.writeText(Paths.get(jsonDestination),
+                    writer -> HolidayCodec.writeCollection(holidays, writer, true));
         } catch (IOException e) {
             logger.error(e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Parse CSV file and mark its lines as new holidays.
+     * The file is memory-mapped and parsed by {@link HolidayCsvReader},
+     * every batch is added on its own (see {@link #addBatch(List)})
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCSV(String csvDestination) {
+        try {
+            new HolidayCsvReader().importFile(Paths.get(csvDestination),
+                    this::addBatch,
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in a CSV format
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCSV(String csvDestination) {
+        try {
+            HolidayFiles.write(Paths.get(csvDestination),
+                    file -> new HolidayCsvWriter().write(file, holidayRepository.findAll()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read binary calendar file and mark its holidays as new holidays,
+     * every batch is added on its own (see {@link #addBatch(List)})
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCalendarFile(String calendarDestination) {
+        try {
+            HolidayCalendarFile.open(Paths.get(calendarDestination)).importTo(HolidayCalendarFile.DEFAULT_BATCH_SIZE,
+                    this::addBatch,
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in the binary calendar format
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCalendarFile(String calendarDestination) {
+        try {
+            HolidayFiles.write(Paths.get(calendarDestination),
+                    file -> HolidayCalendarFile.write(file, holidayRepository.findAll()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the complete lines of a NDJSON file from a byte offset on and add
+     * their holidays to the repository with new identifiers,
+     * holidays already added are skipped
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param offset            offset of the first line to read
+     * @return the offset after the last read line
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public long addHolidaysFromNDJSON(String ndjsonDestination, long offset) {
+        try {
+            return new HolidayNdjsonReader().importFrom(Paths.get(ndjsonDestination), offset,
+                    batch -> saveAll(missing(batch)),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Append the holidays with identifiers greater than the given one
+     * to a file in NDJSON format
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param afterHolidayId    the greatest identifier already exported, {@code -1} to export all
+     * @return the greatest exported identifier, {@code afterHolidayId} if nothing was appended
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long appendHolidaysToNDJSON(String ndjsonDestination, long afterHolidayId) {
+        HolidayNdjsonWriter writer = new HolidayNdjsonWriter();
+        Pageable page = PageRequest.of(0, EXPORT_PAGE_SIZE);
+        long lastHolidayId = afterHolidayId;
+        try {
+            List<Holiday> newHolidays;
+            do {
+                // every page starts after the last exported identifier, so no page is skipped by an offset
+                newHolidays = holidayRepository.findByHolidayIdGreaterThanOrderByHolidayId(lastHolidayId, page);
+                if (!newHolidays.isEmpty()) {
+                    writer.append(Paths.get(ndjsonDestination), newHolidays);
+                    lastHolidayId = newHolidays.get(newHolidays.size() - 1).getHolidayId();
+                }
+            } while (newHolidays.size() == EXPORT_PAGE_SIZE);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return lastHolidayId;
+    }
+
     @Override
     public Map<LocalDate, Set<Holiday>> getHolidays() {
         List<Holiday> all = holidayRepository.findAll();
@@ -174,6 +399,76 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
         return holidays;
     }
 
+    /**
+     * @return the version of the holidays in the database
+     */
+    @Override
+    public long getVersion() {
+        long version = versionRepository.findCalendarVersion().orElse(0L);
+        changeLog.follow(version);
+        return version;
+    }
+
+    /**
+     * Write the changes made through this service after a version to file
+     * in JSON format, only the changed holidays are loaded from the repository
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @param sinceVersion    the version returned by the previous export, {@code 0} for all the holidays
+     * @return the version of the written changes
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long writeHolidayChangesToJSON(String jsonDestination, long sinceVersion) {
+        HolidayChanges changes = getChangesSince(sinceVersion);
+        try {
+            HolidayDeltaWriter.write(Paths.get(jsonDestination), changes.getDelta(), changes.getHolidays());
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return changes.getDelta().getVersion();
+    }
+
+    /**
+     * The changes made through this service after a version, only the changed holidays
+     * are loaded from the repository. All the holidays are loaded if the database has
+     * changes of other services since the version
+     *
+     * @param sinceVersion the version of the previous changes, {@code 0} for all the holidays
+     * @return the changes with the added or updated holidays
+     */
+    @Override
+    public HolidayChanges getChangesSince(long sinceVersion) {
+        getVersion();
+        HolidayChangeLog.Delta delta = changeLog.changesSince(sinceVersion);
+        List<Holiday> holidays = delta.isFull()
+                ? holidayRepository.findAll()
+                : holidayRepository.findAllById(delta.getUpdatedIds());
+        Map<Long, Holiday> changed = holidays.stream()
+                .collect(Collectors.toMap(Holiday::getHolidayId, holiday -> holiday));
+        return new HolidayChanges(delta, changed);
+    }
+
+    /**
+     * Waits until the version of the database is newer than the given one, the
+     * changes of this service are seen at once, the ones of the other services
+     * within {@link #VERSION_POLL_MILLIS}
+     */
+    @Override
+    public long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            long version = Math.max(getVersion(), changeLog.getVersion());
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (version > sinceVersion || remaining <= 0) {
+                return version;
+            }
+            changeLog.awaitChange(sinceVersion, Math.min(remaining, VERSION_POLL_MILLIS));
+        }
+    }
+
     /**
      * Removes all the elements from a holidays' collection (optional operation).
      * The collection will be empty after this method returns.
@@ -183,34 +478,189 @@ public class DBHolidayService implements HolidayService<LocalDate, String> {
      */
     @Override
     public void clear() {
-        holidayRepository.deleteAll();
+        write(changes -> {
+            holidayRepository.deleteAll();
+            changes.clear();
+            return null;
+        });
     }
 
     @Override
     public boolean deleteHoliday(Long holidayId) {
         ValidationHelper.isHolidayExist(holidayId);
-        holidayRepository.deleteById(holidayId);
-        return true;
+        return write(changes -> {
+            holidayRepository.deleteById(holidayId);
+            changes.delete(holidayId);
+            return true;
+        });
+    }
+
+    /**
+     * Deletes the existing holidays with the given identifiers in one batch
+     *
+     * @param holidayIds identifiers of the holidays
+     * @return the number of deleted holidays
+     */
+    @Override
+    public int deleteHolidays(Collection<Long> holidayIds) {
+        return write(changes -> {
+            List<Holiday> holidays = holidayRepository.findAllById(holidayIds);
+            holidayRepository.deleteInBatch(holidays);
+            holidays.forEach(holiday -> changes.delete(holiday.getHolidayId()));
+            return holidays.size();
+        });
     }
 
     @Override
-    @Transactional
     public Holiday updateHoliday(Long holidayId,
                                  LocalDate holidayDate,
                                  String holidayName,
                                  Holiday.HolidayCategory holidayCategory) {
-        Holiday holiday = holidayRepository.findById(holidayId)
-                .orElseThrow(() -> new IllegalArgumentException("holiday with id=" + holidayId + " does not exists"));
+        return write(changes -> {
+            Holiday holiday = holidayRepository.findById(holidayId)
+                    .orElseThrow(() -> new IllegalArgumentException("holiday with id=" + holidayId + " does not exists"));
+
+            if (holidayDate != null && !Objects.equals(holiday.getHolidayDate(), holidayDate)) {
+                holiday.setHolidayDate(holidayDate);
+            }
+            if (holidayName != null && !Objects.equals(holiday.getHolidayName(), holidayName)) {
+                holiday.setHolidayName(holidayName);
+            }
+            if (holidayCategory != null && !Objects.equals(holiday.getHolidayCategory(), holidayCategory)) {
+                holiday.setHolidayCategory(holidayCategory);
+            }
+            changes.update(holidayId);
+            return holiday;
+        });
+    }
+
+    /**
+     * Saves the holidays and records them as changed
+     *
+     * @param holidays new holidays
+     */
+    private void saveAll(List<Holiday> holidays) {
+        write(changes -> {
+            holidayRepository.saveAll(holidays).forEach(holiday -> changes.update(holiday.getHolidayId()));
+            return null;
+        });
+    }
+
+    /**
+     * Adds a batch of an import with one existence query, see {@link #addHolidays(List, BiConsumer)}.
+     * The holidays already saved are skipped
+     *
+     * @param batch holidays read from a file
+     * @throws IllegalArgumentException if a holiday of the batch is invalid, nothing of the batch is saved
+     */
+    private void addBatch(List<Holiday> batch) {
+        addHolidays(batch, (index, e) -> {
+            throw e;
+        });
+    }
+
+    /**
+     * Finds the holidays of a batch missing in the repository with one query
+     * over the dates of the batch
+     *
+     * @param holidays holidays with dates
+     * @return the missing holidays, each once, without identifiers, so they are
+     * inserted instead of merged over the saved holidays with the same identifiers
+     */
+    private List<Holiday> missing(List<Holiday> holidays) {
+        if (holidays.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDate first = holidays.stream().map(Holiday::getHolidayDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate last = holidays.stream().map(Holiday::getHolidayDate).max(Comparator.naturalOrder()).orElseThrow();
+        Set<Holiday> contained = new HashSet<>(holidayRepository.findByHolidayDateBetween(first, last));
+
+        List<Holiday> missing = new ArrayList<>();
+        for (Holiday holiday : holidays) {
+            if (contained.add(holiday)) {
+                holiday.setHolidayId(null);
+                missing.add(holiday);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Runs a write in a transaction incrementing the version of the holidays by the
+     * number of its changes, and records the changes with their versions once committed
+     *
+     * @param write the write, adding its changes
+     * @return the result of the write
+     */
+    private <V> V write(Function<Changes, V> write) {
+        Changes changes = new Changes();
+        long[] version = new long[1];
+        V result = transactionTemplate.execute(status -> {
+            V value = write.apply(changes);
+            if (changes.size() > 0) {
+                version[0] = incrementVersion(changes.size());
+            }
+            return value;
+        });
+        changes.recordTo(changeLog, version[0]);
+        return result;
+    }
 
-        if (holidayDate != null && !Objects.equals(holiday.getHolidayDate(), holidayDate)) {
-            holiday.setHolidayDate(holidayDate);
+    /**
+     * @return the version of the holidays incremented by the number of changes
+     * @throws IllegalStateException if the version row is not created, see {@link #createVersion()}
+     */
+    private long incrementVersion(int changes) {
+        if (versionRepository.increment(changes) == 0) {
+            throw new IllegalStateException("The version of the holidays is not created");
         }
-        if (holidayName != null && !Objects.equals(holiday.getHolidayName(), holidayName)) {
-            holiday.setHolidayName(holidayName);
+        return versionRepository.findCalendarVersion().orElseThrow();
+    }
+
+    /**
+     * The changes of a write, in their order
+     */
+    private static final class Changes {
+        /**
+         * Identifiers of the changed holidays, {@code null} for the removal of all the holidays
+         */
+        private final List<Long> holidayIds = new ArrayList<>();
+        private final List<Boolean> deleted = new ArrayList<>();
+
+        void update(Long holidayId) {
+            holidayIds.add(holidayId);
+            deleted.add(false);
         }
-        if (holidayCategory != null && !Objects.equals(holiday.getHolidayCategory(), holidayCategory)) {
-            holiday.setHolidayCategory(holidayCategory);
+
+        void delete(Long holidayId) {
+            holidayIds.add(holidayId);
+            deleted.add(true);
+        }
+
+        void clear() {
+            holidayIds.add(null);
+            deleted.add(true);
+        }
+
+        int size() {
+            return holidayIds.size();
+        }
+
+        /**
+         * Records the changes, the last one with the given version
+         */
+        void recordTo(HolidayChangeLog changeLog, long version) {
+            long first = version - holidayIds.size() + 1;
+            for (int i = 0; i < holidayIds.size(); i++) {
+                Long holidayId = holidayIds.get(i);
+                if (holidayId == null) {
+                    changeLog.recordClear(first + i);
+                } else if (deleted.get(i)) {
+                    changeLog.recordDelete(holidayId, first + i);
+                } else {
+                    changeLog.recordUpdate(holidayId, first + i);
+                }
+            }
         }
-        return holiday;
     }
 }
@@ -1,9 +1,18 @@
 package com.serhiidiukarev.holiday.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvReader;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.io.HolidayDeltaWriter;
+import com.serhiidiukarev.holiday.io.HolidayFiles;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonReader;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonWriter;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+import com.serhiidiukarev.holiday.storage.NamePool;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
 import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
 import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
 import com.serhiidiukarev.holiday.validation.ValidationHelper;
@@ -12,12 +21,11 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,6 +38,9 @@ import java.util.stream.Stream;
  * and deserializer {@link LocalDate} for Json by {@link LocalDateAdapter}. This class also keeps
  * an id {@code counter} which is incremented after if successful extend of collection
  *
+ * <p>This class is not thread-safe and {@link #getHolidays()} returns the live map,
+ * see {@link DurableHolidayService} for a guarded in-memory service.
+ *
  * @see HolidayService
  */
 @Service("DefaultHolidayService")
@@ -45,6 +56,16 @@ public class DefaultHolidayService implements HolidayService<LocalDate, String>
      */
     private final Map<LocalDate, Set<Holiday>> holidays = new TreeMap<>();
 
+    /**
+     * Pool of the names of stored holidays, so equal names share one instance
+     */
+    private final NamePool namePool = new NamePool();
+
+    /**
+     * Versions of the changes of the holidays, for the export of changes
+     */
+    private final HolidayChangeLog changeLog = new HolidayChangeLog();
+
     /**
      * Default counter which represent an index for each successfully added element
      */
@@ -96,25 +117,62 @@ public class DefaultHolidayService implements HolidayService<LocalDate, String>
     public boolean addHoliday(Holiday holiday) {
         ValidationHelper.validateHoliday(holiday);
 
-        LocalDate date = holiday.getHolidayDate();
-        boolean containsDate = holidays.containsKey(date);
-        Set<Holiday> holidaysValue = holidays.get(date);
+        return putHoliday(holiday, counter);
+    }
 
-        if (containsDate
-                && holidaysValue.contains(holiday)) {
+    /**
+     * Adds the holiday under the given identifier unless an equal holiday
+     * is already contained, and moves {@code counter} past the identifier
+     *
+     * @param holiday   a new holiday
+     * @param holidayId the identifier to assign
+     * @return {@code true} if this collection changed as a result of the call
+     */
+    boolean putHoliday(Holiday holiday, long holidayId) {
+        if (containsHoliday(holiday)) {
             return false;
         }
-        Set<Holiday> holidaysSet = containsDate
-                ? holidaysValue
+        LocalDate date = holiday.getHolidayDate();
+        Set<Holiday> holidaysSet = holidays.containsKey(date)
+                ? holidays.get(date)
                 : new TreeSet<>(new HolidayTreeSetComparator());
 
-        holiday.setHolidayId(counter++);
+        if (!holiday.isGeneratedName()) {
+            holiday.setHolidayName(namePool.intern(holiday.getHolidayName()));
+        }
+        holiday.setHolidayId(holidayId);
+        counter = Math.max(counter, holidayId + 1);
         holidaysSet.add(holiday);
         holidays.put(date, holidaysSet);
+        changeLog.recordUpdate(holidayId);
 
         return true;
     }
 
+    /**
+     * @param holiday a holiday
+     * @return {@code true} if an equal holiday is contained
+     */
+    boolean containsHoliday(Holiday holiday) {
+        Set<Holiday> holidaysValue = holidays.get(holiday.getHolidayDate());
+
+        return holidaysValue != null && holidaysValue.contains(holiday);
+    }
+
+    /**
+     * @return the identifier the next added holiday will get
+     */
+    long getCounter() {
+        return counter;
+    }
+
+    /**
+     * @param counter the identifier the next added holiday will get
+     */
+    void setCounter(long counter) {
+        this.counter = counter;
+    }
+
     /**
      * Adds range of dates as new holidays
      * to {@code holidays} collection (inclusive)
@@ -133,32 +191,75 @@ public class DefaultHolidayService implements HolidayService<LocalDate, String>
 
     /**
      * Parse JSON file and add list of dates as new holidays
-     * to {@code holidays} collection (inclusive)
+     * to {@code holidays} collection (inclusive). The file is streamed
+     * in batches by {@link HolidayJsonImporter}, so it is never held in memory
      *
      * @param jsonDestination path to a file in JSON format
-     * @throws RuntimeException if {@link FileNotFoundException} is happened
+     * @throws RuntimeException if {@link IOException} is happened
      *                          during the read operation from file
      */
     @Override
     public void addHolidaysFromJSON(String jsonDestination) {
-        File file = new File(jsonDestination);
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .create();
         try {
-            FileReader fileReader = new FileReader(file);
-            Type holidayListType = new TypeToken<ArrayList<Holiday>>() {
-            }.getType();
-            List<Holiday> holidayList = gson.fromJson(fileReader, holidayListType);
+            new HolidayJsonImporter().importFile(Paths.get(jsonDestination),
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
 
-            holidayList.forEach(this::addHoliday);
-        } catch (FileNotFoundException e) {
+    /**
+     * Parse JSON file on all the cores of the common {@link ForkJoinPool}
+     * and add its holidays to {@code holidays} collection in one pass
+     * over the dates. Meant for large files, the holidays of the file
+     * are held in memory until they are added
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     * @see HolidayJsonImporter#importFileParallel
+     */
+    public void addHolidaysFromJSONInParallel(String jsonDestination) {
+        try {
+            addSortedHolidays(new HolidayJsonImporter().importFileParallel(Paths.get(jsonDestination),
+                    ForkJoinPool.commonPool(), ImportProgressListener.logging(logger)));
+        } catch (IOException e) {
             logger.error(e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Adds holidays sorted by date, looking up the set of every date once.
+     * Identifiers are given in the order of the list
+     *
+     * @param sortedHolidays holidays sorted by date
+     * @throws IllegalArgumentException if a holiday or its date is {@code null}
+     */
+    void addSortedHolidays(List<Holiday> sortedHolidays) {
+        LocalDate currentDate = null;
+        Set<Holiday> holidaysSet = null;
+        for (Holiday holiday : sortedHolidays) {
+            ValidationHelper.validateHoliday(holiday);
+            ValidationHelper.validateDate(holiday.getHolidayDate());
+            if (!holiday.getHolidayDate().equals(currentDate)) {
+                currentDate = holiday.getHolidayDate();
+                holidaysSet = holidays.computeIfAbsent(currentDate, date -> new TreeSet<>(new HolidayTreeSetComparator()));
+            }
+            if (holidaysSet.contains(holiday)) {
+                continue;
+            }
+            if (!holiday.isGeneratedName()) {
+                holiday.setHolidayName(namePool.intern(holiday.getHolidayName()));
+            }
+            holiday.setHolidayId(counter++);
+            holidaysSet.add(holiday);
+            changeLog.recordUpdate(holiday.getHolidayId());
+        }
+    }
+
     /**
      * Write current list of holidays to file in a JSON format
      *
@@ -168,20 +269,184 @@ public class DefaultHolidayService implements HolidayService<LocalDate, String>
      */
     @Override
     public void writeHolidaysToJSON(String jsonDestination) {
-        File file = new File(jsonDestination);
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .create();
-        try (FileWriter fileWriter = new FileWriter(file)) {
-            String holidaysJson = gson.toJson(holidays);
-            fileWriter.write(holidaysJson);
+        try {
+            HolidayFiles.writeText(Paths.get(jsonDestination),
+                    writer -> HolidayCodec.writeMap(holidays, writer, true));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parse CSV file and add its lines as new holidays
+     * to {@code holidays} collection. The file is memory-mapped and parsed
+     * in batches by {@link HolidayCsvReader}
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCSV(String csvDestination) {
+        try {
+            new HolidayCsvReader().importFile(Paths.get(csvDestination),
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write current list of holidays to file in a CSV format
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCSV(String csvDestination) {
+        try {
+            HolidayFiles.write(Paths.get(csvDestination),
+                    file -> new HolidayCsvWriter().write(file, () -> holidays.values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read binary calendar file and add its holidays
+     * to {@code holidays} collection
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public void addHolidaysFromCalendarFile(String calendarDestination) {
+        try {
+            HolidayCalendarFile.open(Paths.get(calendarDestination)).importTo(HolidayCalendarFile.DEFAULT_BATCH_SIZE,
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
         } catch (IOException e) {
             logger.error(e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Write current list of holidays to file in the binary calendar format
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCalendarFile(String calendarDestination) {
+        try {
+            HolidayFiles.write(Paths.get(calendarDestination),
+                    file -> HolidayCalendarFile.write(file, () -> holidays.values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the complete lines of a NDJSON file from a byte offset on and add
+     * their holidays to {@code holidays} collection, holidays already added are skipped
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param offset            offset of the first line to read
+     * @return the offset after the last read line
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    @Override
+    public long addHolidaysFromNDJSON(String ndjsonDestination, long offset) {
+        try {
+            return new HolidayNdjsonReader().importFrom(Paths.get(ndjsonDestination), offset,
+                    batch -> batch.forEach(this::addHoliday),
+                    ImportProgressListener.logging(logger));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Append the holidays with identifiers greater than the given one
+     * to a file in NDJSON format
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param afterHolidayId    the greatest identifier already exported, {@code -1} to export all
+     * @return the greatest exported identifier, {@code afterHolidayId} if nothing was appended
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long appendHolidaysToNDJSON(String ndjsonDestination, long afterHolidayId) {
+        List<Holiday> newHolidays = holidays.values().stream().flatMap(Set::stream)
+                .filter(holiday -> holiday.getHolidayId() > afterHolidayId)
+                .sorted(Comparator.comparing(Holiday::getHolidayId))
+                .collect(Collectors.toList());
+        try {
+            new HolidayNdjsonWriter().append(Paths.get(ndjsonDestination), newHolidays);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return newHolidays.isEmpty() ? afterHolidayId : newHolidays.get(newHolidays.size() - 1).getHolidayId();
+    }
+
+    @Override
+    public long getVersion() {
+        return changeLog.getVersion();
+    }
+
+    /**
+     * Write the changes of {@code holidays} collection after a version
+     * to file in JSON format
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @param sinceVersion    the version returned by the previous export, {@code 0} for all the holidays
+     * @return the version of the written changes
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long writeHolidayChangesToJSON(String jsonDestination, long sinceVersion) {
+        HolidayChanges changes = getChangesSince(sinceVersion);
+        try {
+            HolidayDeltaWriter.write(Paths.get(jsonDestination), changes.getDelta(), changes.getHolidays());
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return changes.getDelta().getVersion();
+    }
+
+    @Override
+    public HolidayChanges getChangesSince(long sinceVersion) {
+        HolidayChangeLog.Delta delta = changeLog.changesSince(sinceVersion);
+        Set<Long> updatedIds = delta.getUpdatedIds();
+        Map<Long, Holiday> changed = new HashMap<>();
+        holidays.values().forEach(holidaySet -> holidaySet.forEach(holiday -> {
+            if (delta.isFull() || updatedIds.contains(holiday.getHolidayId())) {
+                changed.put(holiday.getHolidayId(), holiday);
+            }
+        }));
+        return new HolidayChanges(delta, changed);
+    }
+
+    @Override
+    public long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        return changeLog.awaitChange(sinceVersion, timeoutMillis);
+    }
+
     /**
      * Return a mpa with all current {@link Holiday}
      *
@@ -203,42 +468,114 @@ public class DefaultHolidayService implements HolidayService<LocalDate, String>
     @Override
     public void clear() {
         holidays.clear();
+        namePool.clear();
         counter = 0;
+        changeLog.recordClear();
     }
 
     @Override
     public boolean deleteHoliday(Long holidayId) {
-        AtomicBoolean removed = new AtomicBoolean(false);
-        holidays.values()
-                .forEach(holidaySet -> {
-                    List<Holiday> found = holidaySet
-                            .stream()
-                            .filter(item -> Objects.equals(item.getHolidayId(), holidayId)).collect(Collectors.toList());
-                    if (!found.isEmpty()) {
-                        found.forEach(holidaySet::remove);
-                        removed.set(true);
-                    }
-                });
-        return removed.get();
+        Holiday holiday = removeHoliday(holidayId);
+        if (holiday == null) {
+            return false;
+        }
+        changeLog.recordDelete(holidayId);
+        return true;
+    }
+
+    /**
+     * Deletes the holidays with the given identifiers in one pass over the holidays
+     *
+     * @param holidayIds identifiers of the holidays
+     * @return the number of deleted holidays
+     */
+    @Override
+    public int deleteHolidays(Collection<Long> holidayIds) {
+        Set<Long> ids = new HashSet<>(holidayIds);
+        int deleted = 0;
+        Iterator<Set<Holiday>> sets = holidays.values().iterator();
+        while (sets.hasNext()) {
+            Set<Holiday> holidaySet = sets.next();
+            Iterator<Holiday> iterator = holidaySet.iterator();
+            while (iterator.hasNext()) {
+                Long holidayId = iterator.next().getHolidayId();
+                if (ids.contains(holidayId)) {
+                    iterator.remove();
+                    changeLog.recordDelete(holidayId);
+                    deleted++;
+                }
+            }
+            if (holidaySet.isEmpty()) {
+                sets.remove();
+            }
+        }
+        return deleted;
     }
 
+    /**
+     * Updates the given fields of a holiday and moves it to the set of its new date,
+     * {@code null} fields are kept
+     *
+     * @return the updated holiday, {@code null} if there is no holiday with the identifier
+     * @throws IllegalArgumentException if an equal holiday is already added
+     */
     @Override
     public Holiday updateHoliday(Long holidayId, LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory) {
-        AtomicReference<Holiday> holiday = new AtomicReference<>();
-        holidays.values()
-                .forEach(holidaySet -> {
-                    List<Holiday> found = holidaySet
-                            .stream()
-                            .filter(item -> Objects.equals(item.getHolidayId(), holidayId)).collect(Collectors.toList());
-                    if (!found.isEmpty()) {
-                        found.forEach(holidayItem -> {
-                            holidayItem.setHolidayCategory(holidayCategory);
-                            holidayItem.setHolidayDate(holidayDate);
-                            holidayItem.setHolidayCategory(holidayCategory);
-                            holiday.set(holidayItem);
-                        });
+        Holiday holiday = removeHoliday(holidayId);
+        if (holiday == null) {
+            return null;
+        }
+        Holiday.HolidayBuilder builder = Holiday.builder()
+                .holidayDate(holidayDate != null ? holidayDate : holiday.getHolidayDate())
+                .holidayCategory(holidayCategory != null ? holidayCategory : holiday.getHolidayCategory());
+        if (holidayName != null) {
+            builder.holidayName(holidayName);
+        } else if (holiday.isGeneratedName()) {
+            builder.generatedName();
+        } else {
+            builder.holidayName(holiday.getHolidayName());
+        }
+        Holiday updated = builder.build();
+        if (containsHoliday(updated)) {
+            addToDate(holiday);
+            throw new IllegalArgumentException("already added");
+        }
+
+        holiday.setHolidayDate(updated.getHolidayDate());
+        holiday.setHolidayCategory(updated.getHolidayCategory());
+        if (!updated.isGeneratedName()) {
+            holiday.setHolidayName(namePool.intern(updated.getHolidayName()));
+        }
+        addToDate(holiday);
+        changeLog.recordUpdate(holidayId);
+        return holiday;
+    }
+
+    /**
+     * Removes a holiday from the set of its date, and the date once its set is empty,
+     * so the date is not counted as a holiday any more
+     *
+     * @return the removed holiday, {@code null} if there is no holiday with the identifier
+     */
+    private Holiday removeHoliday(Long holidayId) {
+        Iterator<Set<Holiday>> sets = holidays.values().iterator();
+        while (sets.hasNext()) {
+            Set<Holiday> holidaySet = sets.next();
+            for (Holiday holiday : holidaySet) {
+                if (Objects.equals(holiday.getHolidayId(), holidayId)) {
+                    holidaySet.remove(holiday);
+                    if (holidaySet.isEmpty()) {
+                        sets.remove();
                     }
-                });
-        return holiday.get();
+                    return holiday;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void addToDate(Holiday holiday) {
+        holidays.computeIfAbsent(holiday.getHolidayDate(), date -> new TreeSet<>(new HolidayTreeSetComparator()))
+                .add(holiday);
     }
 }
@@ -0,0 +1,393 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.HolidayJournal;
+import com.serhiidiukarev.holiday.storage.HolidaySnapshot;
+import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
+import com.serhiidiukarev.holiday.validation.ValidationHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * {@link DefaultHolidayService} which survives restarts without an external database.
+ * Every mutation is appended to a write-ahead {@link HolidayJournal} in
+ * {@code holiday.durable.directory}, and once the journal holds
+ * {@code holiday.durable.compact-after-records} records the whole collection is
+ * written to a memory-mapped {@link HolidaySnapshot} and the journal is emptied.
+ * On startup the snapshot is loaded and the journal records after it are replayed.
+ *
+ * Mutations are serialized by the write lock of the service. Readers get an immutable
+ * copy of the holidays, taken under the read lock on the first read after a mutation,
+ * and the exports read the holidays under the read lock, so reads never see a mutation
+ * in progress.
+ *
+ * @see DefaultHolidayService
+ */
+@Service("DurableHolidayService")
+@ConditionalOnProperty(prefix = "holiday.durable", name = "directory")
+public class DurableHolidayService extends DefaultHolidayService {
+
+    static final String SNAPSHOT_FILE = "holidays.snapshot";
+    static final String JOURNAL_FILE = "holidays.journal";
+
+    /**
+     * Default logger
+     */
+    Logger logger = LogManager.getLogger(DurableHolidayService.class);
+
+    private final Path snapshotFile;
+    private final HolidayJournal journal;
+    private final int compactAfterRecords;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Immutable copy of the holidays served to readers, {@code null} after a mutation
+     */
+    private volatile Map<LocalDate, Set<Holiday>> snapshot;
+
+    /**
+     * Restores the holidays kept in {@code directory}, creating it if needed
+     *
+     * @param directory           directory of the snapshot and journal files
+     * @param fsync               {@code true} to force every journal record to the storage device
+     * @param compactAfterRecords number of journal records which triggers a snapshot
+     * @throws RuntimeException if {@link IOException} is happened during recovery
+     */
+    public DurableHolidayService(@Value("${holiday.durable.directory}") Path directory,
+                                 @Value("${holiday.durable.fsync:true}") boolean fsync,
+                                 @Value("${holiday.durable.compact-after-records:10000}") int compactAfterRecords) {
+        if (compactAfterRecords <= 0) {
+            throw new IllegalArgumentException("compactAfterRecords must be positive");
+        }
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.compactAfterRecords = compactAfterRecords;
+        try {
+            Files.createDirectories(directory);
+            long sequence = 0;
+            HolidaySnapshot snapshot = HolidaySnapshot.read(snapshotFile);
+            if (snapshot != null) {
+                snapshot.getHolidays().forEach(holiday -> putHoliday(holiday, holiday.getHolidayId()));
+                setCounter(snapshot.getCounter());
+                sequence = snapshot.getSequence();
+            }
+            this.journal = new HolidayJournal(directory.resolve(JOURNAL_FILE), fsync);
+            long replayed = journal.replay(sequence, new Recovery());
+            logger.info("Restored " + super.getHolidays().values().stream().mapToInt(Set::size).sum()
+                    + " holidays from " + directory + ", replayed " + replayed + " journal records");
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Calculate the number of workdays between two given dates (inclusive)
+     * in the copy of the holidays, without a lock
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days (inclusive)
+     */
+    @Override
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        ValidationHelper.validateDates(startDate, endDate);
+
+        return countWorkingDaysBetween(startDate, endDate, getHolidays());
+    }
+
+    @Override
+    public boolean addHoliday(Holiday holiday) {
+        return write(() -> {
+            if (!super.addHoliday(holiday)) {
+                return false;
+            }
+            try {
+                journal.appendAdd(holiday);
+            } catch (IOException e) {
+                super.deleteHoliday(holiday.getHolidayId());
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            compactIfNeeded();
+            return true;
+        });
+    }
+
+    /**
+     * Adds the holidays one by one, so every one of them is journaled
+     */
+    @Override
+    void addSortedHolidays(List<Holiday> sortedHolidays) {
+        write(() -> {
+            sortedHolidays.forEach(this::addHoliday);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean deleteHoliday(Long holidayId) {
+        return write(() -> {
+            if (!containsHoliday(holidayId)) {
+                return false;
+            }
+            try {
+                journal.appendDelete(holidayId);
+            } catch (IOException e) {
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            super.deleteHoliday(holidayId);
+            compactIfNeeded();
+            return true;
+        });
+    }
+
+    /**
+     * Deletes the holidays one by one, so every deletion is journaled
+     */
+    @Override
+    public int deleteHolidays(Collection<Long> holidayIds) {
+        return write(() -> {
+            int deleted = 0;
+            for (Long holidayId : holidayIds) {
+                if (deleteHoliday(holidayId)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public Holiday updateHoliday(Long holidayId,
+                                 LocalDate holidayDate,
+                                 String holidayName,
+                                 Holiday.HolidayCategory holidayCategory) {
+        return write(() -> {
+            if (!containsHoliday(holidayId)) {
+                return null;
+            }
+            try {
+                journal.appendUpdate(holidayId, holidayDate, holidayName, holidayCategory);
+            } catch (IOException e) {
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            Holiday holiday = super.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory);
+            compactIfNeeded();
+            return holiday;
+        });
+    }
+
+    @Override
+    public void writeHolidaysToJSON(String jsonDestination) {
+        read(() -> {
+            super.writeHolidaysToJSON(jsonDestination);
+            return null;
+        });
+    }
+
+    @Override
+    public void writeHolidaysToCSV(String csvDestination) {
+        read(() -> {
+            super.writeHolidaysToCSV(csvDestination);
+            return null;
+        });
+    }
+
+    @Override
+    public void writeHolidaysToCalendarFile(String calendarDestination) {
+        read(() -> {
+            super.writeHolidaysToCalendarFile(calendarDestination);
+            return null;
+        });
+    }
+
+    @Override
+    public long appendHolidaysToNDJSON(String ndjsonDestination, long afterHolidayId) {
+        return read(() -> super.appendHolidaysToNDJSON(ndjsonDestination, afterHolidayId));
+    }
+
+    @Override
+    public HolidayChanges getChangesSince(long sinceVersion) {
+        return read(() -> super.getChangesSince(sinceVersion));
+    }
+
+    /**
+     * @return read-only copy of the holidays, not changed by later mutations
+     * (where key is a date and values is a set of holidays)
+     */
+    @Override
+    public Map<LocalDate, Set<Holiday>> getHolidays() {
+        Map<LocalDate, Set<Holiday>> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return read(() -> {
+            Map<LocalDate, Set<Holiday>> copy = new TreeMap<>();
+            super.getHolidays().forEach((date, holidays) -> {
+                if (!holidays.isEmpty()) {
+                    Set<Holiday> set = new TreeSet<>(new HolidayTreeSetComparator());
+                    holidays.forEach(holiday -> set.add(copyOf(holiday)));
+                    copy.put(date, Collections.unmodifiableSet(set));
+                }
+            });
+            // taken under the read lock, so no mutation is missed
+            snapshot = Collections.unmodifiableMap(copy);
+            return snapshot;
+        });
+    }
+
+    @Override
+    public void clear() {
+        write(() -> {
+            try {
+                journal.appendClear();
+            } catch (IOException e) {
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            super.clear();
+            compactIfNeeded();
+            return null;
+        });
+    }
+
+    /**
+     * Writes all the holidays to the snapshot and empties the journal
+     *
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    public void compact() {
+        write(() -> {
+            List<Holiday> holidays = new ArrayList<>();
+            super.getHolidays().values().forEach(holidays::addAll);
+            try {
+                HolidaySnapshot.write(snapshotFile, journal.getSequence(), getCounter(), holidays);
+                journal.truncate();
+            } catch (IOException e) {
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Compacts the journal into a snapshot and closes it
+     */
+    @PreDestroy
+    public void close() {
+        write(() -> {
+            compact();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.error(e);
+                throw new RuntimeException(e);
+            }
+            return null;
+        });
+    }
+
+    private void compactIfNeeded() {
+        if (journal.getRecords() >= compactAfterRecords) {
+            compact();
+        }
+    }
+
+    private boolean containsHoliday(Long holidayId) {
+        return super.getHolidays().values().stream()
+                .flatMap(Set::stream)
+                .anyMatch(holiday -> Objects.equals(holiday.getHolidayId(), holidayId));
+    }
+
+    /**
+     * Runs a mutation under the write lock and drops the copy of the holidays
+     */
+    private <V> V write(Supplier<V> mutation) {
+        lock.writeLock().lock();
+        try {
+            return mutation.get();
+        } finally {
+            snapshot = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <V> V read(Supplier<V> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a copy of a holiday, so later updates of the original instance are not visible to readers
+     */
+    private static Holiday copyOf(Holiday holiday) {
+        Holiday.HolidayBuilder builder = Holiday.builder()
+                .holidayId(holiday.getHolidayId())
+                .holidayDate(holiday.getHolidayDate())
+                .holidayCategory(holiday.getHolidayCategory());
+        if (holiday.isGeneratedName()) {
+            builder.generatedName();
+        } else {
+            builder.holidayName(holiday.getHolidayName());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Applies replayed journal records without writing them again
+     */
+    private class Recovery implements HolidayJournal.Listener {
+        @Override
+        public void add(Holiday holiday) {
+            putHoliday(holiday, holiday.getHolidayId());
+        }
+
+        @Override
+        public void delete(long holidayId) {
+            DurableHolidayService.super.deleteHoliday(holidayId);
+        }
+
+        @Override
+        public void update(long holidayId, LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory) {
+            try {
+                DurableHolidayService.super.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory);
+            } catch (IllegalArgumentException e) {
+                // the update was journaled and then rejected as a duplicate, as it is here
+            }
+        }
+
+        @Override
+        public void clear() {
+            DurableHolidayService.super.clear();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the operations of the {@code holidayService} on a bounded pool of
+ * {@code holiday.async.threads} threads. At most {@code holiday.async.queue-capacity}
+ * operations wait for a thread, an operation submitted to a full queue is
+ * rejected at once, so a slow database makes the callers back off instead of
+ * piling up requests.
+ */
+@Service
+public class ExecutorAsyncHolidayService implements AsyncHolidayService<LocalDate, String> {
+    private final HolidayService<LocalDate, String> holidayService;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param holidayService service running the operations
+     * @param threads        the number of operations running at a time
+     * @param queueCapacity  the number of operations waiting to run
+     */
+    @Autowired
+    public ExecutorAsyncHolidayService(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                                       @Value("${holiday.async.threads:8}") int threads,
+                                       @Value("${holiday.async.queue-capacity:100}") int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid async settings: (threads=" + threads
+                    + ", queueCapacity=" + queueCapacity + ")");
+        }
+        this.holidayService = holidayService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "holiday-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        return supply(() -> holidayService.countWorkingDaysBetween(startDate, endDate));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addHoliday(LocalDate date) {
+        return supply(() -> holidayService.addHoliday(date));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addHoliday(Holiday holiday) {
+        return supply(() -> holidayService.addHoliday(holiday));
+    }
+
+    @Override
+    public CompletableFuture<Void> addHolidaysBetween(LocalDate startDate, LocalDate endDate) {
+        return run(() -> holidayService.addHolidaysBetween(startDate, endDate));
+    }
+
+    @Override
+    public CompletableFuture<Void> addHolidaysFromJSON(String jsonDestination) {
+        return run(() -> holidayService.addHolidaysFromJSON(jsonDestination));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeHolidaysToJSON(String jsonDestination) {
+        return run(() -> holidayService.writeHolidaysToJSON(jsonDestination));
+    }
+
+    @Override
+    public CompletableFuture<Void> addHolidaysFromCSV(String csvDestination) {
+        return run(() -> holidayService.addHolidaysFromCSV(csvDestination));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeHolidaysToCSV(String csvDestination) {
+        return run(() -> holidayService.writeHolidaysToCSV(csvDestination));
+    }
+
+    @Override
+    public CompletableFuture<Map<LocalDate, Set<Holiday>>> getHolidays() {
+        return supply(holidayService::getHolidays);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteHoliday(Long holidayId) {
+        return supply(() -> holidayService.deleteHoliday(holidayId));
+    }
+
+    @Override
+    public CompletableFuture<Holiday> updateHoliday(Long holidayId, LocalDate holidayDate, String holidayName,
+                                                    Holiday.HolidayCategory holidayCategory) {
+        return supply(() -> holidayService.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory));
+    }
+
+    /**
+     * @return the number of operations running
+     */
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of operations waiting to run
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Void> run(Runnable operation) {
+        return supply(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <V> CompletableFuture<V> supply(Supplier<V> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many holiday operations are queued", e));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.HolidayChangeLog;
+
+import java.util.Map;
+
+/**
+ * The changes of the holidays of a {@link HolidayService} after a version,
+ * see {@link HolidayService#getChangesSince(long)}
+ */
+public final class HolidayChanges {
+    private final HolidayChangeLog.Delta delta;
+    private final Map<Long, Holiday> holidays;
+
+    /**
+     * @param delta    the changes
+     * @param holidays the current holidays by identifier, the updated ones of the delta,
+     *                 all of them for a full delta
+     */
+    public HolidayChanges(HolidayChangeLog.Delta delta, Map<Long, Holiday> holidays) {
+        this.delta = delta;
+        this.holidays = holidays;
+    }
+
+    public HolidayChangeLog.Delta getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return the current holidays by identifier, a holiday updated in the delta
+     * and deleted after it is missing
+     */
+    public Map<Long, Holiday> getHolidays() {
+        return holidays;
+    }
+}
@@ -0,0 +1,254 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@code holidayService} in sync with the calendar files in
+ * {@code holiday.watch.directory}. The files are read when the application is
+ * ready and then again whenever a {@link WatchService} reports them as created,
+ * modified or deleted, once no further change is reported for
+ * {@code holiday.watch.quiet-period} milliseconds.
+ *
+ * A reload does not clear the service. The holidays of the changed files are compared
+ * with the current {@link HolidayService#getHolidays()}: holidays the service does
+ * not contain are added by {@link HolidayService#addHolidays}, and holidays which
+ * were loaded from the directory before but are no longer in any of its files are
+ * deleted by {@link HolidayService#deleteHolidays}, so the holidays added by other
+ * means are kept. Holidays are compared by date, name and category.
+ *
+ * Files are matched to their format by the extension (see {@link HolidayImportJob.Format#of}),
+ * other and hidden files, such as the temporary files of exports, are ignored.
+ */
+@Component
+@ConditionalOnProperty(prefix = "holiday.watch", name = "directory")
+public class HolidayDirectoryWatcher {
+    /**
+     * Watch logger
+     */
+    Logger logger = LogManager.getLogger(HolidayDirectoryWatcher.class);
+
+    private final HolidayService<LocalDate, String> holidayService;
+    private final Path directory;
+    private final long quietPeriod;
+
+    /**
+     * The holidays of every file as they were last applied
+     */
+    private final Map<Path, Set<Holiday>> loaded = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param holidayService service receiving the holidays of the directory
+     * @param directory      the watched directory
+     * @param quietPeriod    milliseconds without changes before the changed files are read
+     */
+    @Autowired
+    public HolidayDirectoryWatcher(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                                   @Value("${holiday.watch.directory}") Path directory,
+                                   @Value("${holiday.watch.quiet-period:500}") long quietPeriod) {
+        if (quietPeriod < 0) {
+            throw new IllegalArgumentException("quietPeriod must not be negative");
+        }
+        this.holidayService = holidayService;
+        this.directory = directory;
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Registers the directory for changes and loads its files, once the application is ready
+     *
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the registration of the directory
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        thread = new Thread(this::watch, "holiday-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reads all the files of the directory and applies their changes
+     *
+     * @return the number of added and deleted holidays
+     */
+    public synchronized int scan() {
+        Set<Path> files = new HashSet<>(loaded.keySet());
+        try (Stream<Path> list = Files.list(directory)) {
+            list.forEach(files::add);
+        } catch (IOException e) {
+            logger.error("Failed to list calendar directory " + directory, e);
+        }
+        return reload(files);
+    }
+
+    /**
+     * Reads the given files again and applies the difference to the service as one
+     * batch of additions and one of deletions. A file which can not be read keeps
+     * the holidays it had before.
+     *
+     * @param files the changed files of the directory
+     * @return the number of added and deleted holidays
+     */
+    public synchronized int reload(Collection<Path> files) {
+        Map<Path, Set<Holiday>> next = new HashMap<>(loaded);
+        for (Path file : files) {
+            HolidayImportJob.Format format = formatOf(file);
+            if (format == null) {
+                continue;
+            }
+            if (!Files.isRegularFile(file)) {
+                next.remove(file);
+                continue;
+            }
+            try {
+                Set<Holiday> holidays = new HashSet<>();
+                format.importFile(file, batch -> batch.forEach(holiday -> holidays.add(withoutId(holiday))),
+                        (count, bytesRead, totalBytes) -> {
+                        });
+                next.put(file, holidays);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to read calendar file " + file + ", keeping its previous holidays", e);
+            }
+        }
+
+        Set<Holiday> wanted = next.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
+        Map<Holiday, Long> current = new HashMap<>();
+        holidayService.getHolidays().values().forEach(holidays -> holidays.forEach(
+                holiday -> current.putIfAbsent(holiday, holiday.getHolidayId())));
+
+        List<Long> removed = loaded.values().stream().flatMap(Set::stream).distinct()
+                .filter(holiday -> !wanted.contains(holiday))
+                .map(current::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        List<Holiday> added = wanted.stream()
+                .filter(holiday -> !current.containsKey(holiday))
+                .map(this::withoutId)
+                .collect(Collectors.toList());
+
+        int deleted = removed.isEmpty() ? 0 : holidayService.deleteHolidays(removed);
+        int saved = added.isEmpty() ? 0 : holidayService.addHolidays(added,
+                (index, e) -> logger.warn("Rejected holiday " + added.get(index) + ": " + e.getMessage()));
+        loaded.clear();
+        loaded.putAll(next);
+        if (deleted > 0 || saved > 0) {
+            logger.info("Calendar directory " + directory + ": added " + saved + ", deleted " + deleted + " holidays");
+        }
+        return saved + deleted;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.error(e);
+            }
+        }
+    }
+
+    private void watch() {
+        scan();
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                boolean overflow = collect(watchService.take(), changed);
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+                try {
+                    if (overflow) {
+                        scan();
+                    } else {
+                        reload(changed);
+                    }
+                } catch (RuntimeException e) {
+                    // the files are read again on their next change
+                    logger.error("Failed to apply calendar directory " + directory, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.info("Stopped watching calendar directory " + directory);
+        }
+    }
+
+    /**
+     * @return {@code true} if events were lost and the whole directory is to be read
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private static HolidayImportJob.Format formatOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".")) {
+            return null;
+        }
+        try {
+            return HolidayImportJob.Format.of(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A copy without the identifier, which is assigned by the service
+     */
+    private Holiday withoutId(Holiday holiday) {
+        Holiday.HolidayBuilder builder = Holiday.builder()
+                .holidayDate(holiday.getHolidayDate())
+                .holidayCategory(holiday.getHolidayCategory());
+        if (holiday.isGeneratedName()) {
+            builder.generatedName();
+        } else {
+            builder.holidayName(holiday.getHolidayName());
+        }
+        return builder.build();
+    }
+}
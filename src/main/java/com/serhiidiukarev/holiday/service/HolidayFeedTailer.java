@@ -0,0 +1,147 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.io.MalformedLineException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows a JSON Lines (NDJSON) feed in {@code holiday.feed.file}, to which producers
+ * append new holidays. Every {@code holiday.feed.poll-interval} milliseconds the lines
+ * appended since the previous poll are imported into the {@code holidayService} by
+ * {@link HolidayService#addHolidaysFromNDJSON}, starting at the offset where the
+ * previous import stopped, so the file is never read again from its start.
+ * A file which got shorter was replaced or truncated and is read from the start.
+ * A malformed line is logged with its byte offset and skipped, after the holidays
+ * of the lines before it are imported, so it never stalls the feed.
+ *
+ * @see com.serhiidiukarev.holiday.io.HolidayNdjsonReader
+ */
+@Component
+@ConditionalOnProperty(prefix = "holiday.feed", name = "file")
+public class HolidayFeedTailer {
+    /**
+     * Feed logger
+     */
+    Logger logger = LogManager.getLogger(HolidayFeedTailer.class);
+
+    private final HolidayService<LocalDate, String> holidayService;
+    private final Path file;
+    private final long pollInterval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "holiday-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Offset of the first line not imported yet
+     */
+    private long offset;
+
+    /**
+     * The number of malformed lines skipped
+     */
+    private long skippedLines;
+
+    /**
+     * @param holidayService service receiving the holidays of the feed
+     * @param file           path to the feed in NDJSON format
+     * @param pollInterval   milliseconds between two polls
+     */
+    @Autowired
+    public HolidayFeedTailer(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                             @Value("${holiday.feed.file}") Path file,
+                             @Value("${holiday.feed.poll-interval:1000}") long pollInterval) {
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("pollInterval must be positive");
+        }
+        this.holidayService = holidayService;
+        this.file = file;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Starts polling the feed, once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                // the lines after the offset are imported again by the next poll
+                logger.error("Failed to import holiday feed " + file, e);
+            }
+        }, 0, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Imports the lines appended to the feed since the previous poll
+     *
+     * @return the offset after the last imported line
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the read operation from file
+     */
+    public synchronized long poll() {
+        try {
+            if (!Files.exists(file)) {
+                return offset;
+            }
+            long size = Files.size(file);
+            if (size < offset) {
+                logger.warn("Holiday feed " + file + " got shorter, reading it from the start");
+                offset = 0;
+            }
+            while (size > offset) {
+                try {
+                    offset = holidayService.addHolidaysFromNDJSON(file.toString(), offset);
+                    break;
+                } catch (MalformedLineException e) {
+                    logger.error("Skipped malformed line at byte " + e.getLineStart()
+                            + " of holiday feed " + file, e);
+                    offset = e.getNextLineStart();
+                    skippedLines++;
+                }
+            }
+            return offset;
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the offset of the first line not imported yet
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of malformed lines skipped
+     */
+    public synchronized long getSkippedLines() {
+        return skippedLines;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
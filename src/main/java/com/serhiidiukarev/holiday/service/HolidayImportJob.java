@@ -0,0 +1,303 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvReader;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonReader;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * An import of an uploaded file run in the background by {@link HolidayImportJobService}.
+ * The progress is updated by the importing thread after every batch and can be read
+ * at any time by other threads.
+ */
+public class HolidayImportJob {
+    /**
+     * The maximal number of row errors kept, the rest are only counted
+     */
+    public static final int MAX_ERRORS = 100;
+
+    /**
+     * Formats of the imported files
+     */
+    public enum Format {
+        JSON, CSV, NDJSON, CALENDAR;
+
+        /**
+         * @param fileName name of an uploaded file
+         * @return the format matching the extension of the name, a trailing {@code .gz} ignored
+         * @throws IllegalArgumentException if the extension is not known
+         */
+        public static Format of(String fileName) {
+            String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            if (name.endsWith(".json")) {
+                return JSON;
+            }
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".hcal")) {
+                return CALENDAR;
+            }
+            throw new IllegalArgumentException("Unknown format of file " + fileName);
+        }
+
+        /**
+         * Reads all the holidays of a file in this format
+         *
+         * @param file     path to the file
+         * @param batches  receiver of the batches of holidays
+         * @param listener receiver of the progress
+         * @throws IOException if the file can not be read
+         */
+        public void importFile(Path file, Consumer<List<Holiday>> batches, ImportProgressListener listener) throws IOException {
+            switch (this) {
+                case JSON:
+                    new HolidayJsonImporter().importFile(file, batches, listener);
+                    break;
+                case CSV:
+                    new HolidayCsvReader().importFile(file, batches, listener);
+                    break;
+                case NDJSON:
+                    new HolidayNdjsonReader().importFrom(file, 0, batches, listener);
+                    break;
+                case CALENDAR:
+                    HolidayCalendarFile.open(file).importTo(HolidayCalendarFile.DEFAULT_BATCH_SIZE, batches, listener);
+                    break;
+            }
+        }
+
+        /**
+         * @return {@code true} if holidays in this format can be read from a stream
+         */
+        public boolean isStreamed() {
+            return this == JSON || this == NDJSON;
+        }
+
+        /**
+         * Reads all the holidays of a stream in this format
+         *
+         * @param in       the stream, read to its end
+         * @param batches  receiver of the batches of holidays
+         * @param listener receiver of the progress
+         * @throws IOException              if the stream can not be read
+         * @throws IllegalArgumentException if holidays in this format can not be read from a stream
+         */
+        public void importStream(InputStream in, Consumer<List<Holiday>> batches, ImportProgressListener listener) throws IOException {
+            switch (this) {
+                case JSON:
+                    new HolidayJsonImporter().importFrom(new InputStreamReader(in, StandardCharsets.UTF_8), batches);
+                    break;
+                case NDJSON:
+                    new HolidayNdjsonReader().importFrom(in, batches, listener);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Format " + this + " can not be read from a stream");
+            }
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    /**
+     * A holiday of the file rejected by the service
+     */
+    public static final class RowError {
+        private final long row;
+        private final String message;
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * @return the number of the holiday in the file, starting at {@code 1}
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final long jobId;
+    private final String fileName;
+    private final Format format;
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long holidaysRead;
+    private volatile long holidaysAdded;
+    private volatile long bytesRead;
+    private volatile long totalBytes;
+    private volatile long errorCount;
+    private volatile String failure;
+    private final List<RowError> errors = new ArrayList<>();
+
+    HolidayImportJob(long jobId, String fileName, Format format) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return the number of holidays read from the file so far
+     */
+    public long getHolidaysRead() {
+        return holidaysRead;
+    }
+
+    /**
+     * @return the number of holidays added to the service so far,
+     * holidays already contained by the service are neither added nor rejected
+     */
+    public long getHolidaysAdded() {
+        return holidaysAdded;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of holidays read per second since the start
+     */
+    public double getHolidaysPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return holidaysRead * 1000.0 / millis;
+    }
+
+    /**
+     * @return the number of holidays read so far which the service already contained
+     */
+    public long getDuplicates() {
+        return Math.max(0, holidaysRead - holidaysAdded - errorCount);
+    }
+
+    /**
+     * @return the number of rejected holidays
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the first {@value #MAX_ERRORS} rejected holidays
+     */
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    /**
+     * @return the reason of a failed import, {@code null} if it did not fail
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return {@code true} if the import succeeded or failed
+     */
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void batch(int read, int added) {
+        holidaysRead += read;
+        holidaysAdded += added;
+    }
+
+    void progress(long bytesRead, long totalBytes) {
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+    }
+
+    void reject(long row, String message) {
+        errorCount++;
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    void succeed() {
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void fail(String failure) {
+        this.failure = failure;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,244 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayFiles;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs imports of uploaded files into the {@code holidayService} in the background.
+ * An upload is saved to a file in {@code holiday.import.directory} and queued as a
+ * {@link HolidayImportJob}, whose progress is polled by its identifier.
+ *
+ * At most {@code holiday.import.threads} jobs run at a time and at most
+ * {@code holiday.import.queue-capacity} jobs wait. A job submitted to a full queue is
+ * rejected before its upload is saved, so big loads neither pile up on the disk nor
+ * hold the request threads. The last {@code holiday.import.retained-jobs} finished
+ * jobs are kept for polling.
+ *
+ * The holidays are handed to {@link HolidayService#addHolidays} in batches, so
+ * the holidays rejected by the service are reported per row and do not stop the job.
+ * A file which can not be parsed fails the job, the batches added before stay added.
+ */
+@Service
+public class HolidayImportJobService {
+    /**
+     * Import job logger
+     */
+    Logger logger = LogManager.getLogger(HolidayImportJobService.class);
+
+    private final HolidayService<LocalDate, String> holidayService;
+    private final Path directory;
+    private final int retainedJobs;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, HolidayImportJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * @param holidayService service receiving the imported holidays
+     * @param threads        the number of jobs running at a time
+     * @param queueCapacity  the number of jobs waiting to run
+     * @param retainedJobs   the number of finished jobs kept for polling
+     * @param directory      directory of the uploaded files
+     */
+    @Autowired
+    public HolidayImportJobService(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                                   @Value("${holiday.import.threads:1}") int threads,
+                                   @Value("${holiday.import.queue-capacity:4}") int queueCapacity,
+                                   @Value("${holiday.import.retained-jobs:100}") int retainedJobs,
+                                   @Value("${holiday.import.directory:${java.io.tmpdir}}") Path directory) {
+        if (threads <= 0 || queueCapacity <= 0 || retainedJobs < 0) {
+            throw new IllegalArgumentException("Invalid import settings: (threads=" + threads
+                    + ", queueCapacity=" + queueCapacity + ", retainedJobs=" + retainedJobs + ")");
+        }
+        this.holidayService = holidayService;
+        this.directory = directory;
+        this.retainedJobs = retainedJobs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "holiday-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Saves an upload and queues its import
+     *
+     * @param fileName name of the uploaded file
+     * @param format   format of the file, {@code null} to choose it by the name of the file
+     * @param upload   writer of the uploaded content to the given file
+     * @return the queued job
+     * @throws IllegalArgumentException   if the format is not given and not known by the name
+     * @throws RejectedExecutionException if the queue of jobs is full
+     * @throws RuntimeException           if {@link IOException} is happened
+     *                                    during the saving of the upload
+     */
+    public HolidayImportJob submit(String fileName, HolidayImportJob.Format format, HolidayFiles.Content upload) {
+        HolidayImportJob.Format jobFormat = format == null ? HolidayImportJob.Format.of(fileName) : format;
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Too many import jobs are queued");
+        }
+
+        HolidayImportJob job = new HolidayImportJob(jobIds.incrementAndGet(), fileName, jobFormat);
+        Path file = null;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "holiday-import-" + job.getJobId() + "-", ".upload");
+            upload.writeTo(file);
+            Path uploaded = file;
+            synchronized (jobs) {
+                jobs.put(job.getJobId(), job);
+                evictFinishedJobs();
+            }
+            executor.execute(() -> run(job,
+                    (batches, listener) -> job.getFormat().importFile(uploaded, batches, listener), uploaded));
+            logger.info("Queued import job " + job.getJobId() + " of " + fileName);
+            return job;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            logger.error(e);
+            throw new RuntimeException(e);
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(file);
+            synchronized (jobs) {
+                jobs.remove(job.getJobId());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Imports a stream on the calling thread, such as the body of a request.
+     * The import is retained as a finished job like the queued ones, and its
+     * counts summarise the added, duplicate and rejected holidays.
+     *
+     * @param name   name of the import
+     * @param format format of the stream, JSON or NDJSON
+     * @param in     the stream, read to its end
+     * @return the finished job, failed if the stream could not be read or parsed
+     * @throws IllegalArgumentException if holidays in the format can not be read from a stream
+     */
+    public HolidayImportJob importNow(String name, HolidayImportJob.Format format, InputStream in) {
+        if (!format.isStreamed()) {
+            throw new IllegalArgumentException("Format " + format + " can not be read from a stream");
+        }
+        HolidayImportJob job = new HolidayImportJob(jobIds.incrementAndGet(), name, format);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+            evictFinishedJobs();
+        }
+        run(job, (batches, listener) -> format.importStream(in, batches, listener), null);
+        return job;
+    }
+
+    /**
+     * @param jobId identifier of a job
+     * @return the job, {@code null} if it is not known or no longer retained
+     */
+    public HolidayImportJob getJob(long jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    /**
+     * @return the retained jobs in the order of their submission
+     */
+    public List<HolidayImportJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a job, the uploaded file, if any, is deleted before the job is finished
+     */
+    private void run(HolidayImportJob job, Source source, Path upload) {
+        job.start();
+        Consumer<List<Holiday>> batches = batch -> {
+            long firstRow = job.getHolidaysRead() + 1;
+            int added = holidayService.addHolidays(batch,
+                    (index, e) -> job.reject(firstRow + index, e.getMessage()));
+            job.batch(batch.size(), added);
+        };
+        ImportProgressListener listener = (holidays, bytesRead, totalBytes) -> job.progress(bytesRead, totalBytes);
+        String failure = null;
+        try {
+            source.importTo(batches, listener);
+        } catch (IOException | RuntimeException e) {
+            failure = e.getMessage() == null ? e.toString() : e.getMessage();
+            logger.error("Import job " + job.getJobId() + " failed", e);
+        } finally {
+            deleteQuietly(upload);
+        }
+
+        if (failure != null) {
+            job.fail(failure);
+        } else {
+            job.succeed();
+            logger.info("Import job " + job.getJobId() + " added " + job.getHolidaysAdded() + " of "
+                    + job.getHolidaysRead() + " holidays, " + job.getErrorCount() + " rejected");
+        }
+    }
+
+    private void evictFinishedJobs() {
+        long finished = jobs.values().stream().filter(HolidayImportJob::isFinished).count();
+        Iterator<HolidayImportJob> iterator = jobs.values().iterator();
+        while (finished > retainedJobs && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Reads the holidays of an import
+     */
+    @FunctionalInterface
+    private interface Source {
+        void importTo(Consumer<List<Holiday>> batches, ImportProgressListener listener) throws IOException;
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete uploaded file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.HolidaySeed;
+import com.serhiidiukarev.holiday.HolidayVersion;
+import com.serhiidiukarev.holiday.io.ImportProgressListener;
+import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.repository.HolidaySeedRepository;
+import com.serhiidiukarev.holiday.repository.HolidayVersionRepository;
+import com.serhiidiukarev.holiday.validation.ValidationHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Loads the seeds of holidays into the database on startup: the
+ * {@code app-configuration.holidays-mapping} and the calendar files found at the
+ * {@code holiday.seed.locations}, in any format of {@link HolidayImportJob.Format}
+ * chosen by the name of the file.
+ *
+ * The SHA-256 of the content of every seed is recorded as a {@link HolidaySeed},
+ * under the name of the seed (see {@link #sourceOf(String, String)}), in the transaction adding its holidays, so a seed is loaded once and skipped on
+ * the next startups until its content changes. A changed seed adds only its
+ * holidays missing in the database, the holidays of its former content are kept.
+ *
+ * Up to {@code holiday.seed.threads} seeds are read at a time, each into memory.
+ * The holidays of a seed are then inserted in its own transaction, in batches flushed
+ * as JDBC batches of {@code spring.jpa.properties.hibernate.jdbc.batch_size}. The
+ * transaction locks the {@link HolidayVersion} row first, so the seeds of all the
+ * nodes sharing the database are inserted one at a time, every seed sees the holidays
+ * of the seeds before it and its checksum is checked again under the lock. The version
+ * is incremented by the number of the inserted holidays, as by a write of
+ * {@link DBHolidayService}, which creates the row on startup.
+ */
+@Service
+public class HolidaySeeder {
+    /**
+     * Seeder logger
+     */
+    Logger logger = LogManager.getLogger(HolidaySeeder.class);
+
+    /**
+     * The name of the seed of {@code app-configuration.holidays-mapping}
+     */
+    public static final String MAPPING_SOURCE = "app-configuration.holidays-mapping";
+
+    private static final ImportProgressListener NO_PROGRESS = (holidays, bytesRead, totalBytes) -> {
+    };
+
+    private final HolidayRepository holidayRepository;
+    private final HolidaySeedRepository seedRepository;
+    private final HolidayVersionRepository versionRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourcePatternResolver resourceResolver;
+    private final String[] locations;
+    private final int threads;
+
+    /**
+     * @param holidayRepository  repository receiving the holidays
+     * @param seedRepository     repository of the checksums of the loaded seeds
+     * @param versionRepository  repository of the version of the holidays, locked by every seed
+     * @param entityManager      entity manager cleared after every batch
+     * @param transactionManager manager of the transaction of every seed
+     * @param resourceLoader     loader of the seed files
+     * @param locations          patterns of the locations of the seed files
+     * @param threads            the number of seeds loaded at a time
+     */
+    @Autowired
+    public HolidaySeeder(HolidayRepository holidayRepository,
+                         HolidaySeedRepository seedRepository,
+                         HolidayVersionRepository versionRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ResourceLoader resourceLoader,
+                         @Value("${holiday.seed.locations:classpath*:seed/*}") String[] locations,
+                         @Value("${holiday.seed.threads:4}") int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid seed settings: (threads=" + threads + ")");
+        }
+        this.holidayRepository = holidayRepository;
+        this.seedRepository = seedRepository;
+        this.versionRepository = versionRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resourceResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.locations = locations;
+        this.threads = threads;
+    }
+
+    /**
+     * Loads the changed seeds
+     *
+     * @param holidaysMapping the holidays of {@code app-configuration.holidays-mapping},
+     *                        by key, each of name, category and date
+     * @return the number of holidays added
+     * @throws RuntimeException if {@link IOException} is happened during the reading
+     *                          of a seed file, or a seed could not be loaded
+     */
+    public long seed(Map<String, List<String>> holidaysMapping) {
+        List<Seed> seeds = new ArrayList<>();
+        if (holidaysMapping != null && !holidaysMapping.isEmpty()) {
+            seeds.add(new Seed(MAPPING_SOURCE, checksum(holidaysMapping),
+                    batches -> batches.accept(holidaysOf(holidaysMapping))));
+        }
+        try {
+            for (String location : locations) {
+                if (location.isBlank()) {
+                    continue;
+                }
+                for (Resource resource : resourceResolver.getResources(location.trim())) {
+                    if (resource.exists() && resource.getFilename() != null) {
+                        seeds.add(seedOf(sourceOf(location.trim(), resource.getFilename()), resource));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        if (seeds.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, seeds.size()), runnable -> {
+            Thread thread = new Thread(runnable, "holiday-seed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> loads = new ArrayList<>();
+            for (Seed seed : seeds) {
+                loads.add(executor.submit(() -> load(seed)));
+            }
+            long added = 0;
+            for (Future<Long> load : loads) {
+                added += load.get();
+            }
+            logger.info("Seeded " + added + " holidays from " + seeds.size() + " seeds in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return added;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to seed holidays", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the SHA-256 of the entries of the mapping, in hex, independent of their order
+     */
+    static String checksum(Map<String, List<String>> holidaysMapping) {
+        MessageDigest digest = sha256();
+        new TreeMap<>(holidaysMapping).forEach((key, item) ->
+                digest.update((key + "=" + String.join("\u0000", item) + "\n").getBytes(StandardCharsets.UTF_8)));
+        return hex(digest.digest());
+    }
+
+    /**
+     * @return the SHA-256 of the content of the stream, in hex
+     */
+    static String checksum(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * @return the holidays of the mapping, by key, each of name, category and date
+     * @throws IllegalArgumentException if an entry is not of name, category and date
+     */
+    static List<Holiday> holidaysOf(Map<String, List<String>> holidaysMapping) {
+        List<Holiday> holidays = new ArrayList<>(holidaysMapping.size());
+        holidaysMapping.forEach((key, item) -> {
+            if (item == null || item.size() < 3) {
+                throw new IllegalArgumentException("Invalid holiday " + key + " of " + MAPPING_SOURCE + ": " + item);
+            }
+            holidays.add(Holiday
+                    .builder()
+                    .holidayName(item.get(0))
+                    .holidayCategory(Holiday.HolidayCategory.valueOf(item.get(1)))
+                    .holidayDate(LocalDate.parse(item.get(2)))
+                    .build());
+        });
+        return holidays;
+    }
+
+    /**
+     * The name of a seed file, the root of its location pattern and its file name. Unlike
+     * the URL of the file it does not contain the path and the version of the jar, so a
+     * seed keeps its name across the builds and the nodes
+     *
+     * @param location the location pattern, e.g. {@code classpath*:seed/*}
+     * @param filename the name of the file found by the pattern
+     * @return the name of the seed, e.g. {@code classpath:seed/holidays.json}
+     */
+    static String sourceOf(String location, String filename) {
+        int wildcard = location.length();
+        for (char c : new char[]{'*', '?', '{'}) {
+            int index = location.indexOf(c, location.indexOf(':') + 1);
+            if (index >= 0 && index < wildcard) {
+                wildcard = index;
+            }
+        }
+        int root = Math.max(location.lastIndexOf('/', wildcard - 1), location.indexOf(':')) + 1;
+        String source = location.substring(0, root) + filename;
+        return source.startsWith(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX)
+                ? "classpath:" + source.substring(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX.length())
+                : source;
+    }
+
+    private Seed seedOf(String source, Resource resource) throws IOException {
+        HolidayImportJob.Format format = HolidayImportJob.Format.of(resource.getFilename());
+        String checksum;
+        try (InputStream in = resource.getInputStream()) {
+            checksum = checksum(in);
+        }
+        return new Seed(source, checksum, batches -> {
+            if (resource.isFile()) {
+                format.importFile(resource.getFile().toPath(), batches, NO_PROGRESS);
+                return;
+            }
+            // a file inside of a jar is copied out, the readers map files
+            Path copy = Files.createTempFile("holiday-seed-", "-" + resource.getFilename());
+            try {
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+                format.importFile(copy, batches, NO_PROGRESS);
+            } finally {
+                Files.deleteIfExists(copy);
+            }
+        });
+    }
+
+    /**
+     * Loads a seed unless its checksum is recorded already
+     *
+     * @return the number of holidays added
+     */
+    private long load(Seed seed) {
+        if (isLoaded(seed)) {
+            logger.info("Skipped unchanged seed " + seed.source);
+            return 0;
+        }
+        List<List<Holiday>> batches = new ArrayList<>();
+        try {
+            seed.content.importTo(batches::add);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        Long added = transactionTemplate.execute(status -> {
+            // locks the version row until the commit
+            if (versionRepository.increment(0) == 0) {
+                throw new IllegalStateException("The version of the holidays is not created");
+            }
+            if (isLoaded(seed)) {
+                return null;
+            }
+            long inserted = 0;
+            for (List<Holiday> batch : batches) {
+                inserted += insert(batch);
+            }
+            if (inserted > 0) {
+                versionRepository.increment(inserted);
+            }
+            seedRepository.save(new HolidaySeed(seed.source, seed.checksum, inserted, Instant.now()));
+            return inserted;
+        });
+        if (added == null) {
+            logger.info("Skipped seed " + seed.source + " loaded meanwhile by another node");
+            return 0;
+        }
+        logger.info("Seeded " + added + " holidays from " + seed.source);
+        return added;
+    }
+
+    /**
+     * @return {@code true} if the checksum of the seed is recorded
+     */
+    private boolean isLoaded(Seed seed) {
+        HolidaySeed loaded = seedRepository.findById(seed.source).orElse(null);
+        return loaded != null && loaded.getChecksum().equals(seed.checksum);
+    }
+
+    /**
+     * Inserts the holidays of a batch missing in the database
+     *
+     * @return the number of holidays inserted
+     */
+    private int insert(List<Holiday> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (Holiday holiday : batch) {
+            ValidationHelper.validateHoliday(holiday);
+            ValidationHelper.validateDate(holiday.getHolidayDate());
+        }
+        LocalDate first = batch.stream().map(Holiday::getHolidayDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate last = batch.stream().map(Holiday::getHolidayDate).max(Comparator.naturalOrder()).orElseThrow();
+        Set<Holiday> contained = new HashSet<>(holidayRepository.findByHolidayDateBetween(first, last));
+
+        List<Holiday> missing = new ArrayList<>();
+        for (Holiday holiday : batch) {
+            if (contained.add(holiday)) {
+                // the identifiers of the seed are not kept, the database assigns them
+                holiday.setHolidayId(null);
+                missing.add(holiday);
+            }
+        }
+        holidayRepository.saveAll(missing);
+        holidayRepository.flush();
+        // the inserted holidays are not needed anymore, so later flushes do not check them
+        entityManager.clear();
+        return missing.size();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Reader of the holidays of a seed
+     */
+    @FunctionalInterface
+    private interface Content {
+        void importTo(Consumer<List<Holiday>> batches) throws IOException;
+    }
+
+    /**
+     * A seed, its checksum and its content
+     */
+    private static final class Seed {
+        private final String source;
+        private final String checksum;
+        private final Content content;
+
+        private Seed(String source, String checksum, Content content) {
+            this.source = source;
+            this.checksum = checksum;
+            this.content = content;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import com.serhiidiukarev.holiday.validation.ValidationHelper;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -54,14 +57,15 @@ public interface HolidayService<T, S> {
 
     /**
      * @param date a new holiday
-     * @return a new instance of Holiday class
+     * @return a new instance of Holiday class named after its date,
+     * the name is generated on demand (see {@link Holiday#getHolidayName()})
      */
     default Holiday buildHoliday(LocalDate date) {
         ValidationHelper.validateDate(date);
 
         return Holiday
                 .builder()
-                .holidayName(date.toString())
+                .generatedName()
                 .holidayCategory(Holiday.HolidayCategory.CUSTOM)
                 .holidayDate(date)
                 .build();
@@ -83,6 +87,32 @@ public interface HolidayService<T, S> {
      */
     boolean addHoliday(final Holiday holiday);
 
+    /**
+     * Mark a batch of holidays as new holidays. A holiday rejected by the
+     * validation is reported and skipped, the rest of the batch is added.
+     * A holiday which is already contained is neither added nor reported.
+     *
+     * @param holidays new holiday items
+     * @param rejected receiver of the index of every rejected holiday in the list and the reason
+     * @return the number of added holidays
+     */
+    default int addHolidays(List<Holiday> holidays, BiConsumer<Integer, IllegalArgumentException> rejected) {
+        int added = 0;
+        for (int i = 0; i < holidays.size(); i++) {
+            Holiday holiday = holidays.get(i);
+            try {
+                ValidationHelper.validateHoliday(holiday);
+                ValidationHelper.validateDate(holiday.getHolidayDate());
+                if (addHoliday(holiday)) {
+                    added++;
+                }
+            } catch (IllegalArgumentException e) {
+                rejected.accept(i, e);
+            }
+        }
+        return added;
+    }
+
     /**
      * Mark range of dates as new holidays
      *
@@ -92,19 +122,113 @@ public interface HolidayService<T, S> {
     void addHolidaysBetween(final T startDate, final T endDate);
 
     /**
-     * Parse JSON file and mark list of dates as new holidays
+     * Parse JSON file and mark list of dates as new holidays.
+     * A file compressed with GZIP is detected and decompressed.
      *
      * @param jsonDestination path to a file in JSON format
      */
     void addHolidaysFromJSON(S jsonDestination);
 
     /**
-     * Write current list of holidays to file in a JSON format
+     * Write current list of holidays to file in a JSON format.
+     * The file is replaced atomically, and compressed with GZIP if its name ends with {@code .gz}.
      *
      * @param jsonDestination path to a file in JSON format
      */
     void writeHolidaysToJSON(S jsonDestination);
 
+    /**
+     * Parse CSV file with {@code id,category,name,date} lines
+     * and mark them as new holidays
+     *
+     * @param csvDestination path to a file in CSV format
+     */
+    void addHolidaysFromCSV(S csvDestination);
+
+    /**
+     * Write current list of holidays to file in a CSV format
+     * with {@code id,category,name,date} lines
+     *
+     * @param csvDestination path to a file in CSV format
+     */
+    void writeHolidaysToCSV(S csvDestination);
+
+    /**
+     * Read binary calendar file (see {@link com.serhiidiukarev.holiday.io.HolidayCalendarFile})
+     * and mark its holidays as new holidays
+     *
+     * @param calendarDestination path to a binary calendar file
+     */
+    void addHolidaysFromCalendarFile(S calendarDestination);
+
+    /**
+     * Write current list of holidays to file in the binary calendar format
+     * (see {@link com.serhiidiukarev.holiday.io.HolidayCalendarFile})
+     *
+     * @param calendarDestination path to a binary calendar file
+     */
+    void writeHolidaysToCalendarFile(S calendarDestination);
+
+    /**
+     * Read the complete lines of a JSON Lines (NDJSON) file from a byte offset on
+     * and mark their holidays as new holidays. Holidays already added are skipped,
+     * so a part of a file can be imported again, e.g. after a failed import
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param offset            offset of the first line to read, {@code 0} or an offset returned
+     *                          by a previous import of the same file
+     * @return the offset after the last read line, where the next import of the file continues
+     * @throws com.serhiidiukarev.holiday.io.MalformedLineException if a line is malformed, the
+     *                                                              holidays of the lines before it are added
+     */
+    long addHolidaysFromNDJSON(S ndjsonDestination, long offset);
+
+    /**
+     * Append the holidays with identifiers greater than the given one to a
+     * JSON Lines (NDJSON) file in the order of their identifiers, without
+     * rewriting the holidays already in the file
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param afterHolidayId    the greatest identifier already exported, {@code -1} to export all
+     * @return the greatest exported identifier, {@code afterHolidayId} if nothing was appended
+     */
+    long appendHolidaysToNDJSON(S ndjsonDestination, long afterHolidayId);
+
+    /**
+     * @return the version of the latest change of the holidays of this service
+     */
+    long getVersion();
+
+    /**
+     * Write the changes of the holidays after a version to file in JSON format
+     * (see {@link com.serhiidiukarev.holiday.io.HolidayDeltaWriter}): the added or updated
+     * holidays and the identifiers of the deleted ones. A version older than the changes
+     * kept by the service, e.g. {@code 0}, gives all the holidays
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @param sinceVersion    the version returned by the previous export, {@code 0} for all the holidays
+     * @return the version of the written changes, to pass to the next export
+     */
+    long writeHolidayChangesToJSON(S jsonDestination, long sinceVersion);
+
+    /**
+     * The changes of the holidays after a version, as written by {@link #writeHolidayChangesToJSON}
+     *
+     * @param sinceVersion the version of the previous changes, {@code 0} for all the holidays
+     * @return the changes with the added or updated holidays
+     */
+    HolidayChanges getChangesSince(long sinceVersion);
+
+    /**
+     * Waits until the holidays change after a version
+     *
+     * @param sinceVersion  a version returned by {@link #getVersion()}
+     * @param timeoutMillis the maximal time to wait in milliseconds
+     * @return the version of the latest change, {@code sinceVersion} or older if nothing changed in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException;
+
     /**
      * Provides all current holidays
      *
@@ -124,5 +248,25 @@ public interface HolidayService<T, S> {
 
     boolean deleteHoliday(Long holidayId);
 
+    /**
+     * Delete a batch of holidays, identifiers of missing holidays are skipped
+     *
+     * @param holidayIds identifiers of the holidays
+     * @return the number of deleted holidays
+     */
+    default int deleteHolidays(Collection<Long> holidayIds) {
+        int deleted = 0;
+        for (Long holidayId : holidayIds) {
+            try {
+                if (deleteHoliday(holidayId)) {
+                    deleted++;
+                }
+            } catch (IllegalArgumentException e) {
+                // already deleted
+            }
+        }
+        return deleted;
+    }
+
     Holiday updateHoliday(Long holidayId, LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory);
 }
@@ -0,0 +1,613 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.io.HolidayFiles;
+import com.serhiidiukarev.holiday.io.HolidayNdjsonWriter;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
+import com.serhiidiukarev.holiday.validation.ValidationHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier implementation of the {@link  HolidayService} interface. All the reads
+ * are served from an in-memory {@link DefaultHolidayService}, while every write
+ * goes through to the repository-backed service first, which stays the source
+ * of truth, and is applied to memory with the identifier given by the repository.
+ *
+ * The memory tier is loaded from the repository when the application is ready
+ * (after the seeding runners), or on the first read if it comes earlier. Readers
+ * get an immutable copy of the holidays which is replaced after each write, so
+ * reads never wait for writes nor query the repository. A write copies only the
+ * sets of the dates it changed, the other sets are shared with the previous copy.
+ *
+ * A background thread waits for the changes of the repository-backed tier with
+ * {@link HolidayService#awaitChange} and reloads the memory tier when another node
+ * sharing the database changed it, so readers see those changes within the polling
+ * interval of the repository-backed tier. Writes check the version first and
+ * reload the memory tier if it is behind.
+ *
+ * Selected by {@code holiday.service=TieredHolidayService}.
+ *
+ * @see HolidayService
+ * @see DBHolidayService
+ */
+@Service("TieredHolidayService")
+@ConditionalOnProperty(name = "holiday.service", havingValue = "TieredHolidayService")
+public class TieredHolidayService implements HolidayService<LocalDate, String> {
+    /**
+     * Tiered logger
+     */
+    Logger logger = LogManager.getLogger(TieredHolidayService.class);
+
+    /**
+     * Repository-backed tier, the source of truth
+     */
+    private final HolidayService<LocalDate, String> store;
+
+    /**
+     * The longest wait for a change of the repository-backed tier, and the pause after a failed refresh
+     */
+    static final long REFRESH_WAIT_MILLIS = 15000;
+
+    /**
+     * In-memory tier, changed only under the lock of this service
+     */
+    private final DefaultHolidayService memory = new DefaultHolidayService();
+
+    /**
+     * Immutable copy of the memory tier served to readers
+     */
+    private volatile SortedMap<LocalDate, Set<Holiday>> view = Collections.emptySortedMap();
+
+    /**
+     * The date of every holiday in memory by its identifier, to find the dates changed by a deletion
+     */
+    private final Map<Long, LocalDate> memoryDates = new HashMap<>();
+
+    private volatile boolean warmed;
+
+    /**
+     * The version of the repository-backed tier loaded into memory
+     */
+    private volatile long viewVersion;
+
+    private Thread refresher;
+
+    @Autowired
+    public TieredHolidayService(@Qualifier("DBHolidayService") HolidayService<LocalDate, String> store) {
+        this.store = store;
+    }
+
+    /**
+     * Loads the memory tier and starts following the changes of the repository-backed
+     * tier, once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!warmed) {
+            warm();
+        }
+        refresher = new Thread(this::refresh, "holiday-tiered-refresh");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (refresher != null) {
+            refresher.interrupt();
+        }
+    }
+
+    /**
+     * Reloads the memory tier from the repository-backed tier
+     */
+    public synchronized void warm() {
+        long version = store.getVersion();
+        memory.clear();
+        memoryDates.clear();
+        store.getHolidays().values().forEach(holidays -> holidays.forEach(this::putInMemory));
+        publish();
+        viewVersion = version;
+        warmed = true;
+        logger.info("Loaded " + memory.getHolidays().values().stream().mapToInt(Set::size).sum()
+                + " holidays into memory");
+    }
+
+    /**
+     * Calculate the number of workdays between two given dates
+     * using the in-memory tier
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days
+     */
+    @Override
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        ValidationHelper.validateDates(startDate, endDate);
+
+        return countWorkingDaysBetween(startDate, endDate, getHolidays());
+    }
+
+    @Override
+    public boolean addHoliday(LocalDate date) {
+        Holiday holiday = buildHoliday(date);
+
+        return addHoliday(holiday);
+    }
+
+    /**
+     * Saves a holiday to the repository-backed tier and then to memory.
+     * A holiday already held in memory is rejected without a call to the repository.
+     *
+     * @param holiday a new holiday item
+     * @return the result of the repository-backed tier
+     * @throws IllegalArgumentException if the holiday is {@code null} or already added
+     */
+    @Override
+    public synchronized boolean addHoliday(Holiday holiday) {
+        ValidationHelper.validateHoliday(holiday);
+        ensureCurrent();
+        if (memory.containsHoliday(holiday)) {
+            throw new IllegalArgumentException("already added");
+        }
+
+        boolean added = store.addHoliday(holiday);
+        if (added) {
+            putInMemory(holiday);
+            publish(1, List.of(holiday.getHolidayDate()));
+        }
+        return added;
+    }
+
+    /**
+     * Saves a batch of holidays to the repository-backed tier and then to memory.
+     * Holidays already held in memory, or repeated within the batch, are skipped
+     * without a call to the repository.
+     * If the repository-backed tier skips holidays too, they were added by another
+     * node, and the memory tier is reloaded.
+     *
+     * @param holidays new holiday items
+     * @param rejected receiver of the index of every rejected holiday in the list and the reason
+     * @return the result of the repository-backed tier
+     */
+    @Override
+    public synchronized int addHolidays(List<Holiday> holidays, BiConsumer<Integer, IllegalArgumentException> rejected) {
+        ensureCurrent();
+        List<Holiday> candidates = new ArrayList<>(holidays.size());
+        List<Integer> indexes = new ArrayList<>(holidays.size());
+        Set<Holiday> seen = new HashSet<>();
+        for (int i = 0; i < holidays.size(); i++) {
+            Holiday holiday = holidays.get(i);
+            if (holiday == null || !memory.containsHoliday(holiday) && seen.add(holiday)) {
+                candidates.add(holiday);
+                indexes.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        boolean[] rejectedByStore = new boolean[candidates.size()];
+        int[] rejectedCount = new int[1];
+        int added = store.addHolidays(candidates, (index, e) -> {
+            rejectedByStore[index] = true;
+            rejectedCount[0]++;
+            rejected.accept(indexes.get(index), e);
+        });
+        if (added != candidates.size() - rejectedCount[0]) {
+            warm();
+            return added;
+        }
+        Set<LocalDate> dates = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Holiday holiday = candidates.get(i);
+            if (!rejectedByStore[i] && holiday.getHolidayId() != null) {
+                putInMemory(holiday);
+                dates.add(holiday.getHolidayDate());
+            }
+        }
+        publish(added, dates);
+        return added;
+    }
+
+    /**
+     * Saves range of dates to the repository-backed tier
+     * and reloads the memory tier
+     *
+     * @param startDate start date of a new holiday
+     * @param endDate   end date of a new holiday
+     */
+    @Override
+    public synchronized void addHolidaysBetween(LocalDate startDate, LocalDate endDate) {
+        try {
+            store.addHolidaysBetween(startDate, endDate);
+        } finally {
+            warm();
+        }
+    }
+
+    /**
+     * Imports a JSON file to the repository-backed tier
+     * and reloads the memory tier
+     *
+     * @param jsonDestination path to a file in JSON format
+     */
+    @Override
+    public synchronized void addHolidaysFromJSON(String jsonDestination) {
+        try {
+            store.addHolidaysFromJSON(jsonDestination);
+        } finally {
+            warm();
+        }
+    }
+
+    /**
+     * Write the in-memory holidays to file as a JSON array,
+     * the format of the repository-backed tier
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToJSON(String jsonDestination) {
+        List<Holiday> holidays = new ArrayList<>();
+        getHolidays().values().forEach(holidays::addAll);
+        try {
+            HolidayFiles.writeText(Paths.get(jsonDestination),
+                    writer -> HolidayCodec.writeCollection(holidays, writer, true));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Imports a CSV file to the repository-backed tier
+     * and reloads the memory tier
+     *
+     * @param csvDestination path to a file in CSV format
+     */
+    @Override
+    public synchronized void addHolidaysFromCSV(String csvDestination) {
+        try {
+            store.addHolidaysFromCSV(csvDestination);
+        } finally {
+            warm();
+        }
+    }
+
+    /**
+     * Write the in-memory holidays to file in a CSV format
+     *
+     * @param csvDestination path to a file in CSV format
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCSV(String csvDestination) {
+        try {
+            HolidayFiles.write(Paths.get(csvDestination),
+                    file -> new HolidayCsvWriter().write(file, () -> getHolidays().values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Imports a binary calendar file to the repository-backed tier
+     * and reloads the memory tier
+     *
+     * @param calendarDestination path to a binary calendar file
+     */
+    @Override
+    public synchronized void addHolidaysFromCalendarFile(String calendarDestination) {
+        try {
+            store.addHolidaysFromCalendarFile(calendarDestination);
+        } finally {
+            warm();
+        }
+    }
+
+    /**
+     * Write the in-memory holidays to file in the binary calendar format
+     *
+     * @param calendarDestination path to a binary calendar file
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public void writeHolidaysToCalendarFile(String calendarDestination) {
+        try {
+            HolidayFiles.write(Paths.get(calendarDestination),
+                    file -> HolidayCalendarFile.write(file, () -> getHolidays().values().stream().flatMap(Set::stream).iterator()));
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Imports the lines of a NDJSON file from a byte offset on to the
+     * repository-backed tier and reloads the memory tier
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param offset            offset of the first line to read
+     * @return the offset after the last read line
+     */
+    @Override
+    public synchronized long addHolidaysFromNDJSON(String ndjsonDestination, long offset) {
+        try {
+            return store.addHolidaysFromNDJSON(ndjsonDestination, offset);
+        } finally {
+            warm();
+        }
+    }
+
+    /**
+     * Append the in-memory holidays with identifiers greater than
+     * the given one to a file in NDJSON format
+     *
+     * @param ndjsonDestination path to a file in NDJSON format
+     * @param afterHolidayId    the greatest identifier already exported, {@code -1} to export all
+     * @return the greatest exported identifier, {@code afterHolidayId} if nothing was appended
+     * @throws RuntimeException if {@link IOException} is happened
+     *                          during the writing operation to file
+     */
+    @Override
+    public long appendHolidaysToNDJSON(String ndjsonDestination, long afterHolidayId) {
+        List<Holiday> newHolidays = getHolidays().values().stream().flatMap(Set::stream)
+                .filter(holiday -> holiday.getHolidayId() > afterHolidayId)
+                .sorted(Comparator.comparing(Holiday::getHolidayId))
+                .collect(Collectors.toList());
+        try {
+            new HolidayNdjsonWriter().append(Paths.get(ndjsonDestination), newHolidays);
+        } catch (IOException e) {
+            logger.error(e);
+            throw new RuntimeException(e);
+        }
+        return newHolidays.isEmpty() ? afterHolidayId : newHolidays.get(newHolidays.size() - 1).getHolidayId();
+    }
+
+    /**
+     * @return the version of the repository-backed tier loaded into memory, the version
+     * of the holidays answered by {@link #getHolidays()}
+     */
+    @Override
+    public long getVersion() {
+        ensureWarmed();
+        return viewVersion;
+    }
+
+    /**
+     * Exports the changes of the repository-backed tier after a version
+     *
+     * @param jsonDestination path to a file in JSON format
+     * @param sinceVersion    the version returned by the previous export, {@code 0} for all the holidays
+     * @return the version of the written changes
+     */
+    @Override
+    public long writeHolidayChangesToJSON(String jsonDestination, long sinceVersion) {
+        return store.writeHolidayChangesToJSON(jsonDestination, sinceVersion);
+    }
+
+    @Override
+    public HolidayChanges getChangesSince(long sinceVersion) {
+        return store.getChangesSince(sinceVersion);
+    }
+
+    @Override
+    public long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        return store.awaitChange(sinceVersion, timeoutMillis);
+    }
+
+    /**
+     * @return read-only map with sets of the in-memory holidays
+     * (where key is a date and values is a set of holidays)
+     */
+    @Override
+    public Map<LocalDate, Set<Holiday>> getHolidays() {
+        ensureWarmed();
+        return view;
+    }
+
+    @Override
+    public synchronized void clear() {
+        store.clear();
+        memory.clear();
+        memoryDates.clear();
+        publish(1, view.keySet());
+    }
+
+    @Override
+    public synchronized boolean deleteHoliday(Long holidayId) {
+        ensureCurrent();
+        boolean deleted = store.deleteHoliday(holidayId);
+        if (deleted) {
+            memory.deleteHoliday(holidayId);
+            publish(1, datesOf(List.of(holidayId)));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the holidays from the repository-backed tier and then from memory,
+     * readers get the new copy once for the whole batch
+     *
+     * @param holidayIds identifiers of the holidays
+     * @return the result of the repository-backed tier
+     */
+    @Override
+    public synchronized int deleteHolidays(Collection<Long> holidayIds) {
+        ensureCurrent();
+        int deleted = store.deleteHolidays(holidayIds);
+        if (deleted > 0) {
+            memory.deleteHolidays(holidayIds);
+            publish(deleted, datesOf(holidayIds));
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized Holiday updateHoliday(Long holidayId,
+                                              LocalDate holidayDate,
+                                              String holidayName,
+                                              Holiday.HolidayCategory holidayCategory) {
+        ensureCurrent();
+        Holiday holiday = store.updateHoliday(holidayId, holidayDate, holidayName, holidayCategory);
+        if (holiday != null) {
+            memory.deleteHoliday(holidayId);
+            Set<LocalDate> dates = datesOf(List.of(holidayId));
+            putInMemory(holiday);
+            dates.add(holiday.getHolidayDate());
+            publish(1, dates);
+        }
+        return holiday;
+    }
+
+    /**
+     * Loads the memory tier if it is not loaded yet
+     */
+    private void ensureWarmed() {
+        if (!warmed) {
+            synchronized (this) {
+                if (!warmed) {
+                    warm();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the memory tier if it is not loaded yet, or behind the repository-backed tier,
+     * called by the writes under the lock of this service
+     */
+    private void ensureCurrent() {
+        if (!warmed || store.getVersion() != viewVersion) {
+            warm();
+        }
+    }
+
+    /**
+     * Waits for the changes of the repository-backed tier and reloads the memory
+     * tier when it is behind, the changes of this service are already published
+     */
+    private void refresh() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long version = store.awaitChange(viewVersion, REFRESH_WAIT_MILLIS);
+                if (version != viewVersion) {
+                    synchronized (this) {
+                        ensureCurrent();
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Failed to refresh the memory tier", e);
+                try {
+                    Thread.sleep(REFRESH_WAIT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        logger.info("Stopped refreshing the memory tier");
+    }
+
+    /**
+     * Adds a copy of a holiday of the repository-backed tier to memory,
+     * so later changes of the original instance are not visible to readers
+     */
+    private void putInMemory(Holiday holiday) {
+        Holiday.HolidayBuilder builder = Holiday.builder()
+                .holidayDate(holiday.getHolidayDate())
+                .holidayCategory(holiday.getHolidayCategory());
+        if (holiday.isGeneratedName()) {
+            builder.generatedName();
+        } else {
+            builder.holidayName(holiday.getHolidayName());
+        }
+        memory.putHoliday(builder.build(), holiday.getHolidayId());
+        memoryDates.put(holiday.getHolidayId(), holiday.getHolidayDate());
+    }
+
+    /**
+     * Forgets the dates of holidays deleted from memory
+     *
+     * @return the dates of the holidays which were in memory
+     */
+    private Set<LocalDate> datesOf(Collection<Long> holidayIds) {
+        Set<LocalDate> dates = new HashSet<>();
+        for (Long holidayId : holidayIds) {
+            LocalDate date = memoryDates.remove(holidayId);
+            if (date != null) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Publishes the memory tier after a write of this service, or reloads it
+     * if the repository-backed tier has the changes of another node too
+     *
+     * @param changes the number of changes of the write
+     * @param dates   the dates changed by the write
+     */
+    private void publish(long changes, Collection<LocalDate> dates) {
+        long version = store.getVersion();
+        if (version - viewVersion != changes) {
+            warm();
+            return;
+        }
+        // copying a sorted map links its entries in linear time, the sets are shared
+        TreeMap<LocalDate, Set<Holiday>> copy = new TreeMap<>(view);
+        for (LocalDate date : dates) {
+            Set<Holiday> holidays = memory.getHolidays().get(date);
+            if (holidays == null || holidays.isEmpty()) {
+                copy.remove(date);
+            } else {
+                copy.put(date, copyOf(holidays));
+            }
+        }
+        view = Collections.unmodifiableSortedMap(copy);
+        viewVersion = version;
+    }
+
+    private void publish() {
+        TreeMap<LocalDate, Set<Holiday>> copy = new TreeMap<>();
+        memory.getHolidays().forEach((date, holidays) -> {
+            if (!holidays.isEmpty()) {
+                copy.put(date, copyOf(holidays));
+            }
+        });
+        view = Collections.unmodifiableSortedMap(copy);
+    }
+
+    private static Set<Holiday> copyOf(Set<Holiday> holidays) {
+        Set<Holiday> set = new TreeSet<>(new HolidayTreeSetComparator());
+        set.addAll(holidays);
+        return Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,141 @@
+package com.serhiidiukarev.holiday.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memoises {@link HolidayService#countWorkingDaysBetween} of the {@code holidayService}.
+ * Counts are kept by their dates and the calendar version they were computed at
+ * (see {@link HolidayService#getVersion()}), at most {@code holiday.workdays.cache-size}
+ * of them, the least recently used are dropped first. A new version makes all the
+ * cached counts outdated, so they are dropped at once.
+ *
+ * Thread-safe. Counts are computed outside the lock, so concurrent misses
+ * of the same dates may compute the same count twice.
+ */
+@Service
+public class WorkdayCountCache {
+    private final HolidayService<LocalDate, String> holidayService;
+    private final Map<Key, Integer> counts;
+    private long version;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param holidayService service counting the working days
+     * @param maxSize        the maximal number of cached counts
+     */
+    @Autowired
+    public WorkdayCountCache(@Qualifier("holidayService") HolidayService<LocalDate, String> holidayService,
+                             @Value("${holiday.workdays.cache-size:10000}") int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.holidayService = holidayService;
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Calculate the number of workdays between two given dates
+     *
+     * @param startDate Start date
+     * @param endDate   End date
+     * @return the number of working days
+     * @throws IllegalArgumentException if any date is {@code null} or the start date is after the end date
+     */
+    public int countWorkingDaysBetween(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Invalid method argument(s): (startDate=" + startDate
+                    + ", endDate=" + endDate + ")");
+        }
+        long currentVersion = holidayService.getVersion();
+        Key key = new Key(startDate, endDate, currentVersion);
+        synchronized (counts) {
+            if (currentVersion != version) {
+                counts.clear();
+                version = currentVersion;
+            }
+            Integer count = counts.get(key);
+            if (count != null) {
+                hits++;
+                return count;
+            }
+            misses++;
+        }
+
+        // read after the version, so the count is never older than its key
+        int count = holidayService.countWorkingDaysBetween(startDate, endDate);
+        synchronized (counts) {
+            if (currentVersion == version) {
+                counts.put(key, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of counts answered from the cache
+     */
+    public long getHits() {
+        synchronized (counts) {
+            return hits;
+        }
+    }
+
+    /**
+     * @return the number of counts computed by the service
+     */
+    public long getMisses() {
+        synchronized (counts) {
+            return misses;
+        }
+    }
+
+    /**
+     * @return the number of cached counts
+     */
+    public int size() {
+        synchronized (counts) {
+            return counts.size();
+        }
+    }
+
+    private static final class Key {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final long version;
+
+        private Key(LocalDate startDate, LocalDate endDate, long version) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return version == key.version
+                    && startDate.equals(key.startDate)
+                    && endDate.equals(key.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startDate, endDate, version);
+        }
+    }
+}
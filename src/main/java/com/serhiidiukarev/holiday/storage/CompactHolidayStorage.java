@@ -0,0 +1,478 @@
+package com.serhiidiukarev.holiday.storage;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.EpochDays;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Storage of holidays in sorted primitive arrays. Every holiday is kept as
+ * an {@code int} epoch day, a {@code byte} category ordinal, an {@code int}
+ * reference to a {@link NamePool} and a {@code long} identifier, in parallel
+ * arrays ordered by epoch day and then by identifier. Names equal to the date
+ * are not pooled but kept as {@link NamePool#DATE_REF} and generated on demand.
+ *
+ * {@link Holiday} instances are not retained: they are produced on demand by
+ * {@link #holidayAt(int)} and by the read-only {@link #asMap()} view, so changes
+ * made to them are not written back to the storage.
+ *
+ * Not thread-safe.
+ */
+public class CompactHolidayStorage {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+    /**
+     * Stored for holidays without a category
+     */
+    private static final byte NO_CATEGORY = -1;
+
+    private final NamePool namePool = new NamePool();
+    private final Map<LocalDate, Set<Holiday>> mapView = new MapView();
+
+    private int[] epochDays = new int[DEFAULT_CAPACITY];
+    private byte[] categories = new byte[DEFAULT_CAPACITY];
+    private int[] nameRefs = new int[DEFAULT_CAPACITY];
+    private long[] ids = new long[DEFAULT_CAPACITY];
+    private int size;
+    private int distinctDays;
+
+    /**
+     * @return the number of stored holidays
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of distinct dates having at least one holiday
+     */
+    public int distinctDays() {
+        return distinctDays;
+    }
+
+    /**
+     * Checks whether an equal holiday (same date, name and category) is stored
+     *
+     * @param epochDay the epoch day of the holiday
+     * @param category the category of the holiday
+     * @param name     the name of the holiday
+     * @return {@code true} if an equal holiday is stored
+     */
+    public boolean contains(int epochDay, Holiday.HolidayCategory category, String name) {
+        int nameRef = isDateName(name, epochDay) ? NamePool.DATE_REF : namePool.find(name);
+        if (nameRef == NamePool.ABSENT) {
+            return false;
+        }
+        return indexOf(epochDay, toByte(category), nameRef) >= 0;
+    }
+
+    /**
+     * Checks whether an equal holiday is stored, without
+     * computing the name of a holiday with a generated name
+     *
+     * @param holiday the holiday
+     * @return {@code true} if an equal holiday is stored
+     */
+    public boolean contains(Holiday holiday) {
+        int epochDay = EpochDays.toEpochDay(holiday.getHolidayDate());
+        if (holiday.isGeneratedName()) {
+            return indexOf(epochDay, toByte(holiday.getHolidayCategory()), NamePool.DATE_REF) >= 0;
+        }
+        return contains(epochDay, holiday.getHolidayCategory(), holiday.getHolidayName());
+    }
+
+    /**
+     * Checks whether any holiday is stored for the epoch day
+     *
+     * @param epochDay the epoch day
+     * @return {@code true} if the day is a holiday
+     */
+    public boolean containsDay(int epochDay) {
+        int index = lowerBound(epochDay);
+        return index < size && epochDays[index] == epochDay;
+    }
+
+    /**
+     * Stores a holiday unless an equal one is already stored
+     *
+     * @param id       the identifier
+     * @param epochDay the epoch day
+     * @param category the category
+     * @param name     the name
+     * @return {@code true} if the storage changed as a result of the call
+     */
+    public boolean add(long id, int epochDay, Holiday.HolidayCategory category, String name) {
+        if (contains(epochDay, category, name)) {
+            return false;
+        }
+        int nameRef = isDateName(name, epochDay) ? NamePool.DATE_REF : namePool.reference(name);
+        insert(id, epochDay, toByte(category), nameRef);
+        return true;
+    }
+
+    /**
+     * Stores a holiday unless an equal one is already stored. The identifier
+     * of the holiday is ignored and a generated name is kept generated.
+     *
+     * @param id      the identifier
+     * @param holiday the holiday
+     * @return {@code true} if the storage changed as a result of the call
+     */
+    public boolean add(long id, Holiday holiday) {
+        if (!holiday.isGeneratedName()) {
+            return add(id, EpochDays.toEpochDay(holiday.getHolidayDate()),
+                    holiday.getHolidayCategory(), holiday.getHolidayName());
+        }
+        return addGeneratedName(id, EpochDays.toEpochDay(holiday.getHolidayDate()), holiday.getHolidayCategory());
+    }
+
+    /**
+     * Stores a holiday named after its date unless an equal one is already stored
+     *
+     * @param id       the identifier
+     * @param epochDay the epoch day
+     * @param category the category
+     * @return {@code true} if the storage changed as a result of the call
+     */
+    public boolean addGeneratedName(long id, int epochDay, Holiday.HolidayCategory category) {
+        byte categoryByte = toByte(category);
+        if (indexOf(epochDay, categoryByte, NamePool.DATE_REF) >= 0) {
+            return false;
+        }
+        insert(id, epochDay, categoryByte, NamePool.DATE_REF);
+        return true;
+    }
+
+    private void insert(long id, int epochDay, byte category, int nameRef) {
+        int index = insertionPoint(epochDay, id);
+        boolean newDay = !containsDay(epochDay);
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        System.arraycopy(epochDays, index, epochDays, index + 1, moved);
+        System.arraycopy(categories, index, categories, index + 1, moved);
+        System.arraycopy(nameRefs, index, nameRefs, index + 1, moved);
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        epochDays[index] = epochDay;
+        categories[index] = category;
+        nameRefs[index] = nameRef;
+        ids[index] = id;
+        size++;
+        if (newDay) {
+            distinctDays++;
+        }
+    }
+
+    /**
+     * Removes the holiday with the given identifier
+     *
+     * @param id the identifier
+     * @return {@code true} if the storage changed as a result of the call
+     */
+    public boolean removeById(long id) {
+        int index = indexOfId(id);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Finds a holiday by identifier. Identifiers are not indexed, so this is a linear scan.
+     *
+     * @param id the identifier
+     * @return the index of the holiday or {@code -1}
+     */
+    public int indexOfId(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the holiday at the given position
+     *
+     * @param index the position
+     */
+    public void removeAt(int index) {
+        Objects.checkIndex(index, size);
+        int epochDay = epochDays[index];
+        int moved = size - index - 1;
+        System.arraycopy(epochDays, index + 1, epochDays, index, moved);
+        System.arraycopy(categories, index + 1, categories, index, moved);
+        System.arraycopy(nameRefs, index + 1, nameRefs, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        size--;
+        if (!containsDay(epochDay)) {
+            distinctDays--;
+        }
+    }
+
+    /**
+     * Produces a new {@link Holiday} for the entry at the given position
+     *
+     * @param index the position
+     * @return a new instance of Holiday class
+     */
+    public Holiday holidayAt(int index) {
+        Objects.checkIndex(index, size);
+        byte category = categories[index];
+        int nameRef = nameRefs[index];
+        Holiday.HolidayBuilder builder = Holiday.builder()
+                .holidayId(ids[index])
+                .holidayDate(LocalDate.ofEpochDay(epochDays[index]))
+                .holidayCategory(category == NO_CATEGORY ? null : CATEGORIES[category]);
+        return (nameRef == NamePool.DATE_REF ? builder.generatedName() : builder.holidayName(namePool.get(nameRef)))
+                .build();
+    }
+
+    /**
+     * @param index the position
+     * @return the identifier of the entry at the given position
+     */
+    public long idAt(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index];
+    }
+
+    /**
+     * @param index the position
+     * @return the epoch day of the entry at the given position
+     */
+    public int epochDayAt(int index) {
+        Objects.checkIndex(index, size);
+        return epochDays[index];
+    }
+
+    /**
+     * Counts distinct holiday dates between two epoch days (inclusive)
+     * which are neither Saturday nor Sunday
+     *
+     * @param startDay start epoch day
+     * @param endDay   end epoch day
+     * @return the number of holiday weekdays
+     */
+    public int countWeekdayHolidays(long startDay, long endDay) {
+        if (endDay < startDay || size == 0 || startDay > Integer.MAX_VALUE) {
+            return 0;
+        }
+        int from = lowerBound((int) Math.max(startDay, Integer.MIN_VALUE));
+        int count = 0;
+        int previous = 0;
+        for (int i = from; i < size && epochDays[i] <= endDay; i++) {
+            int epochDay = epochDays[i];
+            if ((i == from || epochDay != previous) && !EpochDays.isWeekend(epochDay)) {
+                count++;
+            }
+            previous = epochDay;
+        }
+        return count;
+    }
+
+    /**
+     * Provides a read-only live view of the storage, grouped by date.
+     * Values are produced lazily on every access.
+     *
+     * @return map with sets of stored holidays
+     * (where key is a date and values is a set of holidays)
+     */
+    public Map<LocalDate, Set<Holiday>> asMap() {
+        return mapView;
+    }
+
+    /**
+     * Removes all the holidays and pooled names
+     */
+    public void clear() {
+        epochDays = new int[DEFAULT_CAPACITY];
+        categories = new byte[DEFAULT_CAPACITY];
+        nameRefs = new int[DEFAULT_CAPACITY];
+        ids = new long[DEFAULT_CAPACITY];
+        size = 0;
+        distinctDays = 0;
+        namePool.clear();
+    }
+
+    private int indexOf(int epochDay, byte category, int nameRef) {
+        for (int i = lowerBound(epochDay); i < size && epochDays[i] == epochDay; i++) {
+            if (categories[i] == category && nameRefs[i] == nameRef) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the first position whose epoch day is not less than the given one
+     */
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDays[middle] < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the position keeping the arrays ordered by epoch day and identifier
+     */
+    private int insertionPoint(int epochDay, long id) {
+        int low = lowerBound(epochDay);
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDays[middle] == epochDay && ids[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= epochDays.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, epochDays.length + (epochDays.length >> 1));
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        categories = Arrays.copyOf(categories, newCapacity);
+        nameRefs = Arrays.copyOf(nameRefs, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+
+    /**
+     * @return {@code true} if the name is the ISO representation of the epoch day
+     */
+    private static boolean isDateName(String name, int epochDay) {
+        return name != null
+                && name.length() >= 10
+                && name.charAt(name.length() - 3) == '-'
+                && name.equals(LocalDate.ofEpochDay(epochDay).toString());
+    }
+
+    private static byte toByte(Holiday.HolidayCategory category) {
+        return category == null ? NO_CATEGORY : (byte) category.ordinal();
+    }
+
+    /**
+     * Read-only map view over the sorted arrays
+     */
+    private class MapView extends AbstractMap<LocalDate, Set<Holiday>> {
+
+        @Override
+        public int size() {
+            return distinctDays;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (!(key instanceof LocalDate)) {
+                return false;
+            }
+            long epochDay = ((LocalDate) key).toEpochDay();
+            return epochDay == (int) epochDay && containsDay((int) epochDay);
+        }
+
+        @Override
+        public Set<Holiday> get(Object key) {
+            return containsKey(key) ? new DayView(EpochDays.toEpochDay((LocalDate) key)) : null;
+        }
+
+        @Override
+        public Set<Entry<LocalDate, Set<Holiday>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<LocalDate, Set<Holiday>>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < size;
+                        }
+
+                        @Override
+                        public Entry<LocalDate, Set<Holiday>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int epochDay = epochDays[index];
+                            while (index < size && epochDays[index] == epochDay) {
+                                index++;
+                            }
+                            return new SimpleImmutableEntry<>(LocalDate.ofEpochDay(epochDay), new DayView(epochDay));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return distinctDays;
+                }
+            };
+        }
+    }
+
+    /**
+     * Read-only set view of the holidays of one date
+     */
+    private class DayView extends AbstractSet<Holiday> {
+        private final int epochDay;
+
+        DayView(int epochDay) {
+            this.epochDay = epochDay;
+        }
+
+        @Override
+        public Iterator<Holiday> iterator() {
+            return new Iterator<>() {
+                private int index = lowerBound(epochDay);
+
+                @Override
+                public boolean hasNext() {
+                    return index < size && epochDays[index] == epochDay;
+                }
+
+                @Override
+                public Holiday next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return holidayAt(index++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int from = lowerBound(epochDay);
+            int to = from;
+            while (to < size && epochDays[to] == epochDay) {
+                to++;
+            }
+            return to - from;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Holiday)) {
+                return false;
+            }
+            Holiday holiday = (Holiday) o;
+            return holiday.getHolidayDate() != null
+                    && holiday.getHolidayDate().toEpochDay() == epochDay
+                    && CompactHolidayStorage.this.contains(holiday);
+        }
+    }
+}
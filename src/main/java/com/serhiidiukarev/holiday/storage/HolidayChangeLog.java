@@ -0,0 +1,287 @@
+package com.serhiidiukarev.holiday.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log of the latest change of every holiday, by its identifier. Every change
+ * gets the next version of the log, an addition or update records the identifier
+ * as changed and a deletion records a tombstone, so the changes after any version
+ * are found without looking at the unchanged holidays. {@code clear} drops the
+ * recorded changes and is reported as a reset to readers of older versions.
+ *
+ * Versions start at the creation time of the log in microseconds, so the versions
+ * of a restarted service are greater than the ones handed out before, and readers
+ * of versions older than the log, or newer than its latest change, get all the
+ * holidays again.
+ *
+ * A log of changes versioned elsewhere, e.g. by a database shared with other
+ * services, records every change with its given version and {@link #follow}s the
+ * versions of the changes it does not see: the log then starts over at the newer
+ * version, so readers of older versions get all the holidays again.
+ *
+ * Readers may wait for the next change with {@link #awaitChange}.
+ *
+ * Thread-safe.
+ */
+public class HolidayChangeLog {
+    private long baseVersion;
+    private long version;
+    private long clearVersion;
+    private final TreeMap<Long, Change> byVersion = new TreeMap<>();
+    private final Map<Long, Change> byId = new HashMap<>();
+
+    public HolidayChangeLog() {
+        this(System.currentTimeMillis() * 1000);
+    }
+
+    /**
+     * @param baseVersion the version of the state the log starts with
+     */
+    public HolidayChangeLog(long baseVersion) {
+        this.baseVersion = baseVersion;
+        this.version = baseVersion;
+        this.clearVersion = baseVersion;
+    }
+
+    /**
+     * Records an added or updated holiday
+     *
+     * @param holidayId identifier of the holiday
+     * @return the version of the change
+     */
+    public synchronized long recordUpdate(long holidayId) {
+        return record(holidayId, false);
+    }
+
+    /**
+     * Records a tombstone of a deleted holiday
+     *
+     * @param holidayId identifier of the holiday
+     * @return the version of the change
+     */
+    public synchronized long recordDelete(long holidayId) {
+        return record(holidayId, true);
+    }
+
+    /**
+     * Records the removal of all the holidays
+     *
+     * @return the version of the change
+     */
+    public synchronized long recordClear() {
+        byVersion.clear();
+        byId.clear();
+        clearVersion = ++version;
+        notifyAll();
+        return version;
+    }
+
+    /**
+     * Records an added or updated holiday with the version given to the change elsewhere
+     *
+     * @param holidayId identifier of the holiday
+     * @param version   the version of the change
+     */
+    public synchronized void recordUpdate(long holidayId, long version) {
+        if (version > this.version) {
+            follow(version - 1);
+            record(holidayId, false);
+        }
+    }
+
+    /**
+     * Records a tombstone of a deleted holiday with the version given to the change elsewhere
+     *
+     * @param holidayId identifier of the holiday
+     * @param version   the version of the change
+     */
+    public synchronized void recordDelete(long holidayId, long version) {
+        if (version > this.version) {
+            follow(version - 1);
+            record(holidayId, true);
+        }
+    }
+
+    /**
+     * Records the removal of all the holidays with the version given to the change elsewhere
+     *
+     * @param version the version of the change
+     */
+    public synchronized void recordClear(long version) {
+        if (version > this.version) {
+            follow(version - 1);
+            recordClear();
+        }
+    }
+
+    /**
+     * Follows the version of changes not recorded by this log: the log starts over
+     * at a newer version, so the readers of older versions get all the holidays.
+     * A change recorded later with an older version than the log is covered by the start over
+     *
+     * @param version the version of the latest change
+     */
+    public synchronized void follow(long version) {
+        if (version <= this.version) {
+            return;
+        }
+        byVersion.clear();
+        byId.clear();
+        baseVersion = version;
+        clearVersion = version;
+        this.version = version;
+        notifyAll();
+    }
+
+    /**
+     * @return the version of the latest change
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Waits until a change after a version is recorded
+     *
+     * @param sinceVersion  a version returned by this log
+     * @param timeoutMillis the maximal time to wait in milliseconds
+     * @return the version of the latest change, {@code sinceVersion} or older if nothing changed in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long remaining;
+        while (version <= sinceVersion && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return version;
+    }
+
+    /**
+     * @param sinceVersion a version returned by this log, or any older one
+     * @return the changes after the version
+     */
+    public synchronized Delta changesSince(long sinceVersion) {
+        if (sinceVersion < baseVersion || sinceVersion > version) {
+            return new Delta(sinceVersion, version, true, true, Collections.emptyList());
+        }
+        return new Delta(sinceVersion, version, sinceVersion < clearVersion, false,
+                new ArrayList<>(byVersion.tailMap(sinceVersion, false).values()));
+    }
+
+    private long record(long holidayId, boolean deleted) {
+        Change previous = byId.get(holidayId);
+        if (previous != null) {
+            byVersion.remove(previous.version);
+        }
+        Change change = new Change(++version, holidayId, deleted);
+        byId.put(holidayId, change);
+        byVersion.put(change.version, change);
+        notifyAll();
+        return version;
+    }
+
+    /**
+     * The latest change of a holiday
+     */
+    public static final class Change {
+        private final long version;
+        private final long holidayId;
+        private final boolean deleted;
+
+        private Change(long version, long holidayId, boolean deleted) {
+            this.version = version;
+            this.holidayId = holidayId;
+            this.deleted = deleted;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getHolidayId() {
+            return holidayId;
+        }
+
+        /**
+         * @return {@code true} for a tombstone of a deleted holiday
+         */
+        public boolean isDeleted() {
+            return deleted;
+        }
+    }
+
+    /**
+     * The changes between two versions
+     */
+    public static final class Delta {
+        private final long sinceVersion;
+        private final long version;
+        private final boolean reset;
+        private final boolean full;
+        private final List<Change> changes;
+
+        private Delta(long sinceVersion, long version, boolean reset, boolean full, List<Change> changes) {
+            this.sinceVersion = sinceVersion;
+            this.version = version;
+            this.reset = reset;
+            this.full = full;
+            this.changes = changes;
+        }
+
+        public long getSinceVersion() {
+            return sinceVersion;
+        }
+
+        /**
+         * @return the version of the latest change, to ask for the next changes with
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return {@code true} if the holidays known at the since version
+         * are to be dropped before the changes are applied
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * @return {@code true} if the since version is older than the log,
+         * so all the current holidays make up the changes
+         */
+        public boolean isFull() {
+            return full;
+        }
+
+        /**
+         * @return the changes in the order of their versions, empty if {@link #isFull()}
+         */
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * @return identifiers of the added or updated holidays
+         */
+        public Set<Long> getUpdatedIds() {
+            Set<Long> ids = new HashSet<>();
+            for (Change change : changes) {
+                if (!change.deleted) {
+                    ids.add(change.holidayId);
+                }
+            }
+            return ids;
+        }
+    }
+}
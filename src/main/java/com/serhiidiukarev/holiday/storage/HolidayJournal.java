@@ -0,0 +1,295 @@
+package com.serhiidiukarev.holiday.storage;
+
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of holiday mutations. Every record is written as
+ * {@code [int length][int crc32][long sequence][byte operation][fields]},
+ * so a record torn by a crash is detected by its length or checksum and
+ * dropped during {@link #replay(long, Listener)}.
+ *
+ * Not thread-safe, callers serialize appends.
+ */
+public class HolidayJournal implements Closeable {
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    private static final byte ADD = 1;
+    private static final byte DELETE = 2;
+    private static final byte UPDATE = 3;
+    private static final byte CLEAR = 4;
+
+    private static final byte NULL = 0;
+    private static final byte GENERATED = 1;
+    private static final byte PRESENT = 2;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private long sequence;
+    private long records;
+
+    /**
+     * Receives the replayed mutations
+     */
+    public interface Listener {
+        void add(Holiday holiday);
+
+        void delete(long holidayId);
+
+        void update(long holidayId, LocalDate holidayDate, String holidayName, Holiday.HolidayCategory holidayCategory);
+
+        void clear();
+    }
+
+    /**
+     * Opens or creates a journal file
+     *
+     * @param file  the journal file
+     * @param fsync {@code true} to force every record to the storage device before returning
+     * @throws IOException if the file can not be opened
+     */
+    public HolidayJournal(Path file, boolean fsync) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads all the records, passing the ones newer than {@code afterSequence}
+     * to the listener. A torn or corrupted tail is truncated, and following
+     * appends continue after the last valid record.
+     *
+     * @param afterSequence the sequence already covered by a snapshot
+     * @param listener      receiver of the mutations
+     * @return the number of replayed records
+     * @throws IOException if the file can not be read
+     */
+    public long replay(long afterSequence, Listener listener) throws IOException {
+        sequence = afterSequence;
+        records = 0;
+        long replayed = 0;
+        long size = channel.size();
+        long valid = 0;
+        if (size > 0) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            while (mapped.remaining() >= HEADER_SIZE) {
+                int length = mapped.getInt();
+                int checksum = mapped.getInt();
+                if (length <= 0 || length > mapped.remaining()) {
+                    break;
+                }
+                ByteBuffer record = mapped.slice().limit(length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                mapped.position(mapped.position() + length);
+                valid = mapped.position();
+                records++;
+
+                long recordSequence = record.getLong();
+                if (recordSequence > afterSequence) {
+                    apply(record, listener);
+                    sequence = recordSequence;
+                    replayed++;
+                }
+            }
+        }
+        if (valid < size) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return replayed;
+    }
+
+    public void appendAdd(Holiday holiday) throws IOException {
+        ByteBuffer record = begin(ADD);
+        record.putLong(holiday.getHolidayId());
+        putDate(holiday.getHolidayDate());
+        if (holiday.isGeneratedName()) {
+            ensureRemaining(1);
+            buffer.put(GENERATED);
+        } else {
+            putString(holiday.getHolidayName());
+        }
+        putCategory(holiday.getHolidayCategory());
+        commit();
+    }
+
+    public void appendDelete(long holidayId) throws IOException {
+        begin(DELETE).putLong(holidayId);
+        commit();
+    }
+
+    public void appendUpdate(long holidayId,
+                             LocalDate holidayDate,
+                             String holidayName,
+                             Holiday.HolidayCategory holidayCategory) throws IOException {
+        begin(UPDATE).putLong(holidayId);
+        putDate(holidayDate);
+        putString(holidayName);
+        putCategory(holidayCategory);
+        commit();
+    }
+
+    public void appendClear() throws IOException {
+        begin(CLEAR);
+        commit();
+    }
+
+    /**
+     * @return the sequence of the last record
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of records in the file
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Removes all the records, keeping the sequence.
+     * Called once a snapshot covers them.
+     *
+     * @throws IOException if the file can not be truncated
+     */
+    public void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(true);
+        }
+        records = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer begin(byte operation) {
+        buffer.clear();
+        buffer.position(HEADER_SIZE);
+        buffer.putLong(sequence + 1);
+        buffer.put(operation);
+        return buffer;
+    }
+
+    private void commit() throws IOException {
+        buffer.flip();
+        int length = buffer.limit() - HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_SIZE));
+        buffer.putInt(0, length);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        sequence++;
+        records++;
+    }
+
+    private void putDate(LocalDate date) {
+        ensureRemaining(Long.BYTES + 1);
+        if (date == null) {
+            buffer.put(NULL);
+        } else {
+            buffer.put(PRESENT).putLong(date.toEpochDay());
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensureRemaining(1);
+            buffer.put(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(1 + Integer.BYTES + bytes.length);
+        buffer.put(PRESENT).putInt(bytes.length).put(bytes);
+    }
+
+    private void putCategory(Holiday.HolidayCategory category) {
+        ensureRemaining(1);
+        buffer.put(category == null ? -1 : (byte) category.ordinal());
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private static void apply(ByteBuffer record, Listener listener) {
+        byte operation = record.get();
+        switch (operation) {
+            case ADD: {
+                Holiday.HolidayBuilder builder = Holiday.builder()
+                        .holidayId(record.getLong())
+                        .holidayDate(getDate(record));
+                byte nameKind = record.get();
+                if (nameKind == GENERATED) {
+                    builder.generatedName();
+                } else {
+                    builder.holidayName(nameKind == NULL ? null : getString(record));
+                }
+                listener.add(builder.holidayCategory(getCategory(record)).build());
+                break;
+            }
+            case DELETE:
+                listener.delete(record.getLong());
+                break;
+            case UPDATE: {
+                long holidayId = record.getLong();
+                LocalDate date = getDate(record);
+                String name = record.get() == NULL ? null : getString(record);
+                listener.update(holidayId, date, name, getCategory(record));
+                break;
+            }
+            case CLEAR:
+                listener.clear();
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal operation: " + operation);
+        }
+    }
+
+    private static LocalDate getDate(ByteBuffer record) {
+        return record.get() == NULL ? null : LocalDate.ofEpochDay(record.getLong());
+    }
+
+    private static String getString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Holiday.HolidayCategory getCategory(ByteBuffer record) {
+        byte ordinal = record.get();
+        return ordinal < 0 ? null : CATEGORIES[ordinal];
+    }
+}
@@ -0,0 +1,161 @@
+package com.serhiidiukarev.holiday.storage;
+
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Memory-mapped binary image of all the holidays of a service together
+ * with the journal sequence it covers and the next holiday identifier.
+ *
+ * The file starts with {@code [int magic][int version][long sequence][long counter][int count]}
+ * followed by {@code count} entries {@code [long id][long epochDay][byte category][byte nameKind][name]},
+ * where the name is present only for explicit names as {@code [int length][UTF-8 bytes]}.
+ */
+public final class HolidaySnapshot {
+    private static final int MAGIC = 0x48534e50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 2;
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    private static final byte NULL = 0;
+    private static final byte GENERATED = 1;
+    private static final byte PRESENT = 2;
+
+    private final long sequence;
+    private final long counter;
+    private final List<Holiday> holidays;
+
+    private HolidaySnapshot(long sequence, long counter, List<Holiday> holidays) {
+        this.sequence = sequence;
+        this.counter = counter;
+        this.holidays = holidays;
+    }
+
+    /**
+     * @return the last journal sequence contained in the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the identifier the next added holiday will get
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    /**
+     * @return the holidays with their identifiers
+     */
+    public List<Holiday> getHolidays() {
+        return holidays;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to {@code file} through a
+     * memory mapping, forces it to the storage device and renames it over
+     * {@code file}, so a reader never sees a partially written snapshot.
+     *
+     * @param file     the snapshot file
+     * @param sequence the last journal sequence contained in the snapshot
+     * @param counter  the identifier the next added holiday will get
+     * @param holidays the holidays to write, all of them with identifiers
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, long sequence, long counter, Collection<Holiday> holidays) throws IOException {
+        List<byte[]> names = new ArrayList<>(holidays.size());
+        long size = HEADER_SIZE;
+        for (Holiday holiday : holidays) {
+            byte[] name = holiday.isGeneratedName() || holiday.getHolidayName() == null
+                    ? null
+                    : holiday.getHolidayName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += Long.BYTES * 2 + 2 + (name == null ? 0 : Integer.BYTES + name.length);
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(sequence)
+                    .putLong(counter)
+                    .putInt(holidays.size());
+            int index = 0;
+            for (Holiday holiday : holidays) {
+                Holiday.HolidayCategory category = holiday.getHolidayCategory();
+                buffer.putLong(holiday.getHolidayId())
+                        .putLong(holiday.getHolidayDate().toEpochDay())
+                        .put(category == null ? -1 : (byte) category.ordinal());
+                byte[] name = names.get(index++);
+                if (name != null) {
+                    buffer.put(PRESENT).putInt(name.length).put(name);
+                } else {
+                    buffer.put(holiday.isGeneratedName() ? GENERATED : NULL);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(Path, long, long, Collection)}
+     *
+     * @param file the snapshot file
+     * @return the snapshot, or {@code null} if the file does not exist
+     * @throws IOException           if the file can not be read
+     * @throws IllegalStateException if the file is not a snapshot of a known version
+     */
+    public static HolidaySnapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IllegalStateException("Not a holiday snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported holiday snapshot version " + version + ": " + file);
+            }
+            long sequence = buffer.getLong();
+            long counter = buffer.getLong();
+            int count = buffer.getInt();
+            List<Holiday> holidays = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Holiday.HolidayBuilder builder = Holiday.builder()
+                        .holidayId(buffer.getLong())
+                        .holidayDate(LocalDate.ofEpochDay(buffer.getLong()));
+                byte category = buffer.get();
+                builder.holidayCategory(category < 0 ? null : CATEGORIES[category]);
+                byte nameKind = buffer.get();
+                if (nameKind == GENERATED) {
+                    builder.generatedName();
+                } else if (nameKind == PRESENT) {
+                    byte[] name = new byte[buffer.getInt()];
+                    buffer.get(name);
+                    builder.holidayName(new String(name, StandardCharsets.UTF_8));
+                }
+                holidays.add(builder.build());
+            }
+            return new HolidaySnapshot(sequence, counter, holidays);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.serhiidiukarev.holiday.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of distinct holiday names. Every name is stored once and referenced
+ * by an {@code int}, so the storage keeps a primitive reference per entry
+ * instead of a pointer to its own {@link String}. The pool also serves as a
+ * flyweight factory for {@link String} names, see {@link #intern(String)}.
+ * Names are never evicted, the pool only shrinks by {@link #clear()}.
+ *
+ * Not thread-safe.
+ */
+public class NamePool {
+    /**
+     * Reference of the {@code null} name
+     */
+    public static final int NULL_REF = -1;
+    /**
+     * Returned by {@link #find(String)} when the name is not pooled
+     */
+    public static final int ABSENT = -2;
+    /**
+     * Reference of a name generated from the date of the holiday,
+     * such names are never pooled
+     */
+    public static final int DATE_REF = -3;
+
+    private final Map<String, Integer> references = new HashMap<>();
+    private String[] names = new String[16];
+    private int size;
+
+    /**
+     * Looks up a name without adding it
+     *
+     * @param name the name
+     * @return the reference, {@link #NULL_REF} for {@code null} or {@link #ABSENT}
+     */
+    public int find(String name) {
+        if (name == null) {
+            return NULL_REF;
+        }
+        Integer reference = references.get(name);
+        return reference == null ? ABSENT : reference;
+    }
+
+    /**
+     * Returns the reference of a name, adding the name to the pool if needed
+     *
+     * @param name the name
+     * @return the reference, {@link #NULL_REF} for {@code null}
+     */
+    public int reference(String name) {
+        int reference = find(name);
+        if (reference != ABSENT) {
+            return reference;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        names[size] = name;
+        references.put(name, size);
+        return size++;
+    }
+
+    /**
+     * @param reference a reference returned by {@link #reference(String)}
+     * @return the pooled name, {@code null} for {@link #NULL_REF}
+     */
+    public String get(int reference) {
+        return reference == NULL_REF ? null : names[reference];
+    }
+
+    /**
+     * Returns the pooled instance equal to the name, so equal names
+     * share one {@link String}
+     *
+     * @param name the name
+     * @return the canonical instance of the name, {@code null} for {@code null}
+     */
+    public String intern(String name) {
+        return get(reference(name));
+    }
+
+    /**
+     * @return the number of pooled names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the names from the pool
+     */
+    public void clear() {
+        references.clear();
+        names = new String[16];
+        size = 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.serhiidiukarev.holiday.utils;
+
+import java.time.LocalDate;
+
+/**
+ * Reusable utility class which provides arithmetic on epoch days
+ * (the count of days since {@code 1970-01-01}, as returned by
+ * {@link LocalDate#toEpochDay()}) without creating {@link LocalDate} instances
+ */
+public final class EpochDays {
+
+    /**
+     * {@code 1970-01-01} is a Thursday, which is the day {@code 3}
+     * when Monday is {@code 0}
+     */
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    /**
+     * The number of days from {@code 0000-01-01} to {@code 1970-01-01}
+     */
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+
+    private EpochDays() {
+    }
+
+    /**
+     * Converts a date to an {@code int} epoch day
+     *
+     * @param date {@link LocalDate} instance
+     * @return the epoch day
+     * @throws ArithmeticException if the date is out of the {@code int} range of epoch days
+     */
+    public static int toEpochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Converts a date given by its fields to an epoch day,
+     * with the arithmetic of {@link LocalDate#toEpochDay()}
+     *
+     * @param year  the year
+     * @param month the month, from {@code 1} to {@code 12}
+     * @param day   the day of month, from {@code 1} to the length of the month
+     * @return the epoch day
+     * @throws IllegalArgumentException if the month or the day is out of range
+     */
+    public static long of(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date: " + year + "-" + month + "-" + day);
+        }
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Day of week of the given epoch day
+     *
+     * @param epochDay the epoch day
+     * @return {@code 0} for Monday up to {@code 6} for Sunday
+     */
+    public static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7L);
+    }
+
+    /**
+     * @param epochDay the epoch day
+     * @return {@code true} if the day is a Saturday or a Sunday
+     */
+    public static boolean isWeekend(long epochDay) {
+        return dayOfWeek(epochDay) >= 5;
+    }
+
+    /**
+     * Calculate the number of days between two epoch days (inclusive)
+     * which are neither Saturday nor Sunday
+     *
+     * @param startDay start epoch day
+     * @param endDay   end epoch day
+     * @return the number of weekdays, or {@code 0} if {@code endDay < startDay}
+     */
+    public static long countWeekdays(long startDay, long endDay) {
+        if (endDay < startDay) {
+            return 0;
+        }
+        long days = endDay - startDay + 1;
+        long weekdays = days / 7 * 5;
+        int dayOfWeek = dayOfWeek(startDay);
+        for (long i = days % 7; i > 0; i--) {
+            if (dayOfWeek < 5) {
+                weekdays++;
+            }
+            dayOfWeek = (dayOfWeek + 1) % 7;
+        }
+        return weekdays;
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.serhiidiukarev.holiday.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.storage.NamePool;
+
+import java.io.IOException;
+
+/**
+ * A {@link HolidayAdapter} implemented to serializer and deserializer
+ * {@link Holiday} for Json with the same fields as the reflective Gson
+ * representation. Generated names are written through
+ * {@link Holiday#getHolidayName()}, and read names are deduplicated
+ * by a {@link NamePool}, so repetitive names of a file share one instance.
+ *
+ * An adapter with a pool of names is meant for a single import at a time,
+ * an adapter without one (see {@link HolidayCodec}) can be shared between threads.
+ */
+public class HolidayAdapter extends TypeAdapter<Holiday> {
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    /**
+     * Pool of the read names, {@code null} if names are not deduplicated
+     */
+    private final NamePool namePool;
+
+    public HolidayAdapter() {
+        this(new NamePool());
+    }
+
+    /**
+     * @param namePool pool of the read names, {@code null} to keep the names as read
+     */
+    HolidayAdapter(NamePool namePool) {
+        this.namePool = namePool;
+    }
+
+    /**
+     * Serialize holiday to Json
+     *
+     * @param out     the writer
+     * @param holiday the holiday, may be {@code null}
+     */
+    @Override
+    public void write(JsonWriter out, Holiday holiday) throws IOException {
+        if (holiday == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(holiday.getHolidayId());
+        out.name("date").value(holiday.getHolidayDate() == null
+                ? null
+                : LocalDateAdapter.format(holiday.getHolidayDate()));
+        out.name("name").value(holiday.getHolidayName());
+        out.name("category").value(holiday.getHolidayCategory() == null
+                ? null
+                : holiday.getHolidayCategory().name());
+        out.endObject();
+    }
+
+    /**
+     * Deserialize holiday from Json, unknown fields are skipped
+     *
+     * @param in the reader
+     * @return a new instance of Holiday class or {@code null}
+     */
+    @Override
+    public Holiday read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Holiday holiday = new Holiday();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    holiday.setHolidayId(in.nextLong());
+                    break;
+                case "date":
+                    holiday.setHolidayDate(LocalDateAdapter.parse(in.nextString()));
+                    break;
+                case "name":
+                    String name = in.nextString();
+                    holiday.setHolidayName(namePool == null ? name : namePool.intern(name));
+                    break;
+                case "category":
+                    holiday.setHolidayCategory(category(in.nextString()));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return holiday;
+    }
+
+    /**
+     * @return the category with the given name or {@code null}, as Gson does for unknown constants
+     */
+    private static Holiday.HolidayCategory category(String name) {
+        for (Holiday.HolidayCategory category : CATEGORIES) {
+            if (category.name().equals(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
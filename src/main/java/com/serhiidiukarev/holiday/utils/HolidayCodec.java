@@ -0,0 +1,80 @@
+package com.serhiidiukarev.holiday.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared Json codec of holidays. The {@link Gson} instances are created once
+ * with the streaming {@link LocalDateAdapter}, {@link HolidayAdapter} and
+ * {@link HolidayMapAdapter}, none of which keeps state, so they are
+ * thread-safe and used by all the services instead of a {@code Gson} per call.
+ *
+ * The pretty mode is the layout of the files written by the services,
+ * the compact mode writes the same Json without whitespace.
+ */
+public final class HolidayCodec {
+    /**
+     * Type of the {@code Map<LocalDate, Set<Holiday>>} view of the services
+     */
+    public static final Type HOLIDAY_MAP_TYPE = new TypeToken<Map<LocalDate, Set<Holiday>>>() {
+    }.getType();
+
+    /**
+     * Type of a collection of holidays, written as a Json array
+     */
+    public static final Type HOLIDAY_COLLECTION_TYPE = new TypeToken<Collection<Holiday>>() {
+    }.getType();
+
+    private static final Gson COMPACT = builder().create();
+    private static final Gson PRETTY = builder().setPrettyPrinting().create();
+
+    private HolidayCodec() {
+    }
+
+    /**
+     * @param pretty {@code true} for indented Json
+     * @return the shared Gson
+     */
+    public static Gson gson(boolean pretty) {
+        return pretty ? PRETTY : COMPACT;
+    }
+
+    /**
+     * Writes the map view of holidays as a Json object of dates to arrays of holidays
+     *
+     * @param holidays the holidays
+     * @param writer   the writer, not closed
+     * @param pretty   {@code true} for indented Json
+     */
+    public static void writeMap(Map<LocalDate, Set<Holiday>> holidays, Writer writer, boolean pretty) {
+        gson(pretty).toJson(holidays, HOLIDAY_MAP_TYPE, writer);
+    }
+
+    /**
+     * Writes holidays as a Json array
+     *
+     * @param holidays the holidays
+     * @param writer   the writer, not closed
+     * @param pretty   {@code true} for indented Json
+     */
+    public static void writeCollection(Collection<Holiday> holidays, Writer writer, boolean pretty) {
+        gson(pretty).toJson(holidays, HOLIDAY_COLLECTION_TYPE, writer);
+    }
+
+    private static GsonBuilder builder() {
+        HolidayAdapter holidayAdapter = new HolidayAdapter(null);
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(Holiday.class, holidayAdapter)
+                .registerTypeAdapter(HOLIDAY_MAP_TYPE, new HolidayMapAdapter(holidayAdapter));
+    }
+}
@@ -0,0 +1,89 @@
+package com.serhiidiukarev.holiday.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.serhiidiukarev.holiday.Holiday;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A {@link HolidayMapAdapter} implemented to serializer and deserializer the
+ * {@code Map<LocalDate, Set<Holiday>>} view of the services as a Json object
+ * of dates to arrays of holidays, the layout Gson gives to the map.
+ * Read maps are sorted by date with sets ordered by {@link HolidayTreeSetComparator}.
+ */
+public class HolidayMapAdapter extends TypeAdapter<Map<LocalDate, Set<Holiday>>> {
+    private final TypeAdapter<Holiday> holidayAdapter;
+
+    /**
+     * @param holidayAdapter adapter of the holidays of the map
+     */
+    public HolidayMapAdapter(TypeAdapter<Holiday> holidayAdapter) {
+        this.holidayAdapter = holidayAdapter;
+    }
+
+    /**
+     * Serialize holidays to Json
+     *
+     * @param out      the writer
+     * @param holidays the holidays, may be {@code null}
+     */
+    @Override
+    public void write(JsonWriter out, Map<LocalDate, Set<Holiday>> holidays) throws IOException {
+        if (holidays == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        for (Map.Entry<LocalDate, Set<Holiday>> entry : holidays.entrySet()) {
+            out.name(LocalDateAdapter.format(entry.getKey()));
+            out.beginArray();
+            for (Holiday holiday : entry.getValue()) {
+                holidayAdapter.write(out, holiday);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    /**
+     * Deserialize holidays from Json, holidays without a date get the date of their key
+     *
+     * @param in the reader
+     * @return a new map of holidays or {@code null}
+     */
+    @Override
+    public Map<LocalDate, Set<Holiday>> read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Map<LocalDate, Set<Holiday>> holidays = new TreeMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            LocalDate date = LocalDateAdapter.parse(in.nextName());
+            Set<Holiday> holidaySet = holidays.computeIfAbsent(date, key -> new TreeSet<>(new HolidayTreeSetComparator()));
+            in.beginArray();
+            while (in.hasNext()) {
+                Holiday holiday = holidayAdapter.read(in);
+                if (holiday == null) {
+                    continue;
+                }
+                if (holiday.getHolidayDate() == null) {
+                    holiday.setHolidayDate(date);
+                }
+                holidaySet.add(holiday);
+            }
+            in.endArray();
+        }
+        in.endObject();
+        return holidays;
+    }
+}
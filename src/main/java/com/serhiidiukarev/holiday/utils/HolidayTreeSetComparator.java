@@ -3,15 +3,25 @@ package com.serhiidiukarev.holiday.utils;
 import com.serhiidiukarev.holiday.Holiday;
 
 import java.util.Comparator;
-import java.util.Objects;
 
 /**
  * A {@link HolidayTreeSetComparator} implemented to avoid add
  * duplication to {@code holidays} collection and keep on order based
  * on internal field's values in that order: {@code counter},
  * {@link Holiday#getHolidayName()}, {@link Holiday#getHolidayCategory()}
+ *
+ * The comparison does not allocate: equal holidays are detected by the
+ * cached {@link Holiday#hashCode()} before {@link Holiday#equals(Object)} is
+ * called, identifiers are compared as primitives and categories by a table
+ * indexed by ordinals, which keeps the order of their names.
  */
 public class HolidayTreeSetComparator implements Comparator<Holiday> {
+    /**
+     * {@code CATEGORY_ORDER[c1.ordinal()][c2.ordinal()]} is
+     * {@code c1.toString().compareTo(c2.toString())}
+     */
+    private static final int[][] CATEGORY_ORDER = categoryOrder();
+
     /**
      * Compares two {@link Holiday} objects
      *
@@ -23,22 +33,41 @@ public class HolidayTreeSetComparator implements Comparator<Holiday> {
      */
     @Override
     public int compare(Holiday h1, Holiday h2) {
-        if (h1.hashCode() == h2.hashCode() && h1.equals(h2)) {
+        if (h1 == h2 || h1.hashCode() == h2.hashCode() && h1.equals(h2)) {
             return 0;
         }
 
         Long holidayId1 = h1.getHolidayId();
         Long holidayId2 = h2.getHolidayId();
 
-        if (holidayId1 == null && holidayId2 == null || Objects.equals(holidayId1, holidayId2)) {
-            if (h1.getHolidayName().equals(h2.getHolidayName())) {
-                return h1.getHolidayCategory().toString().compareTo(h2.getHolidayCategory().toString());
+        if (holidayId1 != null && holidayId2 != null) {
+            long id1 = holidayId1;
+            long id2 = holidayId2;
+            if (id1 != id2) {
+                return Long.compare(id1, id2);
             }
-            return h1.getHolidayName().compareTo(h2.getHolidayName());
+        } else if (holidayId1 != null) {
+            return 1;
+        } else if (holidayId2 != null) {
+            return -1;
+        }
+
+        String name1 = h1.getHolidayName();
+        String name2 = h2.getHolidayName();
+        if (name1.equals(name2)) {
+            return CATEGORY_ORDER[h1.getHolidayCategory().ordinal()][h2.getHolidayCategory().ordinal()];
         }
-        if (holidayId1 == null) return -1;
-        if (holidayId2 == null) return 1;
+        return name1.compareTo(name2);
+    }
 
-        return holidayId1.compareTo(holidayId2);
+    private static int[][] categoryOrder() {
+        Holiday.HolidayCategory[] categories = Holiday.HolidayCategory.values();
+        int[][] order = new int[categories.length][categories.length];
+        for (Holiday.HolidayCategory c1 : categories) {
+            for (Holiday.HolidayCategory c2 : categories) {
+                order[c1.ordinal()][c2.ordinal()] = c1.toString().compareTo(c2.toString());
+            }
+        }
+        return order;
     }
-}
\ No newline at end of file
+}
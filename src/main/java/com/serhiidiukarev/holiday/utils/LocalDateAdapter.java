@@ -1,42 +1,112 @@
 package com.serhiidiukarev.holiday.utils;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
  * A {@link LocalDateAdapter} implemented to serializer and
- * deserializer {@link LocalDate} for Json base on interval
- * representation of {@link DateTimeFormatter}
+ * deserializer {@link LocalDate} for Json as a {@code yyyy-MM-dd} string.
+ * Dates of the years {@code 1..9999} are encoded and decoded digit by digit,
+ * other values go through {@link #formatter}, which gives the same results.
+ * The adapter is stateless and can be shared between threads.
  */
-public class LocalDateAdapter implements JsonDeserializer<LocalDate>, JsonSerializer<LocalDate> {
+public class LocalDateAdapter extends TypeAdapter<LocalDate> {
     public static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    private static final int LENGTH = 10;
+
     /**
      * Serialize date to Json
      *
-     * @param localDate the object that needs to be converted to Json.
-     * @param srcType   the actual type (fully genericized version) of the source object.
-     * @return a tree of {@link JsonElement}s corresponding to the serialized form of {@code src}.
+     * @param out       the writer
+     * @param localDate the date, may be {@code null}
      */
     @Override
-    public JsonElement serialize(LocalDate localDate, Type srcType, JsonSerializationContext context) {
-        return new JsonPrimitive(formatter.format(localDate));
+    public void write(JsonWriter out, LocalDate localDate) throws IOException {
+        out.value(localDate == null ? null : format(localDate));
     }
 
     /**
-     * SDeserialize date from Json
+     * Deserialize date from Json
      *
-     * @param json    The Json data being deserialized
-     * @param typeOfT The type of the Object to deserialize to
-     * @return a deserialized object of the specified type typeOfT which is a subclass of {@code T}
-     * @throws JsonParseException if json is not in the expected format of {@code typeofT}
+     * @param in the reader
+     * @return the date or {@code null}
+     * @throws java.time.format.DateTimeParseException if the string is not a {@code yyyy-MM-dd} date
      */
     @Override
-    public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-        return LocalDate.parse(json.getAsString(), formatter);
+    public LocalDate read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    /**
+     * @param date a date
+     * @return the date as {@code yyyy-MM-dd}, as formatted by {@link #formatter}
+     */
+    public static String format(LocalDate date) {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            return formatter.format(date);
+        }
+        char[] chars = new char[LENGTH];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, date.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, date.getDayOfMonth(), 2);
+        return new String(chars);
+    }
+
+    /**
+     * @param text a date as {@code yyyy-MM-dd}
+     * @return the date, as parsed by {@link #formatter}
+     * @throws java.time.format.DateTimeParseException if the text is not a date
+     */
+    public static LocalDate parse(CharSequence text) {
+        if (text.length() == LENGTH && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            if (year > 0 && month > 0 && day > 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // the formatter reports the error, or resolves the day as it did before
+                }
+            }
+        }
+        return LocalDate.parse(text, formatter);
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * @return the value of the digits or {@code -1} if there is another character
+     */
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -9,8 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.time.LocalDate;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 public class HolidayTest {
@@ -112,6 +111,28 @@ public class HolidayTest {
         assertNotEquals(holiday1.hashCode(), holiday2.hashCode());
     }
 
+    @Test
+    public void getHolidayName_GeneratedName_DerivedFromDate() {
+        LocalDate date = LocalDate.of(2022, 7, 25);
+        Holiday generated = Holiday.builder().holidayDate(date).generatedName().build();
+        Holiday named = Holiday.builder().holidayDate(date).holidayName("2022-07-25").build();
+
+        assertTrue(generated.isGeneratedName());
+        assertEquals("2022-07-25", generated.getHolidayName());
+        assertEquals(named, generated);
+        assertEquals(named.hashCode(), generated.hashCode());
+
+        generated.setHolidayDate(date.plusDays(1));
+
+        assertEquals("2022-07-26", generated.getHolidayName());
+        assertNotEquals(named, generated);
+
+        generated.setHolidayName("Holiday Name");
+
+        assertFalse(generated.isGeneratedName());
+        assertEquals("Holiday Name", generated.getHolidayName());
+    }
+
     public static class HolidayBuilderTest {
         @ParameterizedTest
         @CsvFileSource(resources = "/data.csv")
@@ -0,0 +1,102 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCalendarFile;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.service.CompactHolidayService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of {@code size} holidays, one per day with a few distinct names,
+ * from a {@link HolidayCalendarFile}: a scan without creating holidays, a load
+ * into a {@link CompactHolidayService} and an import of {@link Holiday} batches,
+ * compared with a load of the same holidays from CSV.
+ *
+ * Run the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarFileBenchmark {
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private Path calendarFile;
+    private Path csvFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Holiday> holidays = new ArrayList<>(size);
+        LocalDate start = LocalDate.of(1, 1, 1);
+        for (int i = 0; i < size; i++) {
+            holidays.add(Holiday.builder()
+                    .holidayDate(start.plusDays(i))
+                    .holidayName("HOLIDAY" + i % 100)
+                    .holidayCategory(CATEGORIES[i % CATEGORIES.length])
+                    .build());
+        }
+        calendarFile = Files.createTempFile("holidays", ".hcal");
+        csvFile = Files.createTempFile("holidays", ".csv");
+        HolidayCalendarFile.write(calendarFile, holidays);
+        new HolidayCsvWriter().write(csvFile, holidays);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(calendarFile);
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public long scan() throws IOException {
+        long[] sum = new long[1];
+        HolidayCalendarFile.open(calendarFile).forEach((hasId, id, epochDay, category, nameIndex) ->
+                sum[0] += epochDay + nameIndex);
+        return sum[0];
+    }
+
+    @Benchmark
+    public CompactHolidayService loadCompact() {
+        CompactHolidayService service = new CompactHolidayService();
+        service.addHolidaysFromCalendarFile(calendarFile.toString());
+        return service;
+    }
+
+    @Benchmark
+    public long importHolidays(Blackhole blackhole) throws IOException {
+        return HolidayCalendarFile.open(calendarFile).importTo(HolidayCalendarFile.DEFAULT_BATCH_SIZE,
+                blackhole::consume, (holidays, bytesRead, totalBytes) -> {
+                });
+    }
+
+    @Benchmark
+    public CompactHolidayService loadCompactFromCSV() {
+        CompactHolidayService service = new CompactHolidayService();
+        service.addHolidaysFromCSV(csvFile.toString());
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CalendarFileBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
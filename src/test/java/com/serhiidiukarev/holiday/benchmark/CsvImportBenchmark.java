@@ -0,0 +1,109 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayCsvReader;
+import com.serhiidiukarev.holiday.io.HolidayCsvWriter;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the bundled {@code data.csv} repeated {@code scale} times by
+ * the memory-mapped {@link HolidayCsvReader}, compared with the same holidays
+ * in JSON read by the streaming {@link HolidayJsonImporter} and by
+ * {@code gson.fromJson(reader, ArrayList<Holiday>)}, which the services used before.
+ *
+ * Run the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvImportBenchmark {
+
+    @Param({"1", "100"})
+    public int scale;
+
+    private Path csvFile;
+    private Path jsonFile;
+    private Gson gson;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Holiday> data = new ArrayList<>();
+        new HolidayCsvReader().importFile(Paths.get("src/test/resources/data.csv"), data::addAll,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+        List<Holiday> holidays = new ArrayList<>(data.size() * scale);
+        for (int i = 0; i < scale; i++) {
+            holidays.addAll(data);
+        }
+
+        gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(Holiday.class, new HolidayAdapter())
+                .create();
+        csvFile = Files.createTempFile("holidays", ".csv");
+        jsonFile = Files.createTempFile("holidays", ".json");
+        new HolidayCsvWriter().write(csvFile, holidays);
+        try (Writer writer = Files.newBufferedWriter(jsonFile)) {
+            gson.toJson(holidays, writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+        Files.deleteIfExists(jsonFile);
+    }
+
+    @Benchmark
+    public long csvMapped(Blackhole blackhole) throws IOException {
+        return new HolidayCsvReader().importFile(csvFile, blackhole::consume,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+    }
+
+    @Benchmark
+    public long jsonStreaming(Blackhole blackhole) throws IOException {
+        return new HolidayJsonImporter().importFile(jsonFile, blackhole::consume,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+    }
+
+    @Benchmark
+    public List<Holiday> gsonList() throws IOException {
+        try (Reader reader = Files.newBufferedReader(jsonFile)) {
+            return gson.fromJson(reader, new TypeToken<ArrayList<Holiday>>() {
+            }.getType());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CsvImportBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set operations of a {@code TreeSet<Holiday>} ordered by {@link HolidayTreeSetComparator}
+ * compared with the previous implementation, which called
+ * {@code Objects.hash} on every comparison and compared categories by name.
+ *
+ * Run the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayComparatorBenchmark {
+
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    @Param({"legacy", "current"})
+    public String comparator;
+
+    @Param({"10", "1000"})
+    public int holidaysPerSet;
+
+    private List<Holiday> holidays;
+    private List<Holiday> lookups;
+    private TreeSet<Holiday> filled;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate date = LocalDate.of(2022, 1, 1);
+        holidays = new ArrayList<>();
+        lookups = new ArrayList<>();
+        for (long i = 0; i < holidaysPerSet; i++) {
+            String name = "Holiday " + random.nextInt(holidaysPerSet);
+            Holiday.HolidayCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            holidays.add(Holiday.builder().holidayId(i).holidayDate(date).holidayName(name).holidayCategory(category).build());
+            lookups.add(Holiday.builder().holidayId(i + holidaysPerSet).holidayDate(date).holidayName(name).holidayCategory(category).build());
+        }
+        Collections.shuffle(holidays, random);
+        filled = newSet();
+        filled.addAll(holidays);
+    }
+
+    @Benchmark
+    public TreeSet<Holiday> addAll() {
+        TreeSet<Holiday> set = newSet();
+        for (Holiday holiday : holidays) {
+            set.add(holiday);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (Holiday holiday : lookups) {
+            blackhole.consume(filled.contains(holiday));
+        }
+    }
+
+    private TreeSet<Holiday> newSet() {
+        return new TreeSet<>("legacy".equals(comparator) ? new LegacyHolidayComparator() : new HolidayTreeSetComparator());
+    }
+
+    /**
+     * The comparator before the ordering was made allocation-free
+     */
+    static class LegacyHolidayComparator implements Comparator<Holiday> {
+        @Override
+        public int compare(Holiday h1, Holiday h2) {
+            if (legacyHash(h1) == legacyHash(h2) && h1.equals(h2)) {
+                return 0;
+            }
+
+            Long holidayId1 = h1.getHolidayId();
+            Long holidayId2 = h2.getHolidayId();
+
+            if (holidayId1 == null && holidayId2 == null || Objects.equals(holidayId1, holidayId2)) {
+                if (h1.getHolidayName().equals(h2.getHolidayName())) {
+                    return h1.getHolidayCategory().toString().compareTo(h2.getHolidayCategory().toString());
+                }
+                return h1.getHolidayName().compareTo(h2.getHolidayName());
+            }
+            if (holidayId1 == null) return -1;
+            if (holidayId2 == null) return 1;
+
+            return holidayId1.compareTo(holidayId2);
+        }
+
+        private static int legacyHash(Holiday holiday) {
+            return Objects.hash(holiday.getHolidayDate(), holiday.getHolidayName(), holiday.getHolidayCategory());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HolidayComparatorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
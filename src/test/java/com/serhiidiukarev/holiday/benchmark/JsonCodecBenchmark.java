@@ -0,0 +1,116 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+import com.serhiidiukarev.holiday.utils.HolidayTreeSetComparator;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of the map view of {@code size} holidays as the services did it before,
+ * with a new pretty-printing {@link Gson} per call and the whole Json built as a
+ * {@link String}, compared with the shared {@link HolidayCodec} streaming to the
+ * writer in pretty and compact mode. Also compares parsing and formatting of
+ * dates by {@link LocalDateAdapter#formatter} and by the hand-rolled codec.
+ *
+ * Run the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Map<LocalDate, Set<Holiday>> holidays = new TreeMap<>();
+    private final Writer sink = Writer.nullWriter();
+    private LocalDate date;
+    private String dateText;
+
+    @Setup
+    public void setUp() {
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < size; i++) {
+            LocalDate holidayDate = start.plusDays(i / 2);
+            holidays.computeIfAbsent(holidayDate, key -> new TreeSet<>(new HolidayTreeSetComparator()))
+                    .add(Holiday.builder()
+                            .holidayId((long) i)
+                            .holidayDate(holidayDate)
+                            .holidayName("HOLIDAY" + i % 100)
+                            .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                            .build());
+        }
+        date = LocalDate.of(2021, 12, 31);
+        dateText = "2021-12-31";
+    }
+
+    @Benchmark
+    public void gsonPerCall() throws IOException {
+        Gson gson = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(Holiday.class, new HolidayAdapter())
+                .create();
+        sink.write(gson.toJson(holidays));
+    }
+
+    @Benchmark
+    public void codecPretty() {
+        HolidayCodec.writeMap(holidays, sink, true);
+    }
+
+    @Benchmark
+    public void codecCompact() {
+        HolidayCodec.writeMap(holidays, sink, false);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public LocalDate parseDateFormatter() {
+        return LocalDate.parse(dateText, LocalDateAdapter.formatter);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public LocalDate parseDateCodec() {
+        return LocalDateAdapter.parse(dateText);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatDateFormatter() {
+        return LocalDateAdapter.formatter.format(date);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatDateCodec() {
+        return LocalDateAdapter.format(date);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
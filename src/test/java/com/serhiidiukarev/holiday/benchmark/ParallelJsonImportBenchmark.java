@@ -0,0 +1,96 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.io.HolidayJsonImporter;
+import com.serhiidiukarev.holiday.utils.HolidayAdapter;
+import com.serhiidiukarev.holiday.utils.LocalDateAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import of a JSON array of a million holidays by the sequential
+ * {@link HolidayJsonImporter#importFile} and by
+ * {@link HolidayJsonImporter#importFileParallel} on pools of {@code threads} threads.
+ *
+ * Run the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelJsonImportBenchmark {
+    private static final int SIZE = 1_000_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path jsonFile;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Holiday> holidays = new ArrayList<>(SIZE);
+        LocalDate start = LocalDate.of(1, 1, 1);
+        for (int i = 0; i < SIZE; i++) {
+            holidays.add(Holiday.builder()
+                    .holidayId((long) i)
+                    .holidayDate(start.plusDays(SIZE - i))
+                    .holidayName("HOLIDAY" + i % 100)
+                    .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                    .build());
+        }
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(Holiday.class, new HolidayAdapter())
+                .create();
+        jsonFile = Files.createTempFile("holidays", ".json");
+        try (Writer writer = Files.newBufferedWriter(jsonFile)) {
+            gson.toJson(holidays, writer);
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(jsonFile);
+    }
+
+    @Benchmark
+    public long sequential(Blackhole blackhole) throws IOException {
+        return new HolidayJsonImporter().importFile(jsonFile, blackhole::consume,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+    }
+
+    @Benchmark
+    public List<Holiday> parallel() throws IOException {
+        return new HolidayJsonImporter().importFileParallel(jsonFile, pool,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelJsonImportBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.serhiidiukarev.holiday.benchmark;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.CompactHolidayService;
+import com.serhiidiukarev.holiday.service.DefaultHolidayService;
+import com.serhiidiukarev.holiday.service.HolidayService;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Compares the retained heap of {@link DefaultHolidayService}
+ * ({@code TreeMap<LocalDate, Set<Holiday>>}) and {@link CompactHolidayService}
+ * (sorted primitive arrays) filled with the same holidays.
+ *
+ * Run the {@code main} method from the test classpath, optionally passing
+ * the number of holidays (default {@code 1000000}). Use a fixed heap,
+ * e.g. {@code -Xms4g -Xmx4g}, for stable numbers.
+ */
+public class StorageFootprintBenchmark {
+
+    private static final Holiday.HolidayCategory[] CATEGORIES = Holiday.HolidayCategory.values();
+
+    public static void main(String[] args) {
+        int holidays = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        report("DefaultHolidayService", holidays, DefaultHolidayService::new);
+        report("CompactHolidayService", holidays, CompactHolidayService::new);
+    }
+
+    private static void report(String name, int holidays, Supplier<HolidayService<LocalDate, String>> factory) {
+        long before = usedHeap();
+        HolidayService<LocalDate, String> service = factory.get();
+        fill(service, holidays);
+        long after = usedHeap();
+
+        long bytes = after - before;
+        System.out.printf("%-24s %,12d holidays %,14d bytes %8.1f bytes/holiday%n",
+                name, service.getHolidays().values().stream().mapToInt(java.util.Set::size).sum(),
+                bytes, (double) bytes / holidays);
+    }
+
+    /**
+     * Two holidays per date with names repeating every 100 entries,
+     * which is close to an imported vendor calendar
+     */
+    private static void fill(HolidayService<LocalDate, String> service, int holidays) {
+        LocalDate start = LocalDate.of(1900, 1, 1);
+        for (int i = 0; i < holidays; i++) {
+            service.addHoliday(Holiday.builder()
+                    .holidayDate(start.plusDays(i / 2))
+                    .holidayName("Holiday " + (i % 100))
+                    .holidayCategory(CATEGORIES[i % CATEGORIES.length])
+                    .build());
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,71 @@
+package com.serhiidiukarev.holiday.client;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.DefaultHolidayService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledCalendarTest {
+
+    @Test
+    void countWorkingDaysBetween_RandomRanges_SameAsService() {
+        //given
+        Random random = new Random(42);
+        DefaultHolidayService holidayService = new DefaultHolidayService();
+        LocalDate first = LocalDate.of(1965, 1, 1);
+        for (int i = 0; i < 300; i++) {
+            holidayService.addHoliday(first.plusDays(random.nextInt(365 * 70)));
+        }
+        List<Holiday> holidays = holidayService.getHolidays().values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList());
+
+        //when
+        CompiledCalendar underTest = CompiledCalendar.compile(7, holidays);
+
+        //then
+        assertEquals(7, underTest.getVersion());
+        assertEquals(holidayService.getHolidays().keySet(), underTest.getHolidays().keySet());
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = first.plusDays(random.nextInt(365 * 70));
+            LocalDate end = start.plusDays(random.nextInt(800));
+            assertEquals(holidayService.countWorkingDaysBetween(start, end),
+                    underTest.countWorkingDaysBetween(start, end), start + " - " + end);
+        }
+    }
+
+    @Test
+    void countWorkingDaysBetween_HolidaysOnWeekdayAndWeekend_WeekdayOneSubtracted() {
+        //given
+        CompiledCalendar underTest = CompiledCalendar.compile(1, List.of(
+                Holiday.builder().holidayId(1L).holidayDate(LocalDate.of(2021, 3, 8)).build(),
+                Holiday.builder().holidayId(2L).holidayDate(LocalDate.of(2021, 3, 13)).build()));
+
+        //when
+        int count = underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 31));
+
+        //then
+        assertEquals(22, count);
+        assertTrue(underTest.isHoliday(LocalDate.of(2021, 3, 13)));
+        assertEquals(1, underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 9), LocalDate.of(2021, 3, 9)));
+        assertEquals(0, underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 8), LocalDate.of(2021, 3, 8)));
+    }
+
+    @Test
+    void countWorkingDaysBetween_StartAfterEnd_ExceptionThrown() {
+        //given
+        CompiledCalendar underTest = CompiledCalendar.EMPTY;
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 2), LocalDate.of(2021, 3, 1)));
+    }
+}
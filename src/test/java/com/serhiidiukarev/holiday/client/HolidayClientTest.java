@@ -0,0 +1,98 @@
+package com.serhiidiukarev.holiday.client;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayClientTest {
+
+    private static final String HOLIDAYS = "[{\"holidayId\":1,\"holidayDate\":\"2021-03-08\",\"holidayName\":\"Women's Day\","
+            + "\"holidayCategory\":\"GOVERNMENT\",\"unknown\":[1,2]},"
+            + "{\"holidayId\":2,\"holidayDate\":\"2021-03-13\",\"holidayName\":null}]";
+
+    private HttpServer server;
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/holiday", exchange -> {
+            String eTag = "W/\"1f\"";
+            exchange.getResponseHeaders().add("ETag", eTag);
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = new GZIPOutputStream(exchange.getResponseBody())) {
+                body.write(HOLIDAYS.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void refresh_SameVersion_CalendarKept() {
+        //given
+        URI baseUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+        try (HolidayClient underTest = new HolidayClient(baseUri, Duration.ofMinutes(1))) {
+            assertTrue(underTest.refresh());
+            CompiledCalendar calendar = underTest.getCalendar();
+
+            //when
+            boolean loaded = underTest.refresh();
+
+            //then
+            assertFalse(loaded);
+            assertEquals(1, notModified.get());
+            assertSame(calendar, underTest.getCalendar());
+            assertEquals(31, underTest.getVersion());
+            assertEquals(2, underTest.getHolidays().size());
+            assertEquals(22, underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 31)));
+        }
+    }
+
+    @Test
+    void parse_NameMissingOrOfDate_GeneratedName() throws IOException {
+        //given
+        String json = "[{\"holidayDate\":\"2021-03-08\",\"holidayName\":\"Women's Day\"},"
+                + "{\"holidayDate\":\"2021-03-13\",\"holidayName\":\"2021-03-13\"},"
+                + "{\"holidayDate\":\"2021-03-14\"}]";
+
+        //when
+        List<Holiday> holidays = HolidayClient.parse(new StringReader(json));
+
+        //then
+        assertFalse(holidays.get(0).isGeneratedName());
+        assertEquals("Women's Day", holidays.get(0).getHolidayName());
+        assertTrue(holidays.get(1).isGeneratedName());
+        assertEquals("2021-03-13", holidays.get(1).getHolidayName());
+        assertTrue(holidays.get(2).isGeneratedName());
+        assertEquals("2021-03-14", holidays.get(2).getHolidayName());
+    }
+}
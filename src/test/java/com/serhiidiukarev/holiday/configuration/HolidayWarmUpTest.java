@@ -0,0 +1,67 @@
+package com.serhiidiukarev.holiday.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.DefaultHolidayService;
+import com.serhiidiukarev.holiday.service.WorkdayCountCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayWarmUpTest {
+
+    private DefaultHolidayService holidayService;
+    private WorkdayCountCache workdayCountCache;
+
+    @BeforeEach
+    void setUp() {
+        holidayService = new DefaultHolidayService();
+        holidayService.addHoliday(LocalDate.now().withDayOfYear(1));
+        workdayCountCache = new WorkdayCountCache(holidayService, 100);
+    }
+
+    @Test
+    void warmUp_Calendar_MonthsOfTwoYearsCached() {
+        //given
+        HolidayWarmUp underTest = new HolidayWarmUp(holidayService, workdayCountCache,
+                new ObjectMapper().findAndRegisterModules(), 100, 2, 60000);
+
+        //when
+        underTest.warmUp();
+
+        //then
+        assertEquals(24, workdayCountCache.size());
+        assertEquals(24, workdayCountCache.getMisses());
+    }
+
+    @Test
+    void warmUp_ServiceFails_ApplicationStartedAnyway() {
+        //given
+        DefaultHolidayService failing = new DefaultHolidayService() {
+            @Override
+            public Map<LocalDate, Set<Holiday>> getHolidays() {
+                throw new IllegalStateException("database is down");
+            }
+        };
+        HolidayWarmUp underTest = new HolidayWarmUp(failing, new WorkdayCountCache(failing, 100),
+                new ObjectMapper(), 100, 2, 60000);
+
+        //when, then
+        assertDoesNotThrow(underTest::warmUp);
+    }
+
+    @Test
+    void new_InvalidSettings_ThrowsIllegalArgumentException() {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayWarmUp(holidayService, workdayCountCache, objectMapper, -1, 2, 60000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayWarmUp(holidayService, workdayCountCache, objectMapper, 100, 2, 0));
+    }
+}
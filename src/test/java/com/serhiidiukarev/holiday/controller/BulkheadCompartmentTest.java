@@ -0,0 +1,65 @@
+package com.serhiidiukarev.holiday.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadCompartmentTest {
+
+    @Test
+    void tryEnter_AllPermitsTakenNoWaiting_Rejected() throws InterruptedException {
+        //given
+        BulkheadCompartment underTest = new BulkheadCompartment("calendar", 2, 0, 0);
+        assertTrue(underTest.tryEnter());
+        assertTrue(underTest.tryEnter());
+
+        //when
+        boolean entered = underTest.tryEnter();
+
+        //then
+        assertFalse(entered);
+        assertEquals(2, underTest.getActive());
+        assertEquals(2, underTest.getAdmitted());
+        assertEquals(1, underTest.getRejected());
+    }
+
+    @Test
+    void tryEnter_PermitReturnedWhileWaiting_Admitted() throws Exception {
+        //given
+        BulkheadCompartment underTest = new BulkheadCompartment("calendar", 1, 1, 10_000);
+        assertTrue(underTest.tryEnter());
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return underTest.tryEnter();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (underTest.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, underTest.getWaiting());
+        assertFalse(underTest.tryEnter());
+
+        //when
+        underTest.exit();
+
+        //then
+        assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        assertEquals(0, underTest.getWaiting());
+        assertEquals(1, underTest.getActive());
+        assertEquals(1, underTest.getRejected());
+    }
+
+    @Test
+    void constructor_NoPermits_ExceptionThrown() {
+        //given
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> new BulkheadCompartment("calendar", 0, 0, 0));
+    }
+}
@@ -0,0 +1,200 @@
+package com.serhiidiukarev.holiday.controller;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.AsyncHolidayService;
+import com.serhiidiukarev.holiday.service.DurableHolidayService;
+import com.serhiidiukarev.holiday.service.HolidayImportJobService;
+import com.serhiidiukarev.holiday.service.WorkdayCountCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayChangeStreamTest {
+
+    @TempDir
+    Path directory;
+    @Mock
+    private AsyncHolidayService<LocalDate, String> asyncHolidayService;
+    @Mock
+    private HolidayImportJobService importJobService;
+    @Mock
+    private WorkdayCountCache workdayCountCache;
+    @Mock
+    private BulkheadInterceptor bulkheadInterceptor;
+    @Mock
+    private ApplicationAvailability availability;
+
+    private DurableHolidayService holidayService;
+    /**
+     * The versions of the changes adding the two holidays, the versions of a log start at its creation time
+     */
+    private long firstVersion;
+    private long secondVersion;
+    private HolidayChangeStream changeStream;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        holidayService = new DurableHolidayService(directory, false, 100);
+        holidayService.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        firstVersion = holidayService.getVersion();
+        holidayService.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 3)));
+        secondVersion = holidayService.getVersion();
+        changeStream = new HolidayChangeStream(holidayService, 1, 15000, 0, 64);
+        changeStream.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new HolidayController(holidayService, asyncHolidayService,
+                importJobService, workdayCountCache, 60, bulkheadInterceptor, changeStream, availability)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeStream.stop();
+        holidayService.close();
+    }
+
+    @Test
+    void streamChanges_LastEventId_ResumedAfterIt() throws Exception {
+        //when
+        MvcResult stream = streamChanges(firstVersion);
+
+        //then
+        String content = awaitContent(stream, "id:" + secondVersion + "\nevent:update\n");
+        assertTrue(content.contains("Holiday 2"), content);
+        assertFalse(content.contains("Holiday 1"), content);
+    }
+
+    @Test
+    void streamChanges_LastEventIdAfterRestart_ResetAndFullSnapshot() throws Exception {
+        //when
+        MvcResult stream = streamChanges(secondVersion + 100);
+
+        //then
+        String content = awaitContent(stream, "id:" + secondVersion + "\nevent:version\ndata:" + secondVersion + "\n");
+        assertTrue(content.startsWith("event:reset\ndata:" + secondVersion + "\n"), content);
+        assertTrue(content.indexOf("Holiday 1") < content.indexOf("Holiday 2"), content);
+        assertFalse(content.contains("id:" + firstVersion + "\n"), content);
+    }
+
+    @Test
+    void streamChanges_HolidayDeleted_DeleteEvent() throws Exception {
+        //given
+        MvcResult stream = streamChanges(null);
+        awaitContent(stream, "id:" + secondVersion + "\nevent:version\ndata:" + secondVersion + "\n");
+
+        //when
+        holidayService.deleteHoliday(0L);
+        long deleteVersion = holidayService.getVersion();
+
+        //then
+        String content = awaitContent(stream, "id:" + deleteVersion + "\nevent:delete\ndata:{\"holidayId\":0}\n");
+        assertFalse(content.contains("Holiday"), content);
+    }
+
+    @Test
+    void streamChanges_TooManyStreams_TooManyRequests() throws Exception {
+        //given
+        streamChanges(null);
+
+        //when
+        MvcResult rejected = mockMvc.perform(get("/api/v1/holiday/changes")).andReturn();
+
+        //then
+        assertEquals(429, rejected.getResponse().getStatus());
+        assertEquals(1, changeStream.getSubscribers());
+    }
+
+    @Test
+    void subscribe_ConcurrentSubscribers_LimitKept() throws Exception {
+        //given
+        HolidayChangeStream limited = new HolidayChangeStream(holidayService, 5, 15000, 0, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    limited.subscribe(null);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+
+        //when
+        start.countDown();
+        int subscribed = 0;
+        for (Future<Boolean> result : results) {
+            subscribed += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(5, subscribed);
+        assertEquals(5, limited.getSubscribers());
+        limited.stop();
+    }
+
+    /**
+     * @return the started request of {@code GET api/v1/holiday/changes}, its stream stays open
+     */
+    private MvcResult streamChanges(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/v1/holiday/changes");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /**
+     * Waits up to five seconds for the events sent by the threads of the stream
+     *
+     * @return the content of the stream once it contains the expected text
+     */
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+
+    private static Holiday holiday(String name, LocalDate date) {
+        return Holiday.builder()
+                .holidayName(name)
+                .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                .holidayDate(date)
+                .build();
+    }
+}
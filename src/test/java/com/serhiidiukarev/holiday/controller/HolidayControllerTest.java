@@ -0,0 +1,135 @@
+package com.serhiidiukarev.holiday.controller;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.repository.HolidayVersionRepository;
+import com.serhiidiukarev.holiday.service.DBHolidayService;
+import com.serhiidiukarev.holiday.service.ExecutorAsyncHolidayService;
+import com.serhiidiukarev.holiday.service.HolidayImportJobService;
+import com.serhiidiukarev.holiday.service.WorkdayCountCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayControllerTest {
+
+    @Mock
+    private HolidayRepository holidayRepository;
+    @Mock
+    private HolidayVersionRepository versionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private HolidayImportJobService importJobService;
+    @Mock
+    private WorkdayCountCache workdayCountCache;
+    @Mock
+    private BulkheadInterceptor bulkheadInterceptor;
+    @Mock
+    private HolidayChangeStream changeStream;
+    @Mock
+    private ApplicationAvailability availability;
+
+    private ExecutorAsyncHolidayService asyncHolidayService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DBHolidayService holidayService = new DBHolidayService(holidayRepository, versionRepository, transactionManager);
+        asyncHolidayService = new ExecutorAsyncHolidayService(holidayService, 1, 10);
+        mockMvc = MockMvcBuilders.standaloneSetup(new HolidayController(holidayService, asyncHolidayService,
+                importJobService, workdayCountCache, 60, bulkheadInterceptor, changeStream, availability)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncHolidayService.stop();
+    }
+
+    @Test
+    void getHolidays_VersionChangedByOtherNode_NotModifiedUntilChange() throws Exception {
+        //given
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(1L));
+        when(holidayRepository.findAll()).thenReturn(List.of(holiday("Holiday 1")));
+
+        //when
+        MvcResult first = getHolidays(null);
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult unchanged = getHolidays(eTag);
+
+        // a holiday added through another node sharing the database
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(2L));
+        when(holidayRepository.findAll()).thenReturn(List.of(holiday("Holiday 1"), holiday("Holiday 2")));
+        MvcResult changed = getHolidays(eTag);
+
+        //then
+        assertEquals(200, first.getResponse().getStatus());
+        assertEquals("W/\"1\"", eTag);
+        assertEquals(304, unchanged.getResponse().getStatus());
+        assertEquals("", unchanged.getResponse().getContentAsString());
+        assertEquals(200, changed.getResponse().getStatus());
+        assertEquals("W/\"2\"", changed.getResponse().getHeader(HttpHeaders.ETAG));
+        assertFalse(changed.getResponse().getContentAsString().contains("generatedName"));
+    }
+
+    @Test
+    void getReadiness_BeforeAndAfterAcceptingTraffic_UnavailableThenOk() throws Exception {
+        //given
+        when(availability.getReadinessState()).thenReturn(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC);
+
+        //when
+        MvcResult warmingUp = mockMvc.perform(get("/api/v1/holiday/readiness")).andReturn();
+        MvcResult ready = mockMvc.perform(get("/api/v1/holiday/readiness")).andReturn();
+
+        //then
+        assertEquals(503, warmingUp.getResponse().getStatus());
+        assertEquals("\"REFUSING_TRAFFIC\"", warmingUp.getResponse().getContentAsString());
+        assertEquals(200, ready.getResponse().getStatus());
+        assertEquals("\"ACCEPTING_TRAFFIC\"", ready.getResponse().getContentAsString());
+    }
+
+    /**
+     * @return the result of the asynchronous dispatch of {@code GET api/v1/holiday}
+     */
+    private MvcResult getHolidays(String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/v1/holiday");
+        if (ifNoneMatch != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    private static Holiday holiday(String name) {
+        return Holiday.builder()
+                .holidayName(name)
+                .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                .holidayDate(LocalDate.of(2020, 1, 2))
+                .build();
+    }
+}
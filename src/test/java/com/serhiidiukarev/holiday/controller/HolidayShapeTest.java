@@ -0,0 +1,69 @@
+package com.serhiidiukarev.holiday.controller;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.DefaultHolidayService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayShapeTest {
+
+    private Map<LocalDate, Set<Holiday>> holidays;
+
+    @BeforeEach
+    void setUp() {
+        DefaultHolidayService holidayService = new DefaultHolidayService();
+        holidayService.addHoliday(Holiday.builder().holidayDate(LocalDate.of(2020, 1, 2))
+                .holidayName("B").holidayCategory(Holiday.HolidayCategory.CUSTOM).build());
+        holidayService.addHoliday(Holiday.builder().holidayDate(LocalDate.of(2020, 1, 1))
+                .holidayName("A").holidayCategory(Holiday.HolidayCategory.OTHER).build());
+        holidayService.addHoliday(Holiday.builder().holidayDate(LocalDate.of(2020, 1, 1))
+                .holidayName("C").holidayCategory(Holiday.HolidayCategory.OTHER).build());
+        holidays = holidayService.getHolidays();
+    }
+
+    @Test
+    void apply_Dates_DatesInOrder() {
+        //given
+        //when
+        Object result = HolidayShape.DATES.apply(holidays, List.of("holidayName"));
+
+        //then
+        assertEquals(List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2)), result);
+    }
+
+    @Test
+    void apply_FlatWithFields_OnlyFieldsOfEveryHoliday() {
+        //given
+        //when
+        List<?> result = (List<?>) HolidayShape.FLAT.apply(holidays, List.of("holidayDate", "holidayName"));
+
+        //then
+        assertEquals(3, result.size());
+        assertEquals(Map.of("holidayDate", LocalDate.of(2020, 1, 2), "holidayName", "B"), result.get(2));
+    }
+
+    @Test
+    void apply_NestedWithoutFields_HolidaysUnchanged() {
+        //given
+        //when
+        Object result = HolidayShape.NESTED.apply(holidays, null);
+
+        //then
+        assertSame(holidays, result);
+    }
+
+    @Test
+    void apply_UnknownField_ExceptionThrown() {
+        //given
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> HolidayShape.FLAT.apply(holidays, List.of("date")));
+    }
+}
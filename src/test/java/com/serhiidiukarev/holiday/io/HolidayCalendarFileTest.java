@@ -0,0 +1,101 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.service.CompactHolidayService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayCalendarFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_ReadBack_SameHolidaysSortedByDate() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.hcal");
+        Holiday unity = Holiday.builder().holidayId(12L).holidayDate(LocalDate.of(2024, 1, 22)).holidayName("\u0414\u0435\u043d\u044c \u0404\u0434\u043d\u043e\u0441\u0442\u0456").holidayCategory(Holiday.HolidayCategory.GOVERNMENT).build();
+        Holiday generated = Holiday.builder().holidayId(-5L).holidayDate(LocalDate.of(1969, 12, 31)).generatedName().holidayCategory(Holiday.HolidayCategory.CUSTOM).build();
+        Holiday anonymous = Holiday.builder().holidayDate(LocalDate.of(2020, 3, 1)).build();
+        Holiday repeated = Holiday.builder().holidayId(13L).holidayDate(LocalDate.of(2025, 1, 22)).holidayName("\u0414\u0435\u043d\u044c \u0404\u0434\u043d\u043e\u0441\u0442\u0456").build();
+
+        //when
+        assertEquals(4, HolidayCalendarFile.write(file, List.of(unity, generated, anonymous, repeated)));
+        HolidayCalendarFile calendar = HolidayCalendarFile.open(file);
+        List<Holiday> read = new ArrayList<>();
+        calendar.importTo(HolidayCalendarFile.DEFAULT_BATCH_SIZE, read::addAll, (holidays, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(4, calendar.size());
+        assertEquals(1, calendar.names().length);
+        assertEquals(List.of(generated, anonymous, unity, repeated), read);
+        assertEquals(-5L, read.get(0).getHolidayId());
+        assertTrue(read.get(0).isGeneratedName());
+        assertEquals("1969-12-31", read.get(0).getHolidayName());
+        assertNull(read.get(1).getHolidayId());
+        assertNull(read.get(1).getHolidayName());
+        assertNull(read.get(1).getHolidayCategory());
+        assertEquals(13L, read.get(3).getHolidayId());
+    }
+
+    @Test
+    void importTo_BundledData_SameHolidaysInBatches() throws IOException {
+        //given
+        List<Holiday> expected = new ArrayList<>();
+        new HolidayCsvReader().importFile(Paths.get("src/test/resources/data.csv"), expected::addAll,
+                (holidays, bytesRead, totalBytes) -> {
+                });
+        Path file = directory.resolve("holidays.hcal");
+        HolidayCalendarFile.write(file, expected);
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Holiday> read = new ArrayList<>();
+
+        //when
+        long imported = HolidayCalendarFile.open(file).importTo(500, batch -> {
+            batchSizes.add(batch.size());
+            read.addAll(batch);
+        }, (holidays, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(1096, imported);
+        assertEquals(List.of(500, 500, 96), batchSizes);
+        assertEquals(expected, read);
+        assertTrue(Files.size(file) < Files.size(Paths.get("src/test/resources/data.csv")));
+    }
+
+    @Test
+    void addHolidaysFromCalendarFile_CompactService_SameHolidays() throws IOException {
+        //given
+        CompactHolidayService source = new CompactHolidayService();
+        source.addHolidaysFromCSV("src/test/resources/data.csv");
+        Path file = directory.resolve("holidays.hcal");
+        source.writeHolidaysToCalendarFile(file.toString());
+        CompactHolidayService target = new CompactHolidayService();
+
+        //when
+        target.addHolidaysFromCalendarFile(file.toString());
+
+        //then
+        assertEquals(source.getHolidays(), target.getHolidays());
+    }
+
+    @Test
+    void open_NotACalendarFile_ThrowsIllegalArgumentException() throws IOException {
+        Path file = directory.resolve("holidays.csv");
+        Files.writeString(file, "1,CUSTOM,A,2020-01-01\n");
+
+        assertThrows(IllegalArgumentException.class, () -> HolidayCalendarFile.open(file));
+    }
+}
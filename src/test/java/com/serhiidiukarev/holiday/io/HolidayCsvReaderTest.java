@@ -0,0 +1,125 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayCsvReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void importFile_BundledData_AllLinesRead() throws IOException {
+        //given
+        List<Holiday> holidays = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+
+        //when
+        long imported = new HolidayCsvReader(500).importFile(Paths.get("src/test/resources/data.csv"),
+                batch -> {
+                    batchSizes.add(batch.size());
+                    holidays.addAll(batch);
+                }, (count, bytesRead, totalBytes) -> {
+                });
+
+        //then
+        assertEquals(1096, imported);
+        assertEquals(List.of(500, 500, 96), batchSizes);
+        Holiday first = holidays.get(0);
+        assertEquals(0L, first.getHolidayId());
+        assertEquals(Holiday.HolidayCategory.CUSTOM, first.getHolidayCategory());
+        assertEquals("CUSTOM0", first.getHolidayName());
+        assertEquals(LocalDate.of(2020, 1, 1), first.getHolidayDate());
+        Holiday last = holidays.get(holidays.size() - 1);
+        assertEquals(1095L, last.getHolidayId());
+        assertEquals(Holiday.HolidayCategory.OTHER, last.getHolidayCategory());
+        assertEquals(LocalDate.of(2022, 12, 31), last.getHolidayDate());
+    }
+
+    @Test
+    void importFile_HeaderQuotesAndEmptyFields_Parsed() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.csv");
+        Files.writeString(file, "id,category,name,date\r\n"
+                + "7,GOVERNMENT,\"Day of \"\"Unity\"\", Freedom\",2024-02-29\r\n"
+                + "\n"
+                + ",UNKNOWN,,1999-12-31\n");
+        List<Holiday> holidays = new ArrayList<>();
+
+        //when
+        new HolidayCsvReader().importFile(file, holidays::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(2, holidays.size());
+        assertEquals("Day of \"Unity\", Freedom", holidays.get(0).getHolidayName());
+        assertEquals(LocalDate.of(2024, 2, 29), holidays.get(0).getHolidayDate());
+        assertNull(holidays.get(1).getHolidayId());
+        assertNull(holidays.get(1).getHolidayCategory());
+        assertNull(holidays.get(1).getHolidayName());
+        assertEquals(LocalDate.of(1999, 12, 31), holidays.get(1).getHolidayDate());
+    }
+
+    @Test
+    void importFile_LinesAcrossWindows_RemappedAtLineStart() throws IOException {
+        //given
+        List<Holiday> expected = new ArrayList<>();
+        new HolidayCsvReader().importFile(Paths.get("src/test/resources/data.csv"), expected::addAll,
+                (count, bytesRead, totalBytes) -> {
+                });
+        List<Holiday> holidays = new ArrayList<>();
+
+        //when
+        new HolidayCsvReader(100, 61).importFile(Paths.get("src/test/resources/data.csv"), holidays::addAll,
+                (count, bytesRead, totalBytes) -> {
+                });
+
+        //then
+        assertEquals(expected, holidays);
+    }
+
+    @Test
+    void importFile_MalformedLine_ThrowsWithLineNumber() throws IOException {
+        Path file = directory.resolve("holidays.csv");
+        Files.writeString(file, "1,CUSTOM,A,2020-01-01\n2,CUSTOM,B,2020-02-30\n");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new HolidayCsvReader().importFile(file, holidays -> {
+                }, (count, bytesRead, totalBytes) -> {
+                }));
+        assertTrue(exception.getMessage().startsWith("Malformed CSV line 2"));
+    }
+
+    @Test
+    void write_ReadBack_SameHolidays() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.csv");
+        List<Holiday> holidays = List.of(
+                Holiday.builder().holidayId(-3L).holidayDate(LocalDate.of(1, 1, 1)).holidayName("a,b").holidayCategory(Holiday.HolidayCategory.OTHER).build(),
+                Holiday.builder().holidayId(Long.MAX_VALUE).holidayDate(LocalDate.of(2020, 3, 1)).generatedName().build(),
+                Holiday.builder().holidayDate(LocalDate.of(1969, 12, 31)).holidayName("\u041a\u0432\u0456\u0442\u043a\u0430 \"1\"").build());
+
+        //when
+        assertEquals(3, new HolidayCsvWriter().write(file, holidays));
+        List<Holiday> read = new ArrayList<>();
+        new HolidayCsvReader().importFile(file, read::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(holidays, read);
+        assertEquals(-3L, read.get(0).getHolidayId());
+        assertEquals(Long.MAX_VALUE, read.get(1).getHolidayId());
+        assertEquals("2020-03-01", read.get(1).getHolidayName());
+    }
+}
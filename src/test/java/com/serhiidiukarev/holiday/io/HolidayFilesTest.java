@@ -0,0 +1,83 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.utils.HolidayCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeText_GzipName_CompressedAndImported() throws IOException {
+        //given
+        List<Holiday> holidays = new ArrayList<>();
+        new HolidayCsvReader().importFile(Paths.get("src/test/resources/data.csv"), holidays::addAll,
+                (count, bytesRead, totalBytes) -> {
+                });
+        Path plain = directory.resolve("holidays.json");
+        Path compressed = directory.resolve("holidays.json.gz");
+
+        //when
+        HolidayFiles.writeText(plain, writer -> HolidayCodec.writeCollection(holidays, writer, true));
+        HolidayFiles.writeText(compressed, writer -> HolidayCodec.writeCollection(holidays, writer, true));
+        List<Holiday> read = new ArrayList<>();
+        new HolidayJsonImporter().importFile(compressed, read::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertTrue(Files.size(compressed) < Files.size(plain) / 10);
+        assertEquals(holidays, read);
+        assertEquals(holidays.size(), new HolidayJsonImporter().importFileParallel(compressed,
+                ForkJoinPool.commonPool(), (count, bytesRead, totalBytes) -> {
+                }).size());
+    }
+
+    @Test
+    void write_FailedContent_DestinationKept() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.json");
+        Files.writeString(file, "[]");
+
+        //when
+        assertThrows(IOException.class, () -> HolidayFiles.write(file, temporary -> {
+            Files.writeString(temporary, "[{\"date\":");
+            throw new IOException("disk full");
+        }));
+
+        //then
+        assertEquals("[]", Files.readString(file));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void write_ExistingFile_Replaced() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.csv");
+        Files.writeString(file, "old content which is longer");
+
+        //when
+        HolidayFiles.write(file, temporary -> Files.writeString(temporary, "new"));
+
+        //then
+        assertEquals("new", Files.readString(file));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
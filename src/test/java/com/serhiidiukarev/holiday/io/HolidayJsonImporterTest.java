@@ -0,0 +1,141 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayJsonImporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void importFile_Array_HandedOverInBatches() throws IOException {
+        //given
+        Path file = Paths.get("src/test/resources/data02.json");
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Long> progress = new ArrayList<>();
+        List<Long> bytes = new ArrayList<>();
+        long size = Files.size(file);
+
+        //when
+        long imported = new HolidayJsonImporter(1000).importFile(file,
+                batch -> batchSizes.add(batch.size()),
+                (holidays, bytesRead, totalBytes) -> {
+                    progress.add(holidays);
+                    bytes.add(bytesRead);
+                    assertEquals(size, totalBytes);
+                });
+
+        //then
+        assertEquals(2192, imported);
+        assertEquals(List.of(1000, 1000, 192), batchSizes);
+        assertEquals(List.of(1000L, 2000L, 2192L), progress);
+        assertEquals(size, bytes.get(bytes.size() - 1));
+    }
+
+    @Test
+    void importFile_MapOfDates_AllHolidaysRead() throws IOException {
+        //given
+        List<Holiday> holidays = new ArrayList<>();
+
+        //when
+        new HolidayJsonImporter().importFile(Paths.get("src/test/resources/file-to-read.json"),
+                holidays::addAll, (count, bytesRead, totalBytes) -> {
+                });
+
+        //then
+        assertEquals(3, holidays.size());
+        assertEquals("GOVERNMENT", holidays.get(1).getHolidayName());
+        assertEquals(LocalDate.of(2021, 1, 1), holidays.get(2).getHolidayDate());
+        assertEquals(Holiday.HolidayCategory.OTHER, holidays.get(2).getHolidayCategory());
+    }
+
+    @Test
+    void importFile_DateOnlyInMapKey_DateTakenFromKey() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.json");
+        Files.writeString(file, "{\"2020-01-01\": [{\"name\": \"New Year\", \"category\": \"GOVERNMENT\"}, null]}");
+        List<Holiday> holidays = new ArrayList<>();
+
+        //when
+        long imported = new HolidayJsonImporter().importFile(file, holidays::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(1, imported);
+        assertEquals(LocalDate.of(2020, 1, 1), holidays.get(0).getHolidayDate());
+    }
+
+    @Test
+    void importFile_MissingFile_Throws() {
+        assertThrows(IOException.class, () -> new HolidayJsonImporter().importFile(directory.resolve("missing.json"),
+                holidays -> {
+                }, (count, bytesRead, totalBytes) -> {
+                }));
+        assertThrows(IllegalArgumentException.class, () -> new HolidayJsonImporter(0));
+    }
+
+    @Test
+    void importFileParallel_SmallChunks_SameHolidaysSortedByDate() throws IOException {
+        //given
+        Path file = Paths.get("src/test/resources/data02.json");
+        List<Holiday> expected = new ArrayList<>();
+        new HolidayJsonImporter().importFile(file, expected::addAll, (count, bytesRead, totalBytes) -> {
+        });
+        expected.sort(Comparator.comparing(Holiday::getHolidayDate));
+        List<Long> bytes = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        //when
+        List<Holiday> holidays = new HolidayJsonImporter(1000, 4096).importFileParallel(file, pool,
+                (count, bytesRead, totalBytes) -> bytes.add(bytesRead));
+        pool.shutdown();
+
+        //then
+        assertEquals(expected, holidays);
+        assertTrue(bytes.size() > 10);
+        assertEquals(Files.size(file), bytes.stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+    }
+
+    @Test
+    void importFileParallel_MapWithBracketsInNames_DatesTakenFromKeys() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.json");
+        Files.writeString(file, "\uFEFF {\"2020-01-02\": [{\"name\": \"a}],\\\"b\", \"category\": \"OTHER\"}],"
+                + " \"2020-01-01\": [{\"name\": \"c\"}, {\"name\": \"d\", \"date\": \"2019-12-31\"}]}");
+
+        //when
+        List<Holiday> holidays = new HolidayJsonImporter(1000, 1).importFileParallel(file, ForkJoinPool.commonPool(),
+                (count, bytesRead, totalBytes) -> {
+                });
+
+        //then
+        assertEquals(3, holidays.size());
+        assertEquals("d", holidays.get(0).getHolidayName());
+        assertEquals(LocalDate.of(2020, 1, 1), holidays.get(1).getHolidayDate());
+        assertEquals("a}],\"b", holidays.get(2).getHolidayName());
+    }
+
+    @Test
+    void importFileParallel_Unterminated_Throws() throws IOException {
+        Path file = directory.resolve("holidays.json");
+        Files.writeString(file, "[{\"name\": \"a\", \"date\": \"2020-01-01\"}, {\"name\": \"b\"");
+
+        assertThrows(IOException.class, () -> new HolidayJsonImporter(1000, 1).importFileParallel(file,
+                ForkJoinPool.commonPool(), (count, bytesRead, totalBytes) -> {
+                }));
+    }
+}
@@ -0,0 +1,111 @@
+package com.serhiidiukarev.holiday.io;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayNdjsonReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_ReadFromReturnedOffsets_OnlyNewHolidaysRead() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.ndjson");
+        Holiday newYear = Holiday.builder().holidayId(1L).holidayDate(LocalDate.of(2020, 1, 1)).holidayName("New Year").holidayCategory(Holiday.HolidayCategory.GOVERNMENT).build();
+        Holiday generated = Holiday.builder().holidayId(2L).holidayDate(LocalDate.of(2020, 3, 8)).generatedName().build();
+        Holiday anonymous = Holiday.builder().holidayDate(LocalDate.of(2020, 5, 1)).build();
+        HolidayNdjsonWriter writer = new HolidayNdjsonWriter();
+        HolidayNdjsonReader reader = new HolidayNdjsonReader();
+        List<Holiday> first = new ArrayList<>();
+        List<Holiday> second = new ArrayList<>();
+
+        //when
+        long size = writer.append(file, List.of(newYear, generated));
+        long offset = reader.importFrom(file, 0, first::addAll, (count, bytesRead, totalBytes) -> {
+        });
+        long appendedSize = writer.append(file, List.of(anonymous));
+        long nextOffset = reader.importFrom(file, offset, second::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(size, offset);
+        assertEquals(appendedSize, nextOffset);
+        assertEquals(List.of(newYear, generated), first);
+        assertEquals("2020-03-08", first.get(1).getHolidayName());
+        assertEquals(List.of(anonymous), second);
+        assertNull(second.get(0).getHolidayId());
+        assertEquals(3, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void importFrom_IncompleteLastLine_LeftForNextRead() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.ndjson");
+        String line = "{\"id\":1,\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"}\r\n";
+        Files.writeString(file, line + "\n{\"id\":2,\"date\":\"2020-01-0");
+        List<Holiday> holidays = new ArrayList<>();
+        HolidayNdjsonReader reader = new HolidayNdjsonReader();
+
+        //when
+        long offset = reader.importFrom(file, 0, holidays::addAll, (count, bytesRead, totalBytes) -> {
+        });
+        Files.writeString(file, "2\"}\n", StandardOpenOption.APPEND);
+        long nextOffset = reader.importFrom(file, offset, holidays::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(line.length() + 1, offset);
+        assertEquals(Files.size(file), nextOffset);
+        assertEquals(2, holidays.size());
+        assertEquals(LocalDate.of(2020, 1, 2), holidays.get(1).getHolidayDate());
+    }
+
+    @Test
+    void append_AfterInterruptedAppend_IncompleteLineCutOff() throws IOException {
+        //given
+        Path file = directory.resolve("holidays.ndjson");
+        Files.writeString(file, "{\"id\":1,\"date\":\"2020-01-01\"}\n{\"id\":2,\"da");
+        List<Holiday> holidays = new ArrayList<>();
+
+        //when
+        new HolidayNdjsonWriter().append(file, List.of(Holiday.builder().holidayId(3L).holidayDate(LocalDate.of(2020, 1, 3)).build()));
+        new HolidayNdjsonReader().importFrom(file, 0, holidays::addAll, (count, bytesRead, totalBytes) -> {
+        });
+
+        //then
+        assertEquals(2, holidays.size());
+        assertEquals(3L, holidays.get(1).getHolidayId());
+    }
+
+    @Test
+    void importFrom_MalformedLineOrOffset_ThrowsIllegalArgumentException() throws IOException {
+        Path file = directory.resolve("holidays.ndjson");
+        Files.writeString(file, "{\"id\":1,\"date\":\"2020-01-01\"}\n{\"id\":2,\"date\":\"2020-13-01\"}\n");
+
+        List<Holiday> read = new ArrayList<>();
+        MalformedLineException exception = assertThrows(MalformedLineException.class,
+                () -> new HolidayNdjsonReader().importFrom(file, 0, read::addAll, (count, bytesRead, totalBytes) -> {
+                }));
+        assertTrue(exception.getMessage().startsWith("Malformed NDJSON line at byte 29"));
+        assertEquals(29, exception.getLineStart());
+        assertEquals(Files.size(file), exception.getNextLineStart());
+        // the holidays of the lines before the malformed one are handed over
+        assertEquals(1, read.size());
+        assertThrows(IllegalArgumentException.class, () -> new HolidayNdjsonReader().importFrom(file, Files.size(file) + 1,
+                holidays -> {
+                }, (count, bytesRead, totalBytes) -> {
+                }));
+    }
+}
@@ -0,0 +1,189 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.converter.ConvertWith;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactHolidayServiceTest {
+
+    private HolidayService<LocalDate, String> underTest;
+    private Map<LocalDate, Set<Holiday>> holidays;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new CompactHolidayService();
+        holidays = underTest.getHolidays();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2000-01-04", "2000-02-04", "2001-01-04"})
+    public void addHoliday_OneDate_true(
+            @ConvertWith(LocalDateConverter.class) LocalDate date) {
+        assertTrue(underTest.addHoliday(date));
+        assertEquals(1, holidays.size());
+
+        Set<Holiday> holidaysSet = holidays.get(date);
+
+        assertNotNull(holidaysSet);
+        assertEquals(1, holidaysSet.size());
+
+        Holiday holiday = holidaysSet.iterator().next();
+        assertEquals(0L, holiday.getHolidayId());
+        assertEquals(date, holiday.getHolidayDate());
+        assertEquals(date.toString(), holiday.getHolidayName());
+        assertEquals(Holiday.HolidayCategory.CUSTOM, holiday.getHolidayCategory());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2000-01-04", "2000-02-04", "2001-01-04"})
+    public void addHoliday_Twice_false(
+            @ConvertWith(LocalDateConverter.class) LocalDate date) {
+        underTest.addHoliday(date);
+        assertFalse(underTest.addHoliday(date));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2000-01-01,2000-01-03", "2000-02-01,2000-02-03", "2001-01-01,2001-01-03"})
+    public void addHolidaysBetween_ThreeDays_Size3(
+            @ConvertWith(LocalDateConverter.class) LocalDate startDate,
+            @ConvertWith(LocalDateConverter.class) LocalDate endDate) {
+        underTest.addHolidaysBetween(startDate, endDate);
+        assertEquals(3, holidays.size());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2022-06-27,2022-07-04,2022-07-01", "2022-07-29,2022-08-05,2022-08-02"})
+    public void countWorkingDaysBetween_TwoDatesWithAdditionalHoliday_5(
+            @ConvertWith(LocalDateConverter.class) LocalDate startDate,
+            @ConvertWith(LocalDateConverter.class) LocalDate endDate,
+            @ConvertWith(LocalDateConverter.class) LocalDate holidayDate
+    ) {
+        underTest.addHoliday(holidayDate);
+        underTest.addHoliday(Holiday.builder()
+                .holidayDate(holidayDate)
+                .holidayName("Second holiday on the same date")
+                .holidayCategory(Holiday.HolidayCategory.GOVERNMENT)
+                .build());
+        assertEquals(5, underTest.countWorkingDaysBetween(startDate, endDate));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2022-01-01,2022-12-31", "2021-12-30,2023-01-02", "2022-07-02,2022-07-02", "2022-07-04,2022-07-01"})
+    public void countWorkingDaysBetween_SameAsDefaultService(
+            @ConvertWith(LocalDateConverter.class) LocalDate startDate,
+            @ConvertWith(LocalDateConverter.class) LocalDate endDate) {
+        HolidayService<LocalDate, String> reference = new DefaultHolidayService();
+        for (LocalDate date = LocalDate.of(2022, 1, 1); date.getYear() == 2022; date = date.plusDays(5)) {
+            underTest.addHoliday(date);
+            reference.addHoliday(date);
+        }
+        if (endDate.isBefore(startDate)) {
+            assertEquals(0, underTest.countWorkingDaysBetween(startDate, endDate));
+            return;
+        }
+        assertEquals(reference.countWorkingDaysBetween(startDate, endDate),
+                underTest.countWorkingDaysBetween(startDate, endDate));
+    }
+
+    @Test
+    public void getHolidays_SameDate_OrderedById() {
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        Holiday first = Holiday.builder().holidayDate(date).holidayName("B").holidayCategory(Holiday.HolidayCategory.CUSTOM).build();
+        Holiday second = Holiday.builder().holidayDate(date).holidayName("A").holidayCategory(Holiday.HolidayCategory.CUSTOM).build();
+        underTest.addHoliday(LocalDate.of(2021, 1, 1));
+        underTest.addHoliday(first);
+        underTest.addHoliday(second);
+
+        assertEquals(2, holidays.size());
+        assertEquals(Set.of(first, second), holidays.get(date));
+        assertEquals("B", holidays.get(date).iterator().next().getHolidayName());
+        assertEquals(date, holidays.keySet().iterator().next());
+        assertTrue(holidays.get(date).contains(second));
+    }
+
+    @Test
+    public void deleteHoliday_ExistingId_RemovedFromView() {
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        underTest.addHoliday(date);
+        Long id = holidays.get(date).iterator().next().getHolidayId();
+
+        assertTrue(underTest.deleteHoliday(id));
+        assertFalse(underTest.deleteHoliday(id));
+        assertTrue(holidays.isEmpty());
+        assertNull(holidays.get(date));
+    }
+
+    @Test
+    public void updateHoliday_NewDate_MovedToNewDate() {
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        LocalDate newDate = LocalDate.of(2020, 3, 1);
+        underTest.addHoliday(date);
+        Long id = holidays.get(date).iterator().next().getHolidayId();
+
+        Holiday updated = underTest.updateHoliday(id, newDate, "Renamed", null);
+
+        assertEquals(id, updated.getHolidayId());
+        assertNull(holidays.get(date));
+        Holiday stored = holidays.get(newDate).iterator().next();
+        assertEquals("Renamed", stored.getHolidayName());
+        assertEquals(Holiday.HolidayCategory.CUSTOM, stored.getHolidayCategory());
+        assertNull(underTest.updateHoliday(42L, newDate, null, null));
+    }
+
+    @Test
+    public void clear_NonEmpty_Empty() {
+        underTest.addHolidaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31));
+        underTest.clear();
+
+        assertTrue(holidays.isEmpty());
+        assertTrue(underTest.addHoliday(LocalDate.of(2020, 1, 1)));
+        assertEquals(0L, holidays.get(LocalDate.of(2020, 1, 1)).iterator().next().getHolidayId());
+    }
+
+    @Test
+    public void writeHolidayChangesToJSON_AfterPreviousExport_OnlyChanges() throws IOException {
+        //given
+        underTest.addHolidaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 3));
+        Path file = directory.resolve("changes.json");
+        long version = underTest.writeHolidayChangesToJSON(file.toString(), 0);
+        JsonObject full = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        underTest.deleteHoliday(1L);
+        underTest.addHoliday(LocalDate.of(2020, 2, 1));
+
+        //when
+        long next = underTest.writeHolidayChangesToJSON(file.toString(), version);
+        JsonObject delta = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+
+        //then
+        assertTrue(full.get("reset").getAsBoolean());
+        assertEquals(3, full.getAsJsonArray("changes").size());
+        assertEquals(version, underTest.getVersion() - 2);
+        assertEquals(underTest.getVersion(), next);
+        assertFalse(delta.get("reset").getAsBoolean());
+        JsonArray changes = delta.getAsJsonArray("changes");
+        assertEquals(2, changes.size());
+        assertEquals(1L, changes.get(0).getAsJsonObject().get("id").getAsLong());
+        assertTrue(changes.get(0).getAsJsonObject().get("deleted").getAsBoolean());
+        assertEquals("2020-02-01", changes.get(1).getAsJsonObject()
+                .getAsJsonObject("holiday").get("date").getAsString());
+    }
+}
@@ -2,15 +2,19 @@ package com.serhiidiukarev.holiday.service;
 
 import com.serhiidiukarev.holiday.Holiday;
 import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.repository.HolidayVersionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.converter.ConvertWith;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.File;
 import java.io.IOException;
@@ -18,11 +22,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DBHolidayServiceTest {
@@ -31,10 +43,14 @@ class DBHolidayServiceTest {
     private Map<LocalDate, Set<Holiday>> holidays; //fixme remove later
     @Mock
     private HolidayRepository holidayRepository;
+    @Mock
+    private HolidayVersionRepository versionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     public void setUp() {
-        underTest = new DBHolidayService(holidayRepository);
+        underTest = new DBHolidayService(holidayRepository, versionRepository, transactionManager);
     }
 
     @Test
@@ -45,6 +61,149 @@ class DBHolidayServiceTest {
         verify(holidayRepository).findAll();
     }
 
+    @Test
+    public void deleteHolidays_Existing_VersionIncrementedInTransaction() {
+        //given
+        Holiday holiday = holiday(5L, LocalDate.of(2021, 1, 1), "CUSTOM");
+        when(holidayRepository.findAllById(any())).thenReturn(List.of(holiday));
+        when(versionRepository.increment(1)).thenReturn(1);
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(8L));
+
+        //when
+        int deleted = underTest.deleteHolidays(List.of(5L));
+        HolidayChanges changes = underTest.getChangesSince(7);
+
+        //then
+        assertEquals(1, deleted);
+        verify(holidayRepository).deleteInBatch(List.of(holiday));
+        verify(transactionManager).commit(any());
+        assertEquals(8, changes.getDelta().getVersion());
+        assertFalse(changes.getDelta().isFull());
+        assertEquals(1, changes.getDelta().getChanges().size());
+        assertTrue(changes.getDelta().getChanges().get(0).isDeleted());
+    }
+
+    @Test
+    public void addHolidays_SavedAndRepeatedHolidays_OneQueryAndNewIds() {
+        //given
+        Holiday saved = holiday(1L, LocalDate.of(2021, 1, 1), "Saved");
+        Holiday existing = holiday(42L, LocalDate.of(2021, 1, 1), "Saved");
+        Holiday added = holiday(1L, LocalDate.of(2021, 1, 7), "Added");
+        Holiday repeated = holiday(null, LocalDate.of(2021, 1, 7), "Added");
+        List<Long> savedIds = new ArrayList<>();
+        List<Integer> rejected = new ArrayList<>();
+        when(holidayRepository.findByHolidayDateBetween(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 1, 7)))
+                .thenReturn(List.of(saved));
+        when(holidayRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Holiday> holidays = invocation.getArgument(0);
+            holidays.forEach(holiday -> {
+                savedIds.add(holiday.getHolidayId());
+                holiday.setHolidayId(2L);
+            });
+            return holidays;
+        });
+        when(versionRepository.increment(1)).thenReturn(1);
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(1L));
+
+        //when
+        int count = underTest.addHolidays(Arrays.asList(existing, added, null, repeated), (index, e) -> rejected.add(index));
+
+        //then
+        assertEquals(1, count);
+        assertEquals(List.of(2), rejected);
+        assertEquals(Collections.singletonList(null), savedIds);
+        assertEquals(2L, added.getHolidayId());
+        verify(holidayRepository, never()).findHoliday(any(), any(), any());
+    }
+
+    @Test
+    public void addHolidaysFromCSV_SavedHoliday_OneQueryPerBatchAndSkipped(@TempDir Path directory) throws IOException {
+        //given
+        Path file = directory.resolve("holidays.csv");
+        Files.writeString(file, "0,CUSTOM,Saved,2021-01-01\n1,CUSTOM,Added,2021-01-07\n");
+        when(holidayRepository.findByHolidayDateBetween(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 1, 7)))
+                .thenReturn(List.of(holiday(42L, LocalDate.of(2021, 1, 1), "Saved")));
+        List<String> savedNames = new ArrayList<>();
+        when(holidayRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Holiday> holidays = invocation.getArgument(0);
+            holidays.forEach(holiday -> savedNames.add(holiday.getHolidayName()));
+            return holidays;
+        });
+        when(versionRepository.increment(1)).thenReturn(1);
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(1L));
+
+        //when
+        underTest.addHolidaysFromCSV(file.toString());
+
+        //then
+        assertEquals(List.of("Added"), savedNames);
+        verify(holidayRepository, never()).findHoliday(any(), any(), any());
+    }
+
+    @Test
+    public void appendHolidaysToNDJSON_MoreThanPage_ReadPageByPage(@TempDir Path directory) throws IOException {
+        //given
+        int pageSize = DBHolidayService.EXPORT_PAGE_SIZE;
+        List<Holiday> firstPage = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            firstPage.add(holiday(id, LocalDate.of(2020, 1, 1).plusDays(id), "CUSTOM"));
+        }
+        Holiday last = holiday(pageSize + 1L, LocalDate.of(2019, 1, 1), "CUSTOM");
+        PageRequest page = PageRequest.of(0, pageSize);
+        when(holidayRepository.findByHolidayIdGreaterThanOrderByHolidayId(0L, page)).thenReturn(firstPage);
+        when(holidayRepository.findByHolidayIdGreaterThanOrderByHolidayId((long) pageSize, page)).thenReturn(List.of(last));
+        Path file = directory.resolve("holidays.ndjson");
+
+        //when
+        long lastHolidayId = underTest.appendHolidaysToNDJSON(file.toString(), 0);
+
+        //then
+        assertEquals(pageSize + 1L, lastHolidayId);
+        assertEquals(pageSize + 1L, Files.readAllLines(file).size());
+    }
+
+    @Test
+    public void createVersion_Missing_CreatedOnce() {
+        //given
+        DBHolidayService service = new DBHolidayService(holidayRepository, versionRepository, transactionManager);
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.empty(), Optional.of(0L));
+
+        //when
+        service.createVersion();
+        service.createVersion();
+
+        //then
+        verify(versionRepository).saveAndFlush(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void addHoliday_VersionNotCreated_ThrowsIllegalStateException() {
+        //given
+        when(holidayRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //when, then
+        assertThrows(IllegalStateException.class, () -> underTest.addHoliday(holiday(null, LocalDate.of(2021, 1, 1), "Added")));
+        verify(versionRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void getChangesSince_ChangedByOtherNode_AllHolidays() {
+        //given
+        when(versionRepository.findCalendarVersion()).thenReturn(Optional.of(3L), Optional.of(9L));
+        long version = underTest.getVersion();
+
+        //when
+        HolidayChanges changes = underTest.getChangesSince(version);
+
+        //then
+        assertEquals(3, version);
+        assertTrue(changes.getDelta().isFull());
+        assertEquals(9, changes.getDelta().getVersion());
+        verify(holidayRepository).findAll();
+    }
+
     @Disabled
     @ParameterizedTest
     @CsvSource({"2000-01-04", "2000-02-04", "2001-01-04"})
@@ -217,4 +376,13 @@ class DBHolidayServiceTest {
         assertEquals(expected, actual);
     }
 
-}
\ No newline at end of file
+    private static Holiday holiday(Long holidayId, LocalDate date, String name) {
+        return Holiday
+                .builder()
+                .holidayId(holidayId)
+                .holidayDate(date)
+                .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                .holidayName(name)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import com.serhiidiukarev.holiday.Holiday;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.converter.ConvertWith;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -131,6 +132,23 @@ public class DefaultHolidayServiceTest {
         assertEquals(5, holidaysService.countWorkingDaysBetween(startDate, endDate));
     }
 
+    @Test
+    public void updateHoliday_NewDate_MovedAndOldDateWorkday() {
+        LocalDate date = LocalDate.of(2022, 7, 1);
+        LocalDate newDate = LocalDate.of(2022, 7, 4);
+        holidaysService.addHoliday(date);
+        Long id = holidays.get(date).iterator().next().getHolidayId();
+
+        Holiday updated = holidaysService.updateHoliday(id, newDate, "Renamed", null);
+
+        assertEquals(id, updated.getHolidayId());
+        assertNull(holidays.get(date));
+        assertEquals("Renamed", holidays.get(newDate).iterator().next().getHolidayName());
+        assertEquals(2, holidaysService.countWorkingDaysBetween(date, newDate.plusDays(1)));
+        assertTrue(holidaysService.deleteHoliday(id));
+        assertFalse(holidays.containsKey(newDate));
+    }
+
     @ParameterizedTest
     @CsvSource({"src/test/resources/data01.json,2", "src/test/resources/data02.json,1096"})
     public void addHolidaysFromJSON_PathToJson_AddObjectsToHolidays(String jsonDestination, int expectedSize) {
@@ -173,6 +191,19 @@ public class DefaultHolidayServiceTest {
         assertEquals(customSet, holidaySet);
     }
 
+    @ParameterizedTest
+    @CsvSource({"src/test/resources/data01.json", "src/test/resources/data02.json"})
+    public void addHolidaysFromJSONInParallel_PathToJson_SameHolidaysAsSequentialImport(String jsonDestination) {
+        DefaultHolidayService parallelService = new DefaultHolidayService();
+
+        holidaysService.addHolidaysFromJSON(jsonDestination);
+        parallelService.addHolidaysFromJSONInParallel(jsonDestination);
+
+        assertEquals(holidays, parallelService.getHolidays());
+        assertEquals(holidays.values().stream().mapToInt(Set::size).sum(),
+                parallelService.getHolidays().values().stream().mapToInt(Set::size).sum());
+    }
+
     @ParameterizedTest
     @CsvSource({TO_WRITE + ",src/test/resources/file-to-read.json"})
     public void writeHolidaysToJSON_PathToJson_AddAllObjectsToHolidays(String toWrite, String toRead) throws IOException {
@@ -0,0 +1,160 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableHolidayServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_JournalOnly_StateAndIdsRestored() {
+        //given
+        DurableHolidayService underTest = new DurableHolidayService(directory, true, 100);
+        underTest.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        underTest.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 2)));
+        underTest.addHoliday(LocalDate.of(2022, 4, 6));
+        underTest.deleteHoliday(1L);
+        underTest.updateHoliday(0L, LocalDate.of(2020, 1, 2), "Holiday 1", Holiday.HolidayCategory.OTHER);
+
+        //when
+        DurableHolidayService reopened = new DurableHolidayService(directory, true, 100);
+
+        //then
+        assertEquals(underTest.getHolidays(), reopened.getHolidays());
+        Holiday updated = reopened.getHolidays().get(LocalDate.of(2020, 1, 2)).iterator().next();
+        assertEquals(0L, updated.getHolidayId());
+        assertEquals(Holiday.HolidayCategory.OTHER, updated.getHolidayCategory());
+        Holiday generated = reopened.getHolidays().get(LocalDate.of(2022, 4, 6)).iterator().next();
+        assertTrue(generated.isGeneratedName());
+
+        reopened.addHoliday(holiday("Holiday 3", LocalDate.of(2020, 1, 3)));
+        assertEquals(3L, reopened.getHolidays().get(LocalDate.of(2020, 1, 3)).iterator().next().getHolidayId());
+    }
+
+    @Test
+    void addHoliday_ThresholdReached_SnapshotWrittenAndJournalEmptied() throws IOException {
+        //given
+        DurableHolidayService underTest = new DurableHolidayService(directory, true, 2);
+        Path journal = directory.resolve(DurableHolidayService.JOURNAL_FILE);
+
+        //when
+        underTest.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        underTest.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 2)));
+        underTest.addHoliday(holiday("Holiday 3", LocalDate.of(2020, 1, 3)));
+
+        //then
+        assertTrue(Files.exists(directory.resolve(DurableHolidayService.SNAPSHOT_FILE)));
+        assertTrue(Files.size(journal) > 0);
+
+        DurableHolidayService reopened = new DurableHolidayService(directory, true, 2);
+        assertEquals(underTest.getHolidays(), reopened.getHolidays());
+        assertEquals(2, reopened.getHolidays().size());
+    }
+
+    @Test
+    void reopen_TornJournalTail_ValidRecordsRestored() throws IOException {
+        //given
+        DurableHolidayService underTest = new DurableHolidayService(directory, false, 100);
+        underTest.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        underTest.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 3)));
+        Path journal = directory.resolve(DurableHolidayService.JOURNAL_FILE);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //when
+        DurableHolidayService reopened = new DurableHolidayService(directory, false, 100);
+        reopened.addHoliday(holiday("Holiday 3", LocalDate.of(2020, 1, 4)));
+        DurableHolidayService reopenedAgain = new DurableHolidayService(directory, false, 100);
+
+        //then
+        assertEquals(Set.of(LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 4)), reopenedAgain.getHolidays().keySet());
+    }
+
+    @Test
+    void close_ClearedHolidays_RestoredEmpty() {
+        //given
+        DurableHolidayService underTest = new DurableHolidayService(directory, true, 100);
+        underTest.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        underTest.clear();
+
+        //when
+        underTest.close();
+        DurableHolidayService reopened = new DurableHolidayService(directory, true, 100);
+
+        //then
+        assertTrue(reopened.getHolidays().isEmpty());
+        reopened.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 2)));
+        assertEquals(0L, reopened.getHolidays().get(LocalDate.of(2020, 1, 2)).iterator().next().getHolidayId());
+    }
+
+    @Test
+    void getHolidays_ConcurrentMutations_ConsistentCopies() throws Exception {
+        //given
+        DurableHolidayService underTest = new DurableHolidayService(directory, false, 500);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    underTest.addHoliday(holiday("Holiday " + i, start.plusDays(i % 366)));
+                    if (i % 3 == 0) {
+                        underTest.deleteHoliday((long) i / 2);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                writing.set(false);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    Map<LocalDate, Set<Holiday>> holidays = underTest.getHolidays();
+                    int size = holidays.values().stream().mapToInt(Set::size).sum();
+                    underTest.countWorkingDaysBetween(start, start.plusDays(365));
+                    assertEquals(size, holidays.values().stream().mapToInt(Set::size).sum());
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+
+        //when
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        //then
+        assertNull(failure.get());
+        assertEquals(underTest.getHolidays().values().stream().mapToInt(Set::size).sum(),
+                new DurableHolidayService(directory, false, 500).getHolidays().values().stream().mapToInt(Set::size).sum());
+    }
+
+    private static Holiday holiday(String name, LocalDate date) {
+        return Holiday.builder()
+                .holidayName(name)
+                .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                .holidayDate(date)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.serhiidiukarev.holiday.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorAsyncHolidayServiceTest {
+
+    private CountDownLatch release;
+    private ExecutorAsyncHolidayService underTest;
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(1);
+        DefaultHolidayService holidayService = new DefaultHolidayService() {
+            @Override
+            public boolean addHoliday(LocalDate date) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.addHoliday(date);
+            }
+        };
+        underTest = new ExecutorAsyncHolidayService(holidayService, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.stop();
+    }
+
+    @Test
+    void addHoliday_ThenGetHolidays_CompletedWithResults() throws Exception {
+        //given
+        LocalDate date = LocalDate.of(2021, 3, 8);
+        release.countDown();
+
+        //when
+        boolean added = underTest.addHoliday(date).get(10, TimeUnit.SECONDS);
+
+        //then
+        assertTrue(added);
+        assertTrue(underTest.getHolidays().get(10, TimeUnit.SECONDS).containsKey(date));
+        assertEquals(22, underTest.countWorkingDaysBetween(LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 31))
+                .get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void addHolidaysBetween_NoEndDate_CompletedExceptionally() {
+        //given
+        release.countDown();
+
+        //when
+        CompletableFuture<Void> added = underTest.addHolidaysBetween(LocalDate.of(2021, 3, 9), null);
+
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> added.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void addHoliday_QueueFull_CompletedWithRejection() {
+        //given
+        CompletableFuture<Boolean> running = underTest.addHoliday(LocalDate.of(2021, 3, 8));
+        CompletableFuture<Boolean> queued = underTest.addHoliday(LocalDate.of(2021, 3, 9));
+
+        //when
+        CompletableFuture<Boolean> rejected = underTest.addHoliday(LocalDate.of(2021, 3, 10));
+
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        release.countDown();
+        assertTrue(running.join());
+        assertTrue(queued.join());
+    }
+}
@@ -0,0 +1,110 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayDirectoryWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private DefaultHolidayService holidayService;
+    private HolidayDirectoryWatcher underTest;
+
+    @BeforeEach
+    void setUp() {
+        holidayService = new DefaultHolidayService();
+        underTest = new HolidayDirectoryWatcher(holidayService, directory, 0);
+    }
+
+    @Test
+    void scan_CalendarFiles_HolidaysAddedOthersKept() throws IOException {
+        //given
+        holidayService.addHoliday(LocalDate.of(2019, 12, 31));
+        Files.writeString(directory.resolve("a.json"),
+                "[{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"},"
+                        + "{\"id\":7,\"date\":\"2020-01-02\",\"name\":\"B\",\"category\":\"CUSTOM\"}]");
+        Files.writeString(directory.resolve("b.csv"), ",OTHER,C,2020-01-03\n");
+        Files.writeString(directory.resolve(".a.json.1.tmp"), "[{\"date\":\"2020-01-04\"}]");
+        Files.writeString(directory.resolve("notes.txt"), "2020-01-05");
+
+        //when
+        int changed = underTest.scan();
+
+        //then
+        assertEquals(3, changed);
+        assertEquals(4, holidayService.getHolidays().size());
+        assertEquals(0L, holiday(LocalDate.of(2019, 12, 31)).getHolidayId());
+        assertEquals("B", holiday(LocalDate.of(2020, 1, 2)).getHolidayName());
+        assertNotEquals(7L, holiday(LocalDate.of(2020, 1, 2)).getHolidayId());
+        assertEquals(0, underTest.scan());
+    }
+
+    @Test
+    void reload_ChangedAndDeletedFiles_OnlyDifferenceApplied() throws IOException {
+        //given
+        Path a = directory.resolve("a.json");
+        Path b = directory.resolve("b.csv");
+        Files.writeString(a, "[{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"},"
+                + "{\"date\":\"2020-01-02\",\"name\":\"B\",\"category\":\"CUSTOM\"},"
+                + "{\"date\":\"2020-01-03\",\"name\":\"C\",\"category\":\"OTHER\"}]");
+        Files.writeString(b, ",OTHER,C,2020-01-03\n");
+        underTest.scan();
+        Long keptId = holiday(LocalDate.of(2020, 1, 1)).getHolidayId();
+        Files.writeString(a, "[{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"},"
+                + "{\"date\":\"2020-02-01\",\"name\":\"D\",\"category\":\"CUSTOM\"}]");
+
+        //when
+        int changed = underTest.reload(List.of(a));
+
+        //then
+        assertEquals(2, changed);
+        assertEquals(keptId, holiday(LocalDate.of(2020, 1, 1)).getHolidayId());
+        assertFalse(holidayService.getHolidays().containsKey(LocalDate.of(2020, 1, 2)));
+        assertEquals(1, holidayService.countWorkingDaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 3)));
+        assertEquals("C", holiday(LocalDate.of(2020, 1, 3)).getHolidayName());
+        assertEquals("D", holiday(LocalDate.of(2020, 2, 1)).getHolidayName());
+
+        //when
+        Files.delete(b);
+        changed = underTest.reload(List.of(b));
+
+        //then
+        assertEquals(1, changed);
+        assertFalse(holidayService.getHolidays().containsKey(LocalDate.of(2020, 1, 3)));
+        assertEquals(2, holidayService.countWorkingDaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 3)));
+    }
+
+    @Test
+    void reload_MalformedFile_PreviousHolidaysKept() throws IOException {
+        //given
+        Path a = directory.resolve("a.csv");
+        Files.writeString(a, ",CUSTOM,A,2020-01-01\n");
+        underTest.scan();
+        Files.writeString(a, ",CUSTOM,A,2020-13-01\n");
+
+        //when
+        int changed = underTest.reload(List.of(a));
+
+        //then
+        assertEquals(0, changed);
+        assertEquals("A", holiday(LocalDate.of(2020, 1, 1)).getHolidayName());
+    }
+
+    private Holiday holiday(LocalDate date) {
+        Set<Holiday> holidays = holidayService.getHolidays().get(date);
+        assertEquals(1, holidays.size());
+        return holidays.iterator().next();
+    }
+}
@@ -0,0 +1,92 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayFeedTailerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void poll_AppendedFeed_ImportsOnlyNewHolidays() {
+        //given
+        Path feed = directory.resolve("feed.ndjson");
+        DefaultHolidayService producer = new DefaultHolidayService();
+        DefaultHolidayService consumer = new DefaultHolidayService();
+        HolidayFeedTailer tailer = new HolidayFeedTailer(consumer, feed, 1000);
+
+        //when
+        long emptyOffset = tailer.poll();
+        producer.addHoliday(LocalDate.of(2020, 1, 1));
+        producer.addHoliday(LocalDate.of(2020, 1, 7));
+        long lastId = producer.appendHolidaysToNDJSON(feed.toString(), -1);
+        long offset = tailer.poll();
+        int firstImport = consumer.getHolidays().size();
+        producer.addHoliday(Holiday.builder().holidayDate(LocalDate.of(2020, 5, 1)).holidayName("Labour Day").build());
+        long nextLastId = producer.appendHolidaysToNDJSON(feed.toString(), lastId);
+        long nextOffset = tailer.poll();
+
+        //then
+        assertEquals(0, emptyOffset);
+        assertEquals(1, lastId);
+        assertEquals(2, nextLastId);
+        assertEquals(2, firstImport);
+        assertTrue(nextOffset > offset);
+        assertEquals(nextOffset, tailer.poll());
+        assertEquals(producer.getHolidays(), consumer.getHolidays());
+    }
+
+    @Test
+    void poll_ReplacedFeed_ReadFromStartSkippingAddedHolidays() throws IOException {
+        //given
+        Path feed = directory.resolve("feed.ndjson");
+        DefaultHolidayService producer = new DefaultHolidayService();
+        DefaultHolidayService consumer = new DefaultHolidayService();
+        HolidayFeedTailer tailer = new HolidayFeedTailer(consumer, feed, 1000);
+        producer.addHolidaysBetween(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 10));
+        producer.appendHolidaysToNDJSON(feed.toString(), -1);
+        tailer.poll();
+
+        //when
+        Files.delete(feed);
+        producer.appendHolidaysToNDJSON(feed.toString(), 8);
+        tailer.poll();
+
+        //then
+        assertEquals(Files.size(feed), tailer.getOffset());
+        assertEquals(10, consumer.getHolidays().values().stream().mapToInt(Set::size).sum());
+    }
+
+    @Test
+    void poll_MalformedLine_SkippedAndFeedContinued() throws IOException {
+        //given
+        Path feed = directory.resolve("feed.ndjson");
+        DefaultHolidayService consumer = new DefaultHolidayService();
+        HolidayFeedTailer tailer = new HolidayFeedTailer(consumer, feed, 1000);
+        Files.writeString(feed, "{\"id\":1,\"date\":\"2020-01-01\"}\n{\"id\":2,\"date\":\"2020-13-01\"}\n"
+                + "{\"id\":3,\"date\":\"2020-01-07\"}\n");
+
+        //when
+        long offset = tailer.poll();
+        Files.writeString(feed, "{\"id\":4,\"date\":\"2020-05-01\"}\n", StandardOpenOption.APPEND);
+        long nextOffset = tailer.poll();
+
+        //then
+        assertEquals(1, tailer.getSkippedLines());
+        assertTrue(nextOffset > offset);
+        assertEquals(Files.size(feed), nextOffset);
+        assertEquals(Set.of(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 7), LocalDate.of(2020, 5, 1)),
+                consumer.getHolidays().keySet());
+    }
+}
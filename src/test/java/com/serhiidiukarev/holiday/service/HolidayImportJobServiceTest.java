@@ -0,0 +1,175 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayImportJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private HolidayImportJobService underTest;
+
+    @AfterEach
+    void tearDown() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    void submit_JsonWithInvalidRow_RowRejectedOthersAdded() throws Exception {
+        //given
+        DefaultHolidayService holidayService = new DefaultHolidayService();
+        underTest = new HolidayImportJobService(holidayService, 1, 1, 10, directory);
+
+        //when
+        HolidayImportJob job = underTest.submit("holidays.json", null, file -> Files.writeString(file,
+                "[{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"},"
+                        + "{\"name\":\"B\"},"
+                        + "{\"date\":\"2020-01-02\",\"name\":\"C\",\"category\":\"OTHER\"}]"));
+        awaitFinished(job);
+
+        //then
+        assertEquals(HolidayImportJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(HolidayImportJob.Format.JSON, job.getFormat());
+        assertEquals(3, job.getHolidaysRead());
+        assertEquals(2, job.getHolidaysAdded());
+        assertEquals(1, job.getErrorCount());
+        assertEquals(2, job.getErrors().get(0).getRow());
+        assertEquals(job.getTotalBytes(), job.getBytesRead());
+        assertEquals(2, holidayService.getHolidays().size());
+        assertSame(job, underTest.getJob(job.getJobId()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void submit_MalformedCsv_JobFailed() throws Exception {
+        //given
+        underTest = new HolidayImportJobService(new DefaultHolidayService(), 1, 1, 10, directory);
+
+        //when
+        HolidayImportJob job = underTest.submit("holidays.csv", null,
+                file -> Files.writeString(file, "1,CUSTOM,A,2020-01-01\n2,CUSTOM,B,2020-13-01\n"));
+        awaitFinished(job);
+
+        //then
+        assertEquals(HolidayImportJob.Status.FAILED, job.getStatus());
+        assertTrue(job.getFailure().startsWith("Malformed CSV line 2"));
+        assertEquals(0, job.getHolidaysAdded());
+    }
+
+    @Test
+    void submit_QueueFull_RejectedWithoutSavingUpload() throws Exception {
+        //given
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DefaultHolidayService holidayService = new DefaultHolidayService() {
+            @Override
+            public int addHolidays(List<Holiday> holidays, BiConsumer<Integer, IllegalArgumentException> rejected) {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.addHolidays(holidays, rejected);
+            }
+        };
+        underTest = new HolidayImportJobService(holidayService, 1, 1, 10, directory);
+        String content = "[{\"date\":\"2020-01-01\",\"name\":\"A\"}]";
+        HolidayImportJob first = underTest.submit("first.json", null, file -> Files.writeString(file, content));
+        running.await();
+        HolidayImportJob second = underTest.submit("second.json", null, file -> Files.writeString(file, content));
+
+        //when
+        assertThrows(RejectedExecutionException.class,
+                () -> underTest.submit("third.json", null, file -> Files.writeString(file, content)));
+
+        //then
+        assertEquals(HolidayImportJob.Status.RUNNING, first.getStatus());
+        assertEquals(HolidayImportJob.Status.QUEUED, second.getStatus());
+        assertEquals(2, underTest.getJobs().size());
+        release.countDown();
+        awaitFinished(second);
+        assertEquals(1, holidayService.getHolidays().get(LocalDate.of(2020, 1, 1)).size());
+    }
+
+    @Test
+    void importNow_NdjsonWithDuplicates_SummaryCounted() {
+        //given
+        DefaultHolidayService holidayService = new DefaultHolidayService();
+        holidayService.addHoliday(Holiday.builder().holidayDate(LocalDate.of(2020, 1, 1))
+                .holidayName("A").holidayCategory(Holiday.HolidayCategory.CUSTOM).build());
+        underTest = new HolidayImportJobService(holidayService, 1, 1, 10, directory);
+        String body = "{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"}\n"
+                + "{\"date\":\"2020-01-02\",\"name\":\"B\",\"category\":\"CUSTOM\"}\n"
+                + "{\"name\":\"C\"}\n"
+                + "{\"date\":\"2020-01-02\",\"name\":\"B\",\"category\":\"CUSTOM\"}";
+
+        //when
+        HolidayImportJob job = underTest.importNow("bulk", HolidayImportJob.Format.NDJSON,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        //then
+        assertEquals(HolidayImportJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(4, job.getHolidaysRead());
+        assertEquals(1, job.getHolidaysAdded());
+        assertEquals(2, job.getDuplicates());
+        assertEquals(1, job.getErrorCount());
+        assertEquals(3, job.getErrors().get(0).getRow());
+        assertSame(job, underTest.getJob(job.getJobId()));
+    }
+
+    @Test
+    void importNow_MalformedJsonArray_JobFailed() {
+        //given
+        DefaultHolidayService holidayService = new DefaultHolidayService();
+        underTest = new HolidayImportJobService(holidayService, 1, 1, 10, directory);
+        String body = "[{\"date\":\"2020-01-01\",\"name\":\"A\",\"category\":\"CUSTOM\"},";
+
+        //when
+        HolidayImportJob job = underTest.importNow("bulk", HolidayImportJob.Format.JSON,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        //then
+        assertEquals(HolidayImportJob.Status.FAILED, job.getStatus());
+        assertNotNull(job.getFailure());
+        assertThrows(IllegalArgumentException.class, () -> underTest.importNow("bulk",
+                HolidayImportJob.Format.CSV, new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void format_FileNames_ChosenByExtension() {
+        assertEquals(HolidayImportJob.Format.JSON, HolidayImportJob.Format.of("a.JSON.gz"));
+        assertEquals(HolidayImportJob.Format.NDJSON, HolidayImportJob.Format.of("a.ndjson"));
+        assertEquals(HolidayImportJob.Format.CSV, HolidayImportJob.Format.of("a.csv"));
+        assertEquals(HolidayImportJob.Format.CALENDAR, HolidayImportJob.Format.of("a.hcal"));
+        assertThrows(IllegalArgumentException.class, () -> HolidayImportJob.Format.of("a.txt"));
+    }
+
+    private static void awaitFinished(HolidayImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
+    }
+}
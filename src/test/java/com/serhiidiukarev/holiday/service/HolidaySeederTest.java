@@ -0,0 +1,155 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import com.serhiidiukarev.holiday.HolidaySeed;
+import com.serhiidiukarev.holiday.repository.HolidayRepository;
+import com.serhiidiukarev.holiday.repository.HolidaySeedRepository;
+import com.serhiidiukarev.holiday.repository.HolidayVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HolidaySeederTest {
+
+    private static final Map<String, List<String>> MAPPING = Map.of("0", List.of("Holiday 1", "CUSTOM", "2020-01-02"));
+
+    @Mock
+    private HolidayRepository holidayRepository;
+    @Mock
+    private HolidaySeedRepository seedRepository;
+    @Mock
+    private HolidayVersionRepository versionRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ResourceLoader resourceLoader;
+
+    private HolidaySeeder underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new HolidaySeeder(holidayRepository, seedRepository, versionRepository, entityManager,
+                transactionManager, resourceLoader, new String[0], 2);
+    }
+
+    @Test
+    void seed_NewSeed_InsertedUnderVersionLock() {
+        //given
+        when(versionRepository.increment(0)).thenReturn(1);
+        when(seedRepository.findById(HolidaySeeder.MAPPING_SOURCE)).thenReturn(Optional.empty());
+        when(holidayRepository.findByHolidayDateBetween(any(), any())).thenReturn(List.of());
+
+        //when
+        long added = underTest.seed(MAPPING);
+
+        //then
+        assertEquals(1, added);
+        InOrder order = inOrder(versionRepository, holidayRepository, seedRepository);
+        order.verify(versionRepository).increment(0);
+        order.verify(holidayRepository).saveAll(any());
+        order.verify(versionRepository).increment(1);
+        order.verify(seedRepository).save(any());
+    }
+
+    @Test
+    void seed_LoadedByOtherNodeMeanwhile_Skipped() {
+        //given
+        HolidaySeed loaded = new HolidaySeed(HolidaySeeder.MAPPING_SOURCE, HolidaySeeder.checksum(MAPPING), 1, Instant.now());
+        when(versionRepository.increment(0)).thenReturn(1);
+        when(seedRepository.findById(HolidaySeeder.MAPPING_SOURCE)).thenReturn(Optional.empty(), Optional.of(loaded));
+
+        //when
+        long added = underTest.seed(MAPPING);
+
+        //then
+        assertEquals(0, added);
+        verify(versionRepository).increment(0);
+        verify(holidayRepository, never()).saveAll(any());
+        verify(seedRepository, never()).save(any());
+    }
+
+    @Test
+    void checksum_SameMappingInOtherOrder_SameChecksum() {
+        //given
+        Map<String, List<String>> mapping = new LinkedHashMap<>();
+        mapping.put("0", List.of("Holiday 1", "CUSTOM", "2020-01-02"));
+        mapping.put("1", List.of("Holiday 2", "GOVERNMENT", "2020-01-02"));
+        Map<String, List<String>> reordered = new LinkedHashMap<>();
+        reordered.put("1", List.of("Holiday 2", "GOVERNMENT", "2020-01-02"));
+        reordered.put("0", List.of("Holiday 1", "CUSTOM", "2020-01-02"));
+        Map<String, List<String>> changed = new LinkedHashMap<>(mapping);
+        changed.put("1", List.of("Holiday 2", "GOVERNMENT", "2020-01-03"));
+
+        //when
+        String checksum = HolidaySeeder.checksum(mapping);
+
+        //then
+        assertEquals(64, checksum.length());
+        assertEquals(checksum, HolidaySeeder.checksum(reordered));
+        assertNotEquals(checksum, HolidaySeeder.checksum(changed));
+    }
+
+    @Test
+    void checksum_Stream_Sha256() throws IOException {
+        //given
+        byte[] content = "abc".getBytes(StandardCharsets.UTF_8);
+
+        //when
+        String checksum = HolidaySeeder.checksum(new ByteArrayInputStream(content));
+
+        //then
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", checksum);
+    }
+
+    @Test
+    void sourceOf_LocationPattern_RootAndFileName() {
+        assertEquals("classpath:seed/holidays.json", HolidaySeeder.sourceOf("classpath*:seed/*", "holidays.json"));
+        assertEquals("classpath:seed/holidays.json", HolidaySeeder.sourceOf("classpath:seed/*.json", "holidays.json"));
+        assertEquals("file:./seed/holidays.csv", HolidaySeeder.sourceOf("file:./seed/*", "holidays.csv"));
+        assertEquals("classpath:holidays.json", HolidaySeeder.sourceOf("classpath*:*.json", "holidays.json"));
+        assertEquals("classpath:seed/holidays.json", HolidaySeeder.sourceOf("classpath:seed/holidays.json", "holidays.json"));
+    }
+
+    @Test
+    void holidaysOf_Mapping_HolidaysParsed() {
+        //given
+        Map<String, List<String>> mapping = Map.of("0", List.of("Holiday 1", "CUSTOM", "2020-01-02"));
+
+        //when
+        List<Holiday> holidays = HolidaySeeder.holidaysOf(mapping);
+
+        //then
+        assertEquals(1, holidays.size());
+        assertEquals("Holiday 1", holidays.get(0).getHolidayName());
+        assertEquals(Holiday.HolidayCategory.CUSTOM, holidays.get(0).getHolidayCategory());
+        assertEquals(LocalDate.of(2020, 1, 2), holidays.get(0).getHolidayDate());
+        assertThrows(IllegalArgumentException.class,
+                () -> HolidaySeeder.holidaysOf(Map.of("1", List.of("Holiday 2", "CUSTOM"))));
+    }
+}
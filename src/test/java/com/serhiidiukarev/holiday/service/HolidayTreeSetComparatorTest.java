@@ -6,7 +6,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 public class HolidayTreeSetComparatorTest {
@@ -50,4 +53,24 @@ public class HolidayTreeSetComparatorTest {
         assertEquals(4, holidayTreeSetComparator.compare(holiday2, holiday1));
     }
 
+    @Test
+    public void testCompare_ChangedAfterHashCached() {
+        HolidayTreeSetComparator holidayTreeSetComparator = new HolidayTreeSetComparator();
+        holiday2.setHolidayId(2L);
+        assertEquals(0, holidayTreeSetComparator.compare(holiday1, holiday2));
+
+        holiday2.setHolidayName("C");
+        assertEquals(-1, holidayTreeSetComparator.compare(holiday1, holiday2));
+
+        holiday2.setHolidayName("B");
+        holiday2.setHolidayCategory(Holiday.HolidayCategory.OTHER);
+        assertEquals(-1, holidayTreeSetComparator.compare(holiday1, holiday2));
+
+        Set<Holiday> holidays = new TreeSet<>(holidayTreeSetComparator);
+        assertTrue(holidays.add(holiday1));
+        assertTrue(holidays.add(holiday2));
+        assertFalse(holidays.add(Holiday.builder().holidayId(3L).holidayCategory(Holiday.HolidayCategory.OTHER).holidayName("B").build()));
+        assertEquals(2, holidays.size());
+    }
+
 }
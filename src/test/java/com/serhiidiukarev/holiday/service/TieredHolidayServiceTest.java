@@ -0,0 +1,140 @@
+package com.serhiidiukarev.holiday.service;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredHolidayServiceTest {
+
+    private DefaultHolidayService store;
+    private TieredHolidayService underTest;
+
+    @BeforeEach
+    void setUp() {
+        store = new DefaultHolidayService();
+        store.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2)));
+        store.addHoliday(holiday("Holiday 2", LocalDate.of(2020, 1, 2)));
+        underTest = new TieredHolidayService(store);
+    }
+
+    @Test
+    void getHolidays_FirstRead_WarmedFromStore() {
+        assertEquals(store.getHolidays(), underTest.getHolidays());
+        assertThrows(UnsupportedOperationException.class, () -> underTest.getHolidays().clear());
+    }
+
+    @Test
+    void addHoliday_NewHoliday_WrittenThroughWithStoreId() {
+        //when
+        assertTrue(underTest.addHoliday(LocalDate.of(2020, 1, 3)));
+
+        //then
+        Holiday stored = store.getHolidays().get(LocalDate.of(2020, 1, 3)).iterator().next();
+        Holiday cached = underTest.getHolidays().get(LocalDate.of(2020, 1, 3)).iterator().next();
+        assertEquals(2L, stored.getHolidayId());
+        assertEquals(stored.getHolidayId(), cached.getHolidayId());
+        assertNotSame(stored, cached);
+        assertEquals(1, underTest.countWorkingDaysBetween(LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 6)));
+    }
+
+    @Test
+    void addHoliday_AlreadyInMemory_ThrowsWithoutStoreCall() {
+        underTest.warm();
+        long version = store.getVersion();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.addHoliday(holiday("Holiday 1", LocalDate.of(2020, 1, 2))));
+        assertEquals(version, store.getVersion());
+        assertEquals(2, store.getHolidays().get(LocalDate.of(2020, 1, 2)).size());
+    }
+
+    @Test
+    void deleteHoliday_Existing_RemovedFromBothTiers() {
+        //when
+        assertTrue(underTest.deleteHoliday(0L));
+
+        //then
+        assertEquals(Set.of("Holiday 2"), Set.of(underTest.getHolidays()
+                .get(LocalDate.of(2020, 1, 2)).iterator().next().getHolidayName()));
+        assertEquals(1, store.getHolidays().get(LocalDate.of(2020, 1, 2)).size());
+    }
+
+    @Test
+    void updateHoliday_OtherDate_OnlyChangedDatesCopied() {
+        //given
+        store.addHoliday(holiday("Holiday 3", LocalDate.of(2020, 5, 1)));
+        Set<Holiday> untouched = underTest.getHolidays().get(LocalDate.of(2020, 5, 1));
+
+        //when
+        underTest.updateHoliday(0L, LocalDate.of(2020, 1, 3), "Holiday 1", Holiday.HolidayCategory.CUSTOM);
+        underTest.deleteHoliday(1L);
+
+        //then
+        assertSame(untouched, underTest.getHolidays().get(LocalDate.of(2020, 5, 1)));
+        assertFalse(underTest.getHolidays().containsKey(LocalDate.of(2020, 1, 2)));
+        assertEquals(Set.of(LocalDate.of(2020, 1, 3), LocalDate.of(2020, 5, 1)), underTest.getHolidays().keySet());
+        assertEquals(0L, underTest.getHolidays().get(LocalDate.of(2020, 1, 3)).iterator().next().getHolidayId());
+    }
+
+    @Test
+    void getHolidays_StoreChangedByOtherNode_SnapshotUntilRefreshed() throws InterruptedException {
+        //given
+        underTest.start();
+        long version = underTest.getVersion();
+
+        //when
+        store.addHoliday(holiday("Holiday 3", LocalDate.of(2022, 4, 6)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!underTest.getHolidays().containsKey(LocalDate.of(2022, 4, 6)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        underTest.stop();
+
+        //then
+        assertTrue(underTest.getHolidays().containsKey(LocalDate.of(2022, 4, 6)));
+        assertEquals(store.getVersion(), underTest.getVersion());
+        assertNotEquals(version, underTest.getVersion());
+    }
+
+    @Test
+    void getHolidays_StoreChangedWithoutRefresher_LastSnapshotServed() {
+        //given
+        Map<LocalDate, Set<Holiday>> snapshot = underTest.getHolidays();
+        long version = underTest.getVersion();
+
+        //when
+        store.addHoliday(holiday("Holiday 3", LocalDate.of(2022, 4, 6)));
+
+        //then
+        assertSame(snapshot, underTest.getHolidays());
+        assertEquals(version, underTest.getVersion());
+    }
+
+    @Test
+    void addHoliday_StoreChangedByOtherNode_Reloaded() {
+        //given
+        underTest.getHolidays();
+        store.addHoliday(holiday("Holiday 3", LocalDate.of(2022, 4, 6)));
+
+        //when
+        underTest.addHoliday(LocalDate.of(2022, 4, 7));
+
+        //then
+        assertTrue(underTest.getHolidays().containsKey(LocalDate.of(2022, 4, 6)));
+        assertTrue(underTest.getHolidays().containsKey(LocalDate.of(2022, 4, 7)));
+    }
+
+    private static Holiday holiday(String name, LocalDate date) {
+        return Holiday.builder()
+                .holidayName(name)
+                .holidayCategory(Holiday.HolidayCategory.CUSTOM)
+                .holidayDate(date)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.serhiidiukarev.holiday.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkdayCountCacheTest {
+
+    private DefaultHolidayService holidayService;
+    private WorkdayCountCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        holidayService = new DefaultHolidayService();
+        underTest = new WorkdayCountCache(holidayService, 2);
+    }
+
+    @Test
+    void countWorkingDaysBetween_SameDates_ServedFromCache() {
+        //given
+        LocalDate start = LocalDate.of(2021, 3, 1);
+        LocalDate end = LocalDate.of(2021, 3, 31);
+
+        //when
+        int first = underTest.countWorkingDaysBetween(start, end);
+        int second = underTest.countWorkingDaysBetween(start, end);
+
+        //then
+        assertEquals(23, first);
+        assertEquals(first, second);
+        assertEquals(1, underTest.getMisses());
+        assertEquals(1, underTest.getHits());
+    }
+
+    @Test
+    void countWorkingDaysBetween_HolidayAdded_CountedAgain() {
+        //given
+        LocalDate start = LocalDate.of(2021, 3, 1);
+        LocalDate end = LocalDate.of(2021, 3, 31);
+        underTest.countWorkingDaysBetween(start, end);
+
+        //when
+        holidayService.addHoliday(LocalDate.of(2021, 3, 8));
+        int count = underTest.countWorkingDaysBetween(start, end);
+
+        //then
+        assertEquals(22, count);
+        assertEquals(2, underTest.getMisses());
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    void countWorkingDaysBetween_MoreDatesThanMaxSize_LeastRecentlyUsedDropped() {
+        //given
+        LocalDate start = LocalDate.of(2021, 3, 1);
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 1));
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 2));
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 1));
+
+        //when
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 3));
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 1));
+        underTest.countWorkingDaysBetween(start, LocalDate.of(2021, 3, 2));
+
+        //then
+        assertEquals(2, underTest.size());
+        assertEquals(2, underTest.getHits());
+        assertEquals(4, underTest.getMisses());
+    }
+
+    @Test
+    void countWorkingDaysBetween_StartAfterEnd_ExceptionThrown() {
+        //given
+        LocalDate start = LocalDate.of(2021, 3, 2);
+        LocalDate end = LocalDate.of(2021, 3, 1);
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> underTest.countWorkingDaysBetween(start, end));
+    }
+}
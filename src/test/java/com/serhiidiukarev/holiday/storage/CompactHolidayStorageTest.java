@@ -0,0 +1,115 @@
+package com.serhiidiukarev.holiday.storage;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactHolidayStorageTest {
+
+    private CompactHolidayStorage underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CompactHolidayStorage();
+    }
+
+    @Test
+    void add_UnorderedDays_KeptSortedByDayAndId() {
+        //given
+        underTest.add(3, 30, Holiday.HolidayCategory.CUSTOM, "C");
+        underTest.add(1, 10, Holiday.HolidayCategory.CUSTOM, "A");
+        underTest.add(4, 10, Holiday.HolidayCategory.OTHER, "A");
+        underTest.add(2, 20, Holiday.HolidayCategory.GOVERNMENT, null);
+
+        //when
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < underTest.size(); i++) {
+            ids.add(underTest.holidayAt(i).getHolidayId());
+        }
+
+        //then
+        assertEquals(List.of(1L, 4L, 2L, 3L), ids);
+        assertEquals(3, underTest.distinctDays());
+        assertEquals(LocalDate.ofEpochDay(20), underTest.holidayAt(2).getHolidayDate());
+        assertNull(underTest.holidayAt(2).getHolidayName());
+    }
+
+    @Test
+    void add_EqualHoliday_False() {
+        assertTrue(underTest.add(1, 10, Holiday.HolidayCategory.CUSTOM, "A"));
+        assertFalse(underTest.add(2, 10, Holiday.HolidayCategory.CUSTOM, "A"));
+        assertTrue(underTest.add(3, 10, Holiday.HolidayCategory.GOVERNMENT, "A"));
+        assertTrue(underTest.add(4, 10, null, null));
+        assertFalse(underTest.add(5, 10, null, null));
+
+        assertEquals(3, underTest.size());
+        assertEquals(1, underTest.distinctDays());
+    }
+
+    @Test
+    void add_GeneratedAndEqualExplicitName_Deduplicated() {
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        Holiday generated = Holiday.builder().holidayDate(date).generatedName().build();
+
+        assertTrue(underTest.add(1, generated));
+        assertFalse(underTest.add(2, (int) date.toEpochDay(), null, "2020-01-01"));
+        assertTrue(underTest.contains((int) date.toEpochDay(), null, "2020-01-01"));
+
+        Holiday stored = underTest.holidayAt(0);
+        assertTrue(stored.isGeneratedName());
+        assertEquals("2020-01-01", stored.getHolidayName());
+    }
+
+    @Test
+    void removeById_LastHolidayOfDay_DayRemoved() {
+        underTest.add(1, 10, Holiday.HolidayCategory.CUSTOM, "A");
+        underTest.add(2, 10, Holiday.HolidayCategory.CUSTOM, "B");
+        underTest.add(3, 11, Holiday.HolidayCategory.CUSTOM, "A");
+
+        assertTrue(underTest.removeById(3));
+        assertFalse(underTest.containsDay(11));
+        assertEquals(1, underTest.distinctDays());
+
+        assertTrue(underTest.removeById(1));
+        assertTrue(underTest.containsDay(10));
+        assertFalse(underTest.removeById(1));
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    void countWeekdayHolidays_HolidaysOnWeekendAndTwicePerDay_CountedOnce() {
+        LocalDate friday = LocalDate.of(2022, 7, 1);
+        LocalDate saturday = LocalDate.of(2022, 7, 2);
+        LocalDate monday = LocalDate.of(2022, 7, 4);
+        underTest.add(1, (int) friday.toEpochDay(), Holiday.HolidayCategory.CUSTOM, "A");
+        underTest.add(2, (int) friday.toEpochDay(), Holiday.HolidayCategory.CUSTOM, "B");
+        underTest.add(3, (int) saturday.toEpochDay(), Holiday.HolidayCategory.CUSTOM, "A");
+        underTest.add(4, (int) monday.toEpochDay(), Holiday.HolidayCategory.CUSTOM, "A");
+
+        assertEquals(2, underTest.countWeekdayHolidays(friday.toEpochDay(), monday.toEpochDay()));
+        assertEquals(1, underTest.countWeekdayHolidays(saturday.toEpochDay(), monday.toEpochDay()));
+        assertEquals(0, underTest.countWeekdayHolidays(monday.toEpochDay(), friday.toEpochDay()));
+    }
+
+    @Test
+    void asMap_LiveView_ReflectsChanges() {
+        var map = underTest.asMap();
+        underTest.add(1, 10, Holiday.HolidayCategory.CUSTOM, "A");
+
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey(LocalDate.ofEpochDay(10)));
+        assertEquals(1, map.get(LocalDate.ofEpochDay(10)).size());
+
+        underTest.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(LocalDate.MAX));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(LocalDate.ofEpochDay(1), null));
+    }
+}
@@ -0,0 +1,137 @@
+package com.serhiidiukarev.holiday.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayChangeLogTest {
+
+    @Test
+    void changesSince_LaterUpdate_ReplacesEarlierChange() {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(100);
+        underTest.recordUpdate(1);
+        long since = underTest.recordUpdate(2);
+        underTest.recordUpdate(3);
+        underTest.recordUpdate(1);
+
+        //when
+        HolidayChangeLog.Delta delta = underTest.changesSince(since);
+
+        //then
+        assertEquals(104, delta.getVersion());
+        assertFalse(delta.isReset());
+        assertFalse(delta.isFull());
+        List<HolidayChangeLog.Change> changes = delta.getChanges();
+        assertEquals(2, changes.size());
+        assertEquals(3L, changes.get(0).getHolidayId());
+        assertEquals(103, changes.get(0).getVersion());
+        assertEquals(1L, changes.get(1).getHolidayId());
+        assertEquals(104, changes.get(1).getVersion());
+        assertEquals(Set.of(1L, 3L), delta.getUpdatedIds());
+    }
+
+    @Test
+    void changesSince_Deleted_Tombstone() {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(100);
+        underTest.recordUpdate(1);
+        underTest.recordUpdate(2);
+        underTest.recordDelete(1);
+
+        //when
+        HolidayChangeLog.Delta delta = underTest.changesSince(100);
+
+        //then
+        assertEquals(2, delta.getChanges().size());
+        assertTrue(delta.getChanges().get(1).isDeleted());
+        assertEquals(Set.of(2L), delta.getUpdatedIds());
+        assertTrue(underTest.changesSince(underTest.getVersion()).getChanges().isEmpty());
+    }
+
+    @Test
+    void changesSince_ClearAndOlderVersion_ResetAndFull() {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(100);
+        underTest.recordUpdate(1);
+        long cleared = underTest.recordClear();
+        underTest.recordUpdate(2);
+
+        //when
+        HolidayChangeLog.Delta beforeClear = underTest.changesSince(101);
+        HolidayChangeLog.Delta afterClear = underTest.changesSince(cleared);
+        HolidayChangeLog.Delta beforeLog = underTest.changesSince(0);
+
+        //then
+        assertTrue(beforeClear.isReset());
+        assertEquals(1, beforeClear.getChanges().size());
+        assertFalse(afterClear.isReset());
+        assertEquals(Set.of(2L), afterClear.getUpdatedIds());
+        assertTrue(beforeLog.isFull());
+        assertTrue(beforeLog.isReset());
+        assertEquals(103, beforeLog.getVersion());
+        assertTrue(underTest.changesSince(200).isFull());
+    }
+
+    @Test
+    void awaitChange_ChangeRecordedByOtherThread_NewVersion() throws Exception {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(100);
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            underTest.recordUpdate(1);
+        });
+
+        //when
+        writer.start();
+        long version = underTest.awaitChange(100, 10_000);
+
+        //then
+        assertEquals(101, version);
+        assertEquals(101, underTest.awaitChange(101, 10));
+        writer.join();
+    }
+
+    @Test
+    void follow_ChangesOfOtherNode_StartsOver() {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(0);
+        underTest.recordUpdate(1, 1);
+        underTest.recordUpdate(2, 2);
+
+        //when
+        underTest.follow(5);
+        underTest.recordDelete(1, 6);
+
+        //then
+        assertEquals(6, underTest.getVersion());
+        assertTrue(underTest.changesSince(2).isFull());
+        HolidayChangeLog.Delta delta = underTest.changesSince(5);
+        assertFalse(delta.isFull());
+        assertEquals(1, delta.getChanges().size());
+        assertTrue(delta.getChanges().get(0).isDeleted());
+    }
+
+    @Test
+    void recordUpdate_VersionCoveredByStartOver_Ignored() {
+        //given
+        HolidayChangeLog underTest = new HolidayChangeLog(0);
+        underTest.recordUpdate(1, 1);
+        underTest.recordUpdate(3, 3);
+
+        //when
+        underTest.recordUpdate(2, 2);
+
+        //then
+        assertEquals(3, underTest.getVersion());
+        assertTrue(underTest.changesSince(1).isFull());
+        assertEquals(Set.of(3L), underTest.changesSince(2).getUpdatedIds());
+    }
+}
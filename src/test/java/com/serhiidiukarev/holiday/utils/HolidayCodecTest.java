@@ -0,0 +1,67 @@
+package com.serhiidiukarev.holiday.utils;
+
+import com.serhiidiukarev.holiday.Holiday;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayCodecTest {
+
+    @Test
+    void format_EveryDayOfCenturies_SameAsFormatter() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 2, 1)); date = date.plusDays(1)) {
+            String text = LocalDateAdapter.formatter.format(date);
+
+            assertEquals(text, LocalDateAdapter.format(date));
+            assertEquals(date, LocalDateAdapter.parse(text));
+        }
+        assertEquals("0001-01-01", LocalDateAdapter.format(LocalDate.of(1, 1, 1)));
+        assertEquals("9999-12-31", LocalDateAdapter.format(LocalDate.of(9999, 12, 31)));
+        assertEquals(LocalDateAdapter.formatter.format(LocalDate.of(10000, 1, 1)), LocalDateAdapter.format(LocalDate.of(10000, 1, 1)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2021-02-30", "2020-04-31", "2020-02-29", "0001-01-01"})
+    void parse_DayOfMonth_ResolvedAsByFormatter(String text) {
+        assertEquals(LocalDate.parse(text, LocalDateAdapter.formatter), LocalDateAdapter.parse(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2021-13-01", "2021-00-10", "2021-1-01", "20a1-01-01", "2021/01/01", ""})
+    void parse_InvalidDate_ThrowsDateTimeParseException(String text) {
+        assertThrows(DateTimeParseException.class, () -> LocalDateAdapter.parse(text));
+    }
+
+    @Test
+    void writeMap_Compact_ReadBackSameHolidays() {
+        //given
+        Map<LocalDate, Set<Holiday>> holidays = new TreeMap<>();
+        Set<Holiday> newYear = new TreeSet<>(new HolidayTreeSetComparator());
+        newYear.add(Holiday.builder().holidayId(0L).holidayDate(LocalDate.of(2020, 1, 1)).holidayName("New \"Year\"").holidayCategory(Holiday.HolidayCategory.GOVERNMENT).build());
+        newYear.add(Holiday.builder().holidayId(1L).holidayDate(LocalDate.of(2020, 1, 1)).generatedName().build());
+        holidays.put(LocalDate.of(2020, 1, 1), newYear);
+        holidays.put(LocalDate.of(2020, 1, 2), new TreeSet<>(new HolidayTreeSetComparator()));
+        StringWriter writer = new StringWriter();
+
+        //when
+        HolidayCodec.writeMap(holidays, writer, false);
+        Map<LocalDate, Set<Holiday>> read = HolidayCodec.gson(false).fromJson(writer.toString(), HolidayCodec.HOLIDAY_MAP_TYPE);
+
+        //then
+        assertFalse(writer.toString().contains("\n"));
+        assertTrue(writer.toString().startsWith("{\"2020-01-01\":[{\"id\":"));
+        assertEquals(holidays, read);
+        assertEquals("New \"Year\"", read.get(LocalDate.of(2020, 1, 1)).stream()
+                .filter(holiday -> holiday.getHolidayId() == 0L).findFirst().orElseThrow().getHolidayName());
+    }
+}